@@ -1,5 +1,6 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import './NotificationCenter.css';
+import { subscribeLiveEvents } from '../liveEvents';
 
 /**
  * 通知センターコンポーネント
@@ -11,6 +12,10 @@ const NotificationCenter = ({ userId }) => {
     const [loading, setLoading] = useState(false);
     const [error, setError] = useState('');
     const [showAll, setShowAll] = useState(false);
+    // 表示中の通知ID（ライブイベントと再取得で同じ通知を二重に数えないため）
+    const knownIdsRef = useRef(new Set());
+    // 購読中のコールバックから最新の表示条件で再取得するため
+    const resyncRef = useRef(() => {});
 
     /**
      * 通知を取得
@@ -49,6 +54,54 @@ const NotificationCenter = ({ userId }) => {
         }
     };
 
+    /**
+     * 未読通知数を取得（一覧を読み込まずにバッジを更新）
+     */
+    const fetchUnreadCount = async () => {
+        if (!userId) return;
+
+        try {
+            const response = await fetch(`/api/notifications/user/${userId}/unread/count`, {
+                headers: {
+                    'Authorization': `Bearer ${localStorage.getItem('authToken')}`,
+                    'Content-Type': 'application/json'
+                }
+            });
+
+            if (response.ok) {
+                const data = await response.json();
+                setUnreadCount(data.unreadCount);
+            }
+        } catch (err) {
+            console.error('未読通知数の取得に失敗しました:', err);
+        }
+    };
+
+    /**
+     * すべての通知を既読にする
+     */
+    const markAllAsRead = async () => {
+        try {
+            const response = await fetch(`/api/notifications/user/${userId}/read-all`, {
+                method: 'PUT',
+                headers: {
+                    'Authorization': `Bearer ${localStorage.getItem('authToken')}`,
+                    'Content-Type': 'application/json'
+                }
+            });
+
+            if (response.ok) {
+                const readAt = new Date().toISOString();
+                setNotifications(prev => showAll
+                    ? prev.map(notification => notification.readAt ? notification : { ...notification, readAt })
+                    : []);
+                setUnreadCount(0);
+            }
+        } catch (err) {
+            console.error('通知の一括既読処理に失敗しました:', err);
+        }
+    };
+
     /**
      * 通知を既読にする
      */
@@ -177,21 +230,35 @@ const NotificationCenter = ({ userId }) => {
         return date.toLocaleString('ja-JP');
     };
 
+    resyncRef.current = () => {
+        fetchNotifications();
+        fetchUnreadCount();
+    };
+
+    useEffect(() => {
+        knownIdsRef.current = new Set(notifications.map(n => n.id));
+    }, [notifications]);
+
     // コンポーネントマウント時に通知を取得
     useEffect(() => {
         fetchNotifications();
     }, [userId, showAll]);
 
-    // 定期的に通知を更新（5分間隔）
+    // 新しい通知をライブイベントで受け取る（接続・再接続時は一覧を再取得）
+    // 購読はユーザーごとに1つとし、表示の切り替えでは再接続しない
     useEffect(() => {
-        const interval = setInterval(() => {
-            if (!showAll) {
-                fetchNotifications();
-            }
-        }, 5 * 60 * 1000);
+        if (!userId) return undefined;
 
-        return () => clearInterval(interval);
-    }, [showAll]);
+        return subscribeLiveEvents({
+            onNotification: (notification) => {
+                if (knownIdsRef.current.has(notification.id)) return;
+                knownIdsRef.current.add(notification.id);
+                setNotifications(prev => [notification, ...prev]);
+                setUnreadCount(prev => prev + 1);
+            },
+            onResync: () => resyncRef.current()
+        });
+    }, [userId]);
 
     if (loading) {
         return (
@@ -218,6 +285,14 @@ const NotificationCenter = ({ userId }) => {
                     >
                         すべて
                     </button>
+                    {unreadCount > 0 && (
+                        <button 
+                            className="toggle-btn"
+                            onClick={markAllAsRead}
+                        >
+                            すべて既読
+                        </button>
+                    )}
                 </div>
             </div>
 
@@ -0,0 +1,99 @@
+/**
+ * ライブイベント（Server-Sent Events）クライアント
+ * /api/live/events を購読し、スペットの状態変更・新しい通知・再取得要求をコールバックに渡す
+ *
+ * EventSource は Authorization ヘッダーを送れないため、fetch のストリームを読み取って SSE を解析する。
+ * 接続が切れた場合は指数バックオフで再接続し、再接続時は onResync で最新状態の再取得を促す。
+ */
+
+const STREAM_URL = '/api/live/events';
+const INITIAL_RETRY_MS = 1000;
+const MAX_RETRY_MS = 30000;
+
+/**
+ * SSEのイベントブロックを解析
+ */
+const parseEvent = (block) => {
+    let name = 'message';
+    const data = [];
+    block.split('\n').forEach(line => {
+        if (line.startsWith(':')) return;
+        const separator = line.indexOf(':');
+        const field = separator === -1 ? line : line.slice(0, separator);
+        let value = separator === -1 ? '' : line.slice(separator + 1);
+        if (value.startsWith(' ')) value = value.slice(1);
+        if (field === 'event') name = value;
+        if (field === 'data') data.push(value);
+    });
+    return data.length === 0 ? null : { name, data: data.join('\n') };
+};
+
+/**
+ * ライブイベントを購読
+ * @param {object} handlers onSpots(spots), onNotification(notification), onResync()（いずれも省略可。
+ *   onSpots は空き状況画面向けで、このフロントエンドには未実装のため現在は購読側がない）
+ * @returns {function} 購読を停止する関数
+ */
+export const subscribeLiveEvents = ({ onSpots, onNotification, onResync } = {}) => {
+    const controller = new AbortController();
+    let retryMs = INITIAL_RETRY_MS;
+    let retryTimer = null;
+
+    const dispatch = (event) => {
+        try {
+            const payload = JSON.parse(event.data);
+            if (event.name === 'spots' && onSpots) onSpots(payload);
+            if (event.name === 'notification' && onNotification) onNotification(payload);
+            if (event.name === 'resync' && onResync) onResync();
+        } catch (err) {
+            console.error('ライブイベントの解析に失敗しました:', err);
+        }
+    };
+
+    const connect = async () => {
+        try {
+            const response = await fetch(STREAM_URL, {
+                headers: {
+                    'Authorization': `Bearer ${localStorage.getItem('authToken')}`,
+                    'Accept': 'text/event-stream'
+                },
+                signal: controller.signal
+            });
+            if (!response.ok || !response.body) {
+                throw new Error(`HTTP ${response.status}`);
+            }
+
+            const reader = response.body.getReader();
+            const decoder = new TextDecoder();
+            let buffer = '';
+            retryMs = INITIAL_RETRY_MS;
+
+            for (;;) {
+                const { value, done } = await reader.read();
+                if (done) break;
+                buffer += decoder.decode(value, { stream: true }).replace(/\r\n?/g, '\n');
+                let boundary;
+                while ((boundary = buffer.indexOf('\n\n')) !== -1) {
+                    const event = parseEvent(buffer.slice(0, boundary));
+                    buffer = buffer.slice(boundary + 2);
+                    if (event) dispatch(event);
+                }
+            }
+        } catch (err) {
+            if (controller.signal.aborted) return;
+            console.warn('ライブイベントの接続が切れました:', err.message);
+        }
+
+        if (!controller.signal.aborted) {
+            retryTimer = setTimeout(connect, retryMs);
+            retryMs = Math.min(retryMs * 2, MAX_RETRY_MS);
+        }
+    };
+
+    connect();
+
+    return () => {
+        controller.abort();
+        clearTimeout(retryTimer);
+    };
+};
@@ -0,0 +1,93 @@
+package com.parking.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.ParkingSpot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * APIレスポンスのJSONシリアライズの計測
+ * スペット一覧（/api/parking/spots）とセッション（スペットを含む）を、
+ * Spring Boot と同じ設定（JavaTimeModule、日時は文字列）の ObjectMapper で変換する
+ *
+ * 実行方法: ./gradlew jmh -Pjmh.includes=EntitySerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntitySerializationBenchmark {
+
+    private static final int SPOTS = 200;
+    private static final ParkingSpot.SpotType[] TYPES = ParkingSpot.SpotType.values();
+
+    private ObjectWriter writer;
+    private List<ParkingSpot> spots;
+    private ParkingSession session;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .writer();
+
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        spots = new ArrayList<>(SPOTS);
+        for (int i = 0; i < SPOTS; i++) {
+            ParkingSpot spot = new ParkingSpot();
+            spot.setId((long) i);
+            spot.setSpotNumber(String.format("A-%03d", i));
+            spot.setSpotType(TYPES[i % TYPES.length]);
+            spot.setStatus(i % 3 == 0 ? ParkingSpot.SpotStatus.OCCUPIED : ParkingSpot.SpotStatus.AVAILABLE);
+            spot.setFloorLevel(i / 50 + 1);
+            spot.setHourlyRate(300.0);
+            spot.setCreatedAt(base);
+            spot.setUpdatedAt(base);
+            spot.setVersion(0L);
+            spots.add(spot);
+        }
+
+        session = new ParkingSession();
+        session.setId(1L);
+        session.setParkingSpot(spots.get(0));
+        session.setLicensePlate("品川 300 あ 1234");
+        session.setEntryTime(base);
+        session.setExitTime(base.plusHours(3));
+        session.setTotalAmount(BigDecimal.valueOf(900));
+        session.setStatus(ParkingSession.SessionStatus.COMPLETED);
+        session.setPaymentStatus(ParkingSession.PaymentStatus.PAID);
+        session.setCreatedAt(base);
+        session.setUpdatedAt(base.plusHours(3));
+    }
+
+    @Benchmark
+    public byte[] serializeSpotList() throws Exception {
+        return writer.writeValueAsBytes(spots);
+    }
+
+    @Benchmark
+    public byte[] serializeSession() throws Exception {
+        return writer.writeValueAsBytes(session);
+    }
+}
@@ -0,0 +1,135 @@
+package com.parking.benchmark;
+
+import com.parking.entity.Role;
+import com.parking.entity.User;
+import com.parking.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT認証の1リクエストあたりのコスト計測
+ * 1リクエストで行う検証（validateToken + ユーザーID + 権限の取得）を
+ * 旧実装（呼び出しごとに鍵とパーサーを生成して再検証）、パーサー再利用のみ、検証済みクレームのキャッシュで比較する。
+ * ログイン時のトークン生成（generateToken）と、生成直後のトークンの初回検証（キャッシュに載らない解析）も計測する
+ *
+ * 実行方法: ./gradlew jmh -Pjmh.includes=JwtServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET =
+        "benchmarkSecretKeyThatIsLongEnoughForHmacSha512SignaturesInJmhRuns0123456789";
+    private static final long EXPIRATION = 3_600_000L;
+    private static final String USERNAME = "bench-user";
+
+    private JwtService cachedService;
+    private JwtService uncachedService;
+    private String token;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        cachedService = new JwtService(SECRET, EXPIRATION, 10_000);
+        uncachedService = new JwtService(SECRET, EXPIRATION, 0);
+        Date now = new Date();
+        token = Jwts.builder()
+            .setSubject(USERNAME)
+            .claim("userId", 42L)
+            .claim("email", "bench@example.com")
+            .claim("roles", List.of("ROLE_USER", "ROLE_CUSTOMER"))
+            .setIssuedAt(now)
+            .setExpiration(new Date(now.getTime() + EXPIRATION))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS512)
+            .compact();
+
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        user = new User();
+        user.setId(42L);
+        user.setUsername(USERNAME);
+        user.setEmail("bench@example.com");
+        user.setRoles(Set.of(role));
+    }
+
+    /**
+     * トークン生成（ログイン・トークン更新時）
+     */
+    @Benchmark
+    public String generateToken() {
+        return uncachedService.generateToken(user);
+    }
+
+    /**
+     * 生成したトークンの署名検証と解析（キャッシュなし）
+     */
+    @Benchmark
+    public Claims generateAndParse() {
+        return uncachedService.verify(uncachedService.generateToken(user));
+    }
+
+    /**
+     * 旧実装: アクセサごとに鍵・パーサーを生成して署名を再検証（validateTokenで2回解析）
+     */
+    @Benchmark
+    public void legacyPerRequest(Blackhole blackhole) {
+        Claims forUsername = legacyClaims(token);
+        Claims forExpiration = legacyClaims(token);
+        blackhole.consume(USERNAME.equals(forUsername.getSubject())
+            && !forExpiration.getExpiration().before(new Date()));
+        blackhole.consume(legacyClaims(token).get("userId", Long.class));
+        blackhole.consume(legacyClaims(token).get("roles", List.class));
+    }
+
+    /**
+     * 鍵とパーサーは再利用するが、キャッシュなし（毎回署名を検証）
+     */
+    @Benchmark
+    public void verifyEveryCall(Blackhole blackhole) {
+        perRequest(uncachedService, blackhole);
+    }
+
+    /**
+     * 検証済みクレームのキャッシュあり
+     */
+    @Benchmark
+    public void cachedVerification(Blackhole blackhole) {
+        perRequest(cachedService, blackhole);
+    }
+
+    private void perRequest(JwtService service, Blackhole blackhole) {
+        blackhole.consume(service.validateToken(token, USERNAME));
+        blackhole.consume(service.getUserIdFromToken(token));
+        blackhole.consume(service.getAuthoritiesFromToken(token));
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+            .build()
+            .parseClaimsJws(token)
+            .getBody();
+    }
+}
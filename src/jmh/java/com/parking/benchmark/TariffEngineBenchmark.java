@@ -0,0 +1,140 @@
+package com.parking.benchmark;
+
+import com.parking.config.TariffProperties;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.ParkingSpot;
+import com.parking.service.TariffEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 料金計算のスループット計測
+ * 合成セッション（入庫時刻・駐車時間・スペットタイプがランダム）の料金を、
+ * 料金計算エンジン（時間帯料率・猶予時間・24時間上限あり）と旧実装（BigDecimalでの時間単価×時間）で比較する。
+ * calculateParkingFee は出庫処理（ParkingService.calculateParkingFee）と同じく
+ * セッションのエンティティから日時・料金を取り出して BigDecimal で計算する経路を計測する
+ *
+ * 実行方法: ./gradlew jmh -Pjmh.includes=TariffEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TariffEngineBenchmark {
+
+    private static final int SESSIONS = 4096;
+    private static final ParkingSpot.SpotType[] TYPES = ParkingSpot.SpotType.values();
+
+    private TariffEngine engine;
+    private ParkingSpot.SpotType[] types;
+    private long[] ratesMinor;
+    private double[] rates;
+    private int[] entryMinutes;
+    private long[] durations;
+    private LocalDateTime[] entries;
+    private LocalDateTime[] exits;
+    private ParkingSession[] sessions;
+
+    @Setup
+    public void setUp() {
+        TariffProperties properties = new TariffProperties();
+        properties.getDefaults().setGraceMinutes(10);
+        properties.getDefaults().setDailyCapHours(12);
+        properties.getDefaults().setBands(List.of("22:00-06:00=50", "07:00-10:00=150", "17:00-20:00=125"));
+        TariffProperties.Rule truck = new TariffProperties.Rule();
+        truck.setUnitMinutes(30);
+        truck.setBands(List.of("00:00-00:00=200"));
+        properties.getTypes().put(ParkingSpot.SpotType.TRUCK, truck);
+        engine = new TariffEngine(properties);
+
+        Random random = new Random(42);
+        types = new ParkingSpot.SpotType[SESSIONS];
+        ratesMinor = new long[SESSIONS];
+        rates = new double[SESSIONS];
+        entryMinutes = new int[SESSIONS];
+        durations = new long[SESSIONS];
+        entries = new LocalDateTime[SESSIONS];
+        exits = new LocalDateTime[SESSIONS];
+        sessions = new ParkingSession[SESSIONS];
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < SESSIONS; i++) {
+            types[i] = TYPES[random.nextInt(TYPES.length)];
+            ratesMinor[i] = 100 + random.nextInt(900);
+            rates[i] = ratesMinor[i] / 100.0;
+            entryMinutes[i] = random.nextInt(1440);
+            // 大半は数時間、一部は複数日
+            durations[i] = random.nextInt(10) == 0 ? random.nextInt(7 * 1440) : random.nextInt(600);
+            entries[i] = base.plusMinutes(entryMinutes[i]);
+            exits[i] = entries[i].plusMinutes(durations[i]);
+
+            ParkingSpot spot = new ParkingSpot();
+            spot.setSpotType(types[i]);
+            spot.setHourlyRate(rates[i]);
+            ParkingSession session = new ParkingSession();
+            session.setParkingSpot(spot);
+            session.setEntryTime(entries[i]);
+            session.setExitTime(exits[i]);
+            sessions[i] = session;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SESSIONS)
+    public long tariffEngine() {
+        long total = 0;
+        for (int i = 0; i < SESSIONS; i++) {
+            total += engine.priceMinor(types[i], ratesMinor[i], entryMinutes[i], durations[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SESSIONS)
+    public BigDecimal calculateParkingFee() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (ParkingSession session : sessions) {
+            ParkingSpot spot = session.getParkingSpot();
+            total = total.add(engine.calculateFee(spot.getSpotType(), spot.getHourlyRate(),
+                session.getEntryTime(), session.getExitTime()));
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SESSIONS)
+    public BigDecimal legacyFlatRate() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < SESSIONS; i++) {
+            Duration duration = Duration.between(entries[i], exits[i]);
+            long hours = duration.toHours();
+            if (duration.toMinutes() % 60 > 0) {
+                hours++;
+            }
+            if (hours == 0) {
+                hours = 1;
+            }
+            total = total.add(BigDecimal.valueOf(rates[i]).multiply(BigDecimal.valueOf(hours))
+                .setScale(2, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,93 @@
+package com.parking.service;
+
+import com.parking.dto.PaymentResponse;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 決済レスポンスへの変換とカードブランド判定の計測
+ * 決済方法・状態がランダムな合成決済を PaymentService.convertToPaymentResponse で変換する
+ * （QRコード決済はQRコードURLの生成を含む）
+ *
+ * 変換処理はパッケージプライベートのため、このベンチマークは com.parking.service に置く。
+ * 実行方法: ./gradlew jmh -Pjmh.includes=PaymentMappingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentMappingBenchmark {
+
+    private static final int PAYMENTS = 1024;
+    private static final Payment.PaymentMethod[] METHODS = Payment.PaymentMethod.values();
+    private static final Payment.PaymentStatus[] STATUSES = Payment.PaymentStatus.values();
+    private static final String[] CARD_PREFIXES = {"4", "5", "3", "6"};
+
+    private Payment[] payments;
+    private String[] cardNumbers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        payments = new Payment[PAYMENTS];
+        cardNumbers = new String[PAYMENTS];
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < PAYMENTS; i++) {
+            ParkingSession session = new ParkingSession();
+            session.setId((long) i);
+            session.setLicensePlate("品川 300 あ " + (1000 + i));
+
+            Payment payment = new Payment();
+            payment.setId((long) i);
+            payment.setParkingSession(session);
+            payment.setAmount(BigDecimal.valueOf(100 + random.nextInt(5000)));
+            payment.setPaymentMethod(METHODS[random.nextInt(METHODS.length)]);
+            payment.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            payment.setTransactionId("TXN-" + Integer.toHexString(0x10000000 + i).toUpperCase());
+            payment.setReceiptUrl("https://parking-system.com/receipts/" + payment.getTransactionId() + ".pdf");
+            payment.setCardLastFour(String.format("%04d", random.nextInt(10000)));
+            payment.setCardBrand("Visa");
+            payment.setProcessedAt(base.plusMinutes(i));
+            payment.setCreatedAt(base.plusMinutes(i));
+            payments[i] = payment;
+
+            cardNumbers[i] = CARD_PREFIXES[random.nextInt(CARD_PREFIXES.length)] + "111111111111111";
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYMENTS)
+    public void convertToPaymentResponse(Blackhole blackhole) {
+        for (Payment payment : payments) {
+            PaymentResponse response = PaymentService.convertToPaymentResponse(payment);
+            blackhole.consume(response);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYMENTS)
+    public void detectCardBrand(Blackhole blackhole) {
+        for (String cardNumber : cardNumbers) {
+            blackhole.consume(PaymentService.detectCardBrand(cardNumber));
+        }
+    }
+}
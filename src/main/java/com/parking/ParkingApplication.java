@@ -2,14 +2,14 @@ package com.parking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 駐車場管理システムのメインアプリケーションクラス
  * Spring Bootアプリケーションのエントリーポイント
  */
 @SpringBootApplication
-@ComponentScan(basePackages = "com.parking")
+@EnableScheduling
 public class ParkingApplication {
 
     /**
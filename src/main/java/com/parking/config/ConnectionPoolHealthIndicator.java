@@ -0,0 +1,81 @@
+package com.parking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * コネクションプールのヘルスチェックとメトリクス
+ * HikariCPの使用中・待機中の接続数を /actuator/health の connectionPool として報告し、
+ * 使用率（使用中 / 最大接続数）を parking.db.pool.saturation として公開する
+ *
+ * 接続数の内訳は Spring Boot が hikaricp.connections.* として公開する。
+ * プールが一時的に埋まってもインスタンスを切り離さないよう、状態は UP のまま saturated で示す。
+ * DB自体への接続確認は Spring Boot の db ヘルスチェックが行う。
+ */
+@Component("connectionPool")
+public class ConnectionPoolHealthIndicator implements HealthIndicator, MeterBinder {
+
+    private final DataSource dataSource;
+
+    public ConnectionPoolHealthIndicator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Health health() {
+        HikariDataSource hikari = hikari();
+        if (hikari == null) {
+            return Health.unknown().withDetail("reason", "DataSource is not a HikariCP pool").build();
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return Health.unknown().withDetail("reason", "Connection pool is not started").build();
+        }
+        int active = pool.getActiveConnections();
+        int pending = pool.getThreadsAwaitingConnection();
+        int max = hikari.getMaximumPoolSize();
+        return Health.up()
+            .withDetail("active", active)
+            .withDetail("idle", pool.getIdleConnections())
+            .withDetail("total", pool.getTotalConnections())
+            .withDetail("max", max)
+            .withDetail("pending", pending)
+            .withDetail("saturation", saturation(pool, max))
+            .withDetail("saturated", pending > 0 && active >= max)
+            .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("parking.db.pool.saturation", this, ConnectionPoolHealthIndicator::currentSaturation)
+            .description("コネクションプールの使用率（使用中 / 最大接続数）")
+            .register(registry);
+    }
+
+    private double currentSaturation() {
+        HikariDataSource hikari = hikari();
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        return pool != null ? saturation(pool, hikari.getMaximumPoolSize()) : Double.NaN;
+    }
+
+    private static double saturation(HikariPoolMXBean pool, int max) {
+        return max > 0 ? (double) pool.getActiveConnections() / max : 0;
+    }
+
+    private HikariDataSource hikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
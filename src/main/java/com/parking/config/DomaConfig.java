@@ -4,6 +4,7 @@ import org.seasar.doma.jdbc.Config;
 import org.seasar.doma.jdbc.dialect.Dialect;
 import org.seasar.doma.jdbc.dialect.PostgresDialect;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
@@ -20,12 +21,21 @@ public class DomaConfig {
     @Autowired
     private DataSource dataSource;
     
+    /** 検索結果を1回の往復で取得する行数（ストリーム検索で全件を一度に読み込まないため） */
+    @Value("${doma.fetch.size:100}")
+    private int fetchSize;
+    
+    /** バッチ処理（@BatchInsert/@BatchUpdate）の1回あたりの件数 */
+    @Value("${doma.batch.size:100}")
+    private int batchSize;
+    
     /**
      * Doma2の設定Bean
-     * PostgreSQL方言とトランザクション対応データソースを設定
+     * PostgreSQL方言とトランザクション対応データソース、バッチサイズ・フェッチサイズを設定
+     * （Bean名が設定クラス自身の domaConfig と重複しないよう domaJdbcConfig とする）
      * @return Doma2設定
      */
-    @Bean
+    @Bean("domaJdbcConfig")
     public Config domaConfig() {
         return new Config() {
             @Override
@@ -37,6 +47,16 @@ public class DomaConfig {
             public DataSource getDataSource() {
                 return new TransactionAwareDataSourceProxy(dataSource);
             }
+            
+            @Override
+            public int getBatchSize() {
+                return batchSize;
+            }
+            
+            @Override
+            public int getFetchSize() {
+                return fetchSize;
+            }
         };
     }
 } 
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.parking.config;
+
+import com.parking.service.JwtService;
+import com.parking.service.TokenDenyList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * JWT認証フィルター
+ * Authorization: Bearer トークンを検証し、クレーム（userId, roles）だけから認証情報を生成する
+ *
+ * ユーザーテーブルは参照しない。失効はTokenDenyListで判定する。
+ * トークンが無効・失効済みの場合は未認証のまま後続に渡し、認可設定で拒否させる。
+ */
+@Slf4j
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final TokenDenyList tokenDenyList;
+
+    public JwtAuthenticationFilter(JwtService jwtService, TokenDenyList tokenDenyList) {
+        this.jwtService = jwtService;
+        this.tokenDenyList = tokenDenyList;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String token = resolveToken(request);
+        if (token != null) {
+            try {
+                Claims claims = jwtService.verify(token);
+                if (tokenDenyList.isRevoked(claims)) {
+                    log.debug("失効済みのトークンです: jti={}", claims.getId());
+                } else {
+                    authenticate(request, token, claims);
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("JWTの検証に失敗: {}", e.getMessage());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(HttpServletRequest request, String token, Claims claims) {
+        JwtPrincipal principal = new JwtPrincipal(
+            claims.get("userId", Long.class), claims.getSubject(), claims.get("email", String.class));
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            principal, null, jwtService.getAuthoritiesFromToken(token));
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+    }
+
+    /**
+     * Authorizationヘッダーからトークンを取り出す
+     * @param request リクエスト
+     * @return トークン（ない場合はnull）
+     */
+    private static String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            String token = header.substring(BEARER_PREFIX.length()).trim();
+            return token.isEmpty() ? null : token;
+        }
+        return null;
+    }
+}
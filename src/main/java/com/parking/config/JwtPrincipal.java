@@ -0,0 +1,19 @@
+package com.parking.config;
+
+import java.security.Principal;
+
+/**
+ * JWTから復元した認証済みユーザー
+ * トークンのクレームのみから生成し、ユーザーテーブルは参照しない
+ *
+ * @param userId ユーザーID
+ * @param username ユーザー名
+ * @param email メールアドレス
+ */
+public record JwtPrincipal(Long userId, String username, String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
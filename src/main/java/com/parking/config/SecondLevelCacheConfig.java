@@ -0,0 +1,96 @@
+package com.parking.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.parking.entity.ParkingSpot;
+import com.parking.entity.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate二次キャッシュ設定クラス
+ * 参照データ（ParkingSpot、Role）をCaffeine（JCache）の二次キャッシュに保持する
+ *
+ * parking.second-level-cache.enabled=false で無効化でき、キャッシュなしの場合と比較できる。
+ * 領域ごとのヒット・ミス数は hibernate.second.level.cache.* のメトリクスと
+ * /api/dashboard/cache/second-level で参照できる（Hibernateの統計は既定で有効）。
+ * ネイティブSQLの更新は対象テーブルを指定しないと全領域が破棄されるため、
+ * リポジトリのネイティブ更新には HibernateHints.HINT_NATIVE_SPACES を指定すること。
+ */
+@Configuration
+@Slf4j
+public class SecondLevelCacheConfig {
+
+    /** ロールの領域の最大件数 */
+    private static final long ROLE_MAX_ENTRIES = 100;
+
+    /**
+     * 二次キャッシュの領域を持つJCacheのキャッシュマネージャーを作成
+     * アプリケーションコンテキストごとに別のキャッシュマネージャーとする（テストで接続先DBが異なる場合のため）
+     *
+     * @param maxEntries スペットの領域の最大件数
+     * @return キャッシュマネージャー
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "parking.second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CacheManager secondLevelCacheManager(
+            @Value("${parking.second-level-cache.max-entries:10000}") long maxEntries) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("parking-second-level-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        createRegion(cacheManager, ParkingSpot.CACHE_REGION, maxEntries);
+        createRegion(cacheManager, ParkingSpot.NATURAL_ID_CACHE_REGION, maxEntries);
+        createRegion(cacheManager, Role.CACHE_REGION, ROLE_MAX_ENTRIES);
+        createRegion(cacheManager, Role.NATURAL_ID_CACHE_REGION, ROLE_MAX_ENTRIES);
+        log.info("Hibernate二次キャッシュ: 有効（スペットの最大件数={}）", maxEntries);
+        return cacheManager;
+    }
+
+    /**
+     * Hibernateの二次キャッシュの設定
+     * キャッシュマネージャーがない（無効化されている）場合は二次キャッシュを使用しない
+     * （hibernate-jcache がクラスパスにあると既定で有効になるため、明示的に無効化する）
+     *
+     * @param secondLevelCacheManager 二次キャッシュのキャッシュマネージャー
+     * @return Hibernateプロパティのカスタマイザー
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(ObjectProvider<CacheManager> secondLevelCacheManager) {
+        CacheManager cacheManager = secondLevelCacheManager.getIfAvailable();
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, true);
+            // 統計を有効にするとセッションごとの集計ログも既定で出力されるため、明示的に有効にした場合のみ出力する
+            properties.putIfAbsent(AvailableSettings.LOG_SESSION_METRICS, false);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+            if (cacheManager == null) {
+                log.info("Hibernate二次キャッシュ: 無効");
+                properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                return;
+            }
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, long maxEntries) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        // Hibernateがキャッシュ用の形式に変換して格納するため、値のコピーは不要
+        configuration.setStoreByValue(false);
+        cacheManager.createCache(region, configuration);
+    }
+}
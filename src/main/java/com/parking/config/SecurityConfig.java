@@ -1,13 +1,20 @@
 package com.parking.config;
 
+import com.parking.service.JwtService;
+import com.parking.service.TokenDenyList;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -22,6 +29,14 @@ import java.util.Arrays;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private final JwtService jwtService;
+    private final TokenDenyList tokenDenyList;
+
+    public SecurityConfig(JwtService jwtService, TokenDenyList tokenDenyList) {
+        this.jwtService = jwtService;
+        this.tokenDenyList = tokenDenyList;
+    }
+
     /**
      * セキュリティフィルターチェーンの設定
      * @param http HttpSecurityオブジェクト
@@ -35,10 +50,17 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             // CORS設定を有効化
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+            // セッションを使用しない（認証情報は毎リクエストJWTから復元）
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             // 認証設定
             .authorizeHttpRequests(authz -> authz
+                // SSE・ストリーミング応答の非同期ディスパッチは最初のリクエストで認可済み
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 // パブリックエンドポイント
                 .requestMatchers("/api/public/**", "/api/auth/login", "/api/auth/register").permitAll()
+                // ヘルスチェックとPrometheusのスクレイプ（ロードバランサー・監視から認証なしで参照）
+                .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // 管理者専用エンドポイント
                 .requestMatchers("/api/admin/**", "/api/dashboard/**").hasRole("ADMIN")
                 // ユーザー専用エンドポイント
@@ -53,7 +75,13 @@ public class SecurityConfig {
             // フォームログインを無効化（APIベースのため）
             .formLogin(AbstractHttpConfigurer::disable)
             // HTTP Basic認証を無効化
-            .httpBasic(AbstractHttpConfigurer::disable);
+            .httpBasic(AbstractHttpConfigurer::disable)
+            // 未認証のリクエストには401を返す
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            // JWT認証フィルター（DBを参照せずトークンのクレームから認証）
+            .addFilterBefore(new JwtAuthenticationFilter(jwtService, tokenDenyList),
+                UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,55 @@
+package com.parking.config;
+
+import com.parking.entity.ParkingSpot;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 料金体系の設定（parking.tariff.*）
+ * defaults に全タイプ共通のルールを、types.&lt;SpotType&gt; にタイプ別の上書きを定義する
+ * スペットの時間料金は課金単位の長さで按分する（30分単位なら1単位は時間料金の半額）
+ *
+ * 設定例:
+ * <pre>
+ * parking.tariff.defaults.grace-minutes=10
+ * parking.tariff.defaults.daily-cap-hours=12
+ * parking.tariff.defaults.bands[0]=22:00-06:00=50
+ * parking.tariff.types.TRUCK.unit-minutes=30
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "parking.tariff")
+@Data
+public class TariffProperties {
+
+    /** 全タイプ共通のルール */
+    private Rule defaults = new Rule();
+
+    /** スペットタイプ別のルール（未設定の項目は defaults を使用） */
+    private Map<ParkingSpot.SpotType, Rule> types = new EnumMap<>(ParkingSpot.SpotType.class);
+
+    /**
+     * 料金ルール定義
+     */
+    @Data
+    public static class Rule {
+
+        /** 無料となる駐車時間（分、この時間以内の出庫は0円。0の場合は1分未満の出庫のみ0円） */
+        private Integer graceMinutes;
+
+        /** 課金単位（分、1440の約数） */
+        private Integer unitMinutes;
+
+        /** 24時間あたりの上限（時間料金の何時間分か、0は上限なし） */
+        private Integer dailyCapHours;
+
+        /** 時間帯別の料率（"HH:mm-HH:mm=パーセント"、後の定義が優先） */
+        private List<String> bands = new ArrayList<>();
+    }
+}
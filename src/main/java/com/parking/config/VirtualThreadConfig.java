@@ -0,0 +1,70 @@
+package com.parking.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 仮想スレッド実行モード設定クラス
+ * spring.threads.virtual.enabled=true のとき、Tomcatのリクエスト処理（決済ゲートウェイ・
+ * メール・SMS等のブロッキング呼び出しを含む）が仮想スレッドで実行される
+ *
+ * 仮想スレッドでは同時実行数がスレッドプールで制限されなくなるが、リクエスト単位では制限しない
+ * （ゲートウェイ呼び出し等、DBを使わない待ち時間まで処理枠を占有しないため）。
+ * DBアクセスはHikariのコネクションプール（maximum-pool-size）で制限され、
+ * 取得待ちは connection-timeout で打ち切られる。
+ *
+ * 決済ゲートウェイ呼び出しのエグゼキューターもモードに合わせて作成する
+ * （仮想スレッドの場合はタスクごとの仮想スレッド、それ以外は上限付きのスレッドプール）。
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadConfig {
+
+    /** 決済ゲートウェイ呼び出しのエグゼキューターのBean名 */
+    public static final String PAYMENT_GATEWAY_EXECUTOR = "paymentGatewayExecutor";
+
+    private static final String VIRTUAL_THREADS_ENABLED = "spring.threads.virtual.enabled";
+
+    /**
+     * 決済ゲートウェイ呼び出しのエグゼキューター（仮想スレッド）
+     * 同時実行数は PaymentGatewayClient の決済方法別の上限で制限される
+     *
+     * @param maxPoolSize コネクションプールの最大サイズ
+     * @param connectionTimeoutMs コネクションの最大取得待ち時間（ミリ秒）
+     * @return タスクごとに仮想スレッドを作成するエグゼキューター
+     */
+    @Bean(name = PAYMENT_GATEWAY_EXECUTOR, destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = VIRTUAL_THREADS_ENABLED, havingValue = "true")
+    public ExecutorService virtualThreadPaymentGatewayExecutor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxPoolSize,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long connectionTimeoutMs) {
+        log.info("仮想スレッド実行モード: コネクション上限={}, 取得待ちタイムアウト={}ms", maxPoolSize, connectionTimeoutMs);
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-gateway-", 1).factory());
+    }
+
+    /**
+     * 決済ゲートウェイ呼び出しのエグゼキューター（プラットフォームスレッド）
+     * スレッド数の上限を超えた呼び出しは空きを待ち、待ち時間も呼び出しのタイムアウトに含まれる
+     *
+     * @param maxThreads スレッド数の上限
+     * @return 上限付きのスレッドプール
+     */
+    @Bean(name = PAYMENT_GATEWAY_EXECUTOR, destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = VIRTUAL_THREADS_ENABLED, havingValue = "false", matchIfMissing = true)
+    public ExecutorService platformThreadPaymentGatewayExecutor(
+            @Value("${payment.gateway.executor.max-threads:64}") int maxThreads) {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, maxThreads), runnable -> {
+            Thread thread = new Thread(runnable, "payment-gateway-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -88,6 +88,31 @@ public class AuthController {
         }
     }
 
+    /**
+     * ログアウト
+     * 現在のトークンを失効させる
+     * @param authorization Authorizationヘッダー（Bearer トークン）
+     * @return ログアウト結果
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestHeader("Authorization") String authorization) {
+        try {
+            authService.logout(authorization.replaceFirst("^Bearer ", "").trim());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "ログアウトしました");
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "ログアウトに失敗しました: " + e.getMessage());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
     /**
      * ヘルスチェック
      * @return 認証サービスの状態
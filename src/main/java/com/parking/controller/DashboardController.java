@@ -1,13 +1,24 @@
 package com.parking.controller;
 
+import com.parking.entity.Payment;
+import com.parking.service.DashboardSnapshot;
+import com.parking.service.ParkingArchiveService;
+import com.parking.service.PaymentGatewayClient;
 import com.parking.service.PaymentService;
+import com.parking.service.RevenueAggregationService;
+import com.parking.service.SecondLevelCacheService;
 import com.parking.service.ParkingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
 
 /**
  * ダッシュボードコントローラクラス
@@ -23,13 +34,29 @@ import java.util.HashMap;
 @CrossOrigin(origins = "*")
 public class DashboardController {
     
+    /** 一部の機能が利用できない状態 */
+    private static final String DEGRADED = "DEGRADED";
+    
     /** 決済サービス */
     private final PaymentService paymentService;
     /** 駐車サービス */
     private final ParkingService parkingService;
+    /** ダッシュボード集計 */
+    private final DashboardSnapshot dashboardSnapshot;
+    /** 売上集計サービス */
+    private final RevenueAggregationService revenueAggregationService;
+    /** アーカイブサービス */
+    private final ParkingArchiveService parkingArchiveService;
+    /** ヘルスチェック（Actuator） */
+    private final HealthEndpoint healthEndpoint;
+    /** 決済ゲートウェイクライアント */
+    private final PaymentGatewayClient paymentGatewayClient;
+    /** 二次キャッシュ管理サービス */
+    private final SecondLevelCacheService secondLevelCacheService;
     
     /**
      * 管理者ダッシュボードの概要データを取得
+     * スペット数は占有インデックス、その他はダッシュボードスナップショットのカウンタから返す
      * 
      * @return ダッシュボード概要データ
      */
@@ -41,14 +68,14 @@ public class DashboardController {
             // 駐車場統計
             overview.put("availableSpots", parkingService.getAvailableSpotsCount());
             overview.put("occupiedSpots", parkingService.getOccupiedSpotsCount());
-            overview.put("activeSessions", parkingService.getActiveSessionsCount());
+            overview.put("activeSessions", dashboardSnapshot.getActiveSessions());
             
             // 決済統計
-            Map<String, Object> paymentStats = paymentService.getPaymentStatistics();
+            Map<String, Object> paymentStats = dashboardSnapshot.getPaymentStatistics();
             overview.put("paymentStats", paymentStats);
             
             // 今日の売上
-            overview.put("todayRevenue", calculateTodayRevenue());
+            overview.put("todayRevenue", dashboardSnapshot.getRevenueSince(java.time.LocalDate.now().atStartOfDay()));
             
             // 今月の売上
             overview.put("monthlyRevenue", paymentStats.get("monthlyRevenue"));
@@ -56,6 +83,7 @@ public class DashboardController {
             // システム状態
             overview.put("systemStatus", "HEALTHY");
             overview.put("lastUpdated", java.time.LocalDateTime.now());
+            overview.put("lastReconciledAt", dashboardSnapshot.getLastReconciledAt());
             
             return ResponseEntity.ok(overview);
         } catch (Exception e) {
@@ -66,6 +94,7 @@ public class DashboardController {
     
     /**
      * 売上レポートを取得
+     * 時間別売上ロールアップから集計する
      * 
      * @param period 期間（daily, weekly, monthly）
      * @return 売上レポートデータ
@@ -77,13 +106,13 @@ public class DashboardController {
             
             switch (period.toLowerCase()) {
                 case "daily":
-                    report.put("data", generateDailyRevenueData());
+                    report.put("data", revenueAggregationService.getDailyReport());
                     break;
                 case "weekly":
-                    report.put("data", generateWeeklyRevenueData());
+                    report.put("data", revenueAggregationService.getWeeklyReport());
                     break;
                 case "monthly":
-                    report.put("data", generateMonthlyRevenueData());
+                    report.put("data", revenueAggregationService.getMonthlyReport());
                     break;
                 default:
                     return ResponseEntity.badRequest().build();
@@ -99,6 +128,38 @@ public class DashboardController {
         }
     }
     
+    /**
+     * 売上ロールアップを決済データから再構築
+     * 
+     * @return 再構築結果
+     */
+    @PostMapping("/revenue/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRevenueRollups() {
+        try {
+            int rows = revenueAggregationService.rebuild();
+            return ResponseEntity.ok(Map.of("rollupRows", rows, "rebuiltAt", java.time.LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("売上ロールアップの再構築に失敗: {}", e.getMessage());
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
+    /**
+     * 保存期間を過ぎたセッション・決済のアーカイブを実行
+     * 
+     * @return アーカイブ結果
+     */
+    @PostMapping("/archive/run")
+    public ResponseEntity<Map<String, Object>> runArchive() {
+        try {
+            long sessions = parkingArchiveService.archive();
+            return ResponseEntity.ok(Map.of("archivedSessions", sessions, "archivedAt", java.time.LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("アーカイブの実行に失敗: {}", e.getMessage());
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
     /**
      * 駐車場使用率レポートを取得
      * 
@@ -144,100 +205,47 @@ public class DashboardController {
     
     /**
      * システムヘルスチェック
+     * DB接続とコネクションプールの状態はActuatorのヘルスチェック（db, connectionPool）から取得し、
+     * 決済ゲートウェイの遮断中の決済方法があれば決済サービスを DEGRADED とする
      * 
-     * @return システム状態
+     * @return システム状態（全体が UP でない場合は 503）
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> getSystemHealth() {
+        HealthComponent overall = healthEndpoint.health();
+        HealthComponent database = healthEndpoint.healthForPath("db");
+        HealthComponent connectionPool = healthEndpoint.healthForPath("connectionPool");
+        
         Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
+        health.put("status", overall.getStatus().getCode());
         health.put("timestamp", java.time.LocalDateTime.now());
         health.put("version", "1.0.0");
+        String databaseStatus = statusOf(database);
+        Set<Payment.PaymentMethod> openCircuits = paymentGatewayClient.getOpenCircuits();
         health.put("services", Map.of(
-            "parking-service", "UP",
-            "payment-service", "UP",
-            "database", "UP"
-        ));
-        
-        return ResponseEntity.ok(health);
-    }
-    
-    /**
-     * 今日の売上を計算
-     * 
-     * @return 今日の売上
-     */
-    private double calculateTodayRevenue() {
-        // 実際の実装では、今日の決済データを集計
-        return 15000.0; // サンプルデータ
-    }
-    
-    /**
-     * 日次売上データを生成
-     * 
-     * @return 日次売上データ
-     */
-    private Map<String, Object> generateDailyRevenueData() {
-        Map<String, Object> data = new HashMap<>();
-        data.put("totalRevenue", 15000.0);
-        data.put("transactionCount", 25);
-        data.put("averageTransaction", 600.0);
-        data.put("hourlyData", Map.of(
-            "09:00", 1200.0,
-            "10:00", 1800.0,
-            "11:00", 2100.0,
-            "12:00", 2400.0,
-            "13:00", 2000.0,
-            "14:00", 1800.0,
-            "15:00", 1600.0,
-            "16:00", 1400.0,
-            "17:00", 1200.0,
-            "18:00", 1000.0
+            "parking-service", databaseStatus,
+            "payment-service", openCircuits.isEmpty() ? databaseStatus : DEGRADED,
+            "database", databaseStatus
         ));
+        health.put("openPaymentCircuits", openCircuits);
+        if (connectionPool instanceof Health pool) {
+            health.put("connectionPool", pool.getDetails());
+        }
         
-        return data;
+        return ResponseEntity.status(Status.UP.equals(overall.getStatus()) ? 200 : 503).body(health);
     }
     
     /**
-     * 週次売上データを生成
+     * Hibernate二次キャッシュ（スペット・ロール）の領域ごとのヒット・ミス数を取得
      * 
-     * @return 週次売上データ
+     * @return キャッシュ統計
      */
-    private Map<String, Object> generateWeeklyRevenueData() {
-        Map<String, Object> data = new HashMap<>();
-        data.put("totalRevenue", 105000.0);
-        data.put("transactionCount", 175);
-        data.put("averageTransaction", 600.0);
-        data.put("dailyData", Map.of(
-            "Monday", 15000.0,
-            "Tuesday", 16000.0,
-            "Wednesday", 17000.0,
-            "Thursday", 18000.0,
-            "Friday", 20000.0,
-            "Saturday", 12000.0,
-            "Sunday", 7000.0
-        ));
-        
-        return data;
+    @GetMapping("/cache/second-level")
+    public ResponseEntity<Map<String, Object>> getSecondLevelCacheStatistics() {
+        return ResponseEntity.ok(secondLevelCacheService.getCacheStatistics());
     }
     
-    /**
-     * 月次売上データを生成
-     * 
-     * @return 月次売上データ
-     */
-    private Map<String, Object> generateMonthlyRevenueData() {
-        Map<String, Object> data = new HashMap<>();
-        data.put("totalRevenue", 450000.0);
-        data.put("transactionCount", 750);
-        data.put("averageTransaction", 600.0);
-        data.put("weeklyData", Map.of(
-            "Week 1", 105000.0,
-            "Week 2", 110000.0,
-            "Week 3", 115000.0,
-            "Week 4", 120000.0
-        ));
-        
-        return data;
+    private static String statusOf(HealthComponent component) {
+        return component != null ? component.getStatus().getCode() : Status.UNKNOWN.getCode();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.parking.controller;
+
+import com.parking.config.JwtPrincipal;
+import com.parking.service.LiveEventHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * ライブイベントコントローラー
+ * スペットの状態変更と本人宛ての新しい通知を Server-Sent Events で配信する
+ */
+@RestController
+@RequestMapping("/api/live")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class LiveEventController {
+
+    private final LiveEventHub liveEventHub;
+
+    /**
+     * ライブイベントを購読
+     * イベント: spots（変更されたスペットの配列）、notification（新しい通知）、resync（再取得の要求）
+     * @param principal 認証済みユーザー（通知は本人宛てのみ配信）
+     * @return SSEストリーム
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@AuthenticationPrincipal JwtPrincipal principal) {
+        return liveEventHub.subscribe(principal != null ? principal.userId() : null);
+    }
+}
@@ -54,6 +54,54 @@ public class NotificationController {
         }
     }
 
+    /**
+     * ユーザーの未読通知数を取得（バッジ表示用）
+     * @param userId ユーザーID
+     * @return 未読通知数
+     */
+    @GetMapping("/user/{userId}/unread/count")
+    public ResponseEntity<Map<String, Object>> getUnreadCount(@PathVariable Long userId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", userId);
+        response.put("unreadCount", notificationService.getUnreadCount(userId));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * ユーザーの未読通知をすべて既読にする
+     * @param userId ユーザーID
+     * @return 既読にした件数と更新後の未読数
+     */
+    @PutMapping("/user/{userId}/read-all")
+    public ResponseEntity<Map<String, Object>> markAllAsRead(@PathVariable Long userId) {
+        int updated = notificationService.markAllAsRead(userId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("updated", updated);
+        response.put("unreadCount", 0);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * ユーザーの指定した通知をまとめて既読にする
+     * @param userId ユーザーID
+     * @param request 通知IDリスト（ids、最大500件）
+     * @return 既読にした件数と更新後の未読数
+     */
+    @PutMapping("/user/{userId}/read")
+    public ResponseEntity<Map<String, Object>> markAsRead(@PathVariable Long userId,
+                                                          @RequestBody Map<String, List<Long>> request) {
+        try {
+            List<Long> ids = request.getOrDefault("ids", List.of());
+            int updated = notificationService.markAsRead(userId, ids);
+            Map<String, Object> response = new HashMap<>();
+            response.put("updated", updated);
+            response.put("unreadCount", notificationService.getUnreadCount(userId));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * 通知を既読にする
      * @param notificationId 通知ID
@@ -129,6 +177,7 @@ public class NotificationController {
 
     /**
      * 駐車場利用開始通知を送信
+     * 通知の登録がコミットされた時点で応答し、メール送信は非同期で行う
      * @param request 通知リクエスト
      * @return 作成された通知
      */
@@ -141,7 +190,8 @@ public class NotificationController {
             
             Notification notification = notificationService.createAndSendNotification(
                     userId,
-                    Notification.NotificationType.EMAIL,
+                    Notification.NotificationType.PARKING_START,
+                    Notification.DeliveryMethod.EMAIL,
                     "駐車場利用開始のお知らせ",
                     String.format("駐車場の利用が開始されました。\n開始時刻: %s\n場所: %s", startTime, location),
                     Notification.Priority.NORMAL
@@ -155,6 +205,7 @@ public class NotificationController {
 
     /**
      * 駐車場利用終了通知を送信
+     * 通知の登録がコミットされた時点で応答し、メール送信は非同期で行う
      * @param request 通知リクエスト
      * @return 作成された通知
      */
@@ -168,7 +219,8 @@ public class NotificationController {
             
             Notification notification = notificationService.createAndSendNotification(
                     userId,
-                    Notification.NotificationType.EMAIL,
+                    Notification.NotificationType.PARKING_END,
+                    Notification.DeliveryMethod.EMAIL,
                     "駐車場利用終了のお知らせ",
                     String.format("駐車場の利用が終了しました。\n終了時刻: %s\n利用時間: %s\n料金: %s円", 
                                  endTime, duration, amount),
@@ -196,7 +248,8 @@ public class NotificationController {
             
             Notification notification = notificationService.createAndSendNotification(
                     userId,
-                    Notification.NotificationType.EMAIL,
+                    Notification.NotificationType.PAYMENT_COMPLETED,
+                    Notification.DeliveryMethod.EMAIL,
                     "支払い完了のお知らせ",
                     String.format("支払いが完了しました。\n支払いID: %s\n支払い金額: %s円\n支払い方法: %s", 
                                  paymentId, amount, paymentMethod),
@@ -223,7 +276,8 @@ public class NotificationController {
             
             Notification notification = notificationService.createAndSendNotification(
                     userId,
-                    Notification.NotificationType.SMS,
+                    Notification.NotificationType.SYSTEM_ALERT,
+                    Notification.DeliveryMethod.SMS,
                     "緊急通知",
                     String.format("緊急通知\nタイプ: %s\n詳細: %s\n至急対応をお願いします。", 
                                  emergencyType, details),
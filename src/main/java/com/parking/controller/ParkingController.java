@@ -1,14 +1,24 @@
 package com.parking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.dto.FeeQuoteRequest;
+import com.parking.dto.ParkingSessionHistoryItem;
 import com.parking.entity.ParkingSpot;
 import com.parking.entity.ParkingSession;
+import com.parking.service.ParkingArchiveService;
 import com.parking.service.ParkingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -24,7 +34,15 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class ParkingController {
     
+    /** NDJSON のメディアタイプ */
+    private static final String NDJSON = "application/x-ndjson";
+    
+    /** セッション履歴の1ページあたりの最大件数 */
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+    
     private final ParkingService parkingService;
+    private final ParkingArchiveService parkingArchiveService;
+    private final ObjectMapper objectMapper;
     
     // ==================== 駐車場スペット管理エンドポイント ====================
     
@@ -141,7 +159,7 @@ public class ParkingController {
     public ResponseEntity<ParkingSession> startParkingSession(@RequestBody Map<String, Object> request) {
         try {
             Long spotId = Long.valueOf(request.get("spotId").toString());
-            String licensePlate = request.get("licensePlate").toString();
+            String licensePlate = ParkingSession.normalizeLicensePlate(request.get("licensePlate").toString());
             
             ParkingSession session = parkingService.startParkingSession(spotId, licensePlate);
             return ResponseEntity.status(HttpStatus.CREATED).body(session);
@@ -173,7 +191,7 @@ public class ParkingController {
     @PostMapping("/sessions/end-by-license")
     public ResponseEntity<ParkingSession> endParkingSessionByLicensePlate(@RequestBody Map<String, String> request) {
         try {
-            String licensePlate = request.get("licensePlate");
+            String licensePlate = ParkingSession.normalizeLicensePlate(request.get("licensePlate"));
             ParkingSession session = parkingService.endParkingSessionByLicensePlate(licensePlate);
             return ResponseEntity.ok(session);
         } catch (IllegalArgumentException e) {
@@ -200,14 +218,94 @@ public class ParkingController {
     }
     
     /**
-     * ナンバープレートでセッション履歴を取得
+     * ナンバープレートでセッション履歴をページ単位で取得（新しい順）
      * @param licensePlate ナンバープレート
-     * @return セッション履歴のリスト
+     * @param cursor 前ページの nextCursor（先頭ページの場合は省略）
+     * @param size 1ページの件数（1〜500）
+     * @return ページ（content, size, nextCursor）
      */
     @GetMapping("/sessions/license/{licensePlate}")
-    public ResponseEntity<List<ParkingSession>> getParkingSessionsByLicensePlate(@PathVariable String licensePlate) {
-        List<ParkingSession> sessions = parkingService.getParkingSessionsByLicensePlate(licensePlate);
-        return ResponseEntity.ok(sessions);
+    public ResponseEntity<Map<String, Object>> getParkingSessionsByLicensePlate(
+            @PathVariable String licensePlate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid size"));
+        }
+        try {
+            return ResponseEntity.ok(parkingService.getSessionHistoryPage(
+                ParkingSession.normalizeLicensePlate(licensePlate), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * ナンバープレートでセッション履歴をすべて取得（NDJSON、一括エクスポート用）
+     * Accept: application/x-ndjson の場合に選択され、1行1セッションで順次出力する
+     * @param licensePlate ナンバープレート
+     * @return セッション履歴のストリーム
+     */
+    @GetMapping(value = "/sessions/license/{licensePlate}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportParkingSessionsByLicensePlate(@PathVariable String licensePlate) {
+        String normalizedPlate;
+        try {
+            normalizedPlate = ParkingSession.normalizeLicensePlate(licensePlate);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> {
+            long count = parkingService.exportSessionHistory(normalizedPlate, item -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(item));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.debug("セッション履歴をエクスポートしました: licensePlate={}, count={}", normalizedPlate, count);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+    
+    /**
+     * アーカイブ済みのセッション履歴を取得（入庫日時の範囲は1年以内、新しい順に最大1000件）
+     * @param licensePlate ナンバープレート
+     * @param from 入庫日時の下限（含む）
+     * @param to 入庫日時の上限（含まない）
+     * @return セッション履歴
+     */
+    @GetMapping("/sessions/license/{licensePlate}/archive")
+    public ResponseEntity<List<ParkingSessionHistoryItem>> getArchivedSessionsByLicensePlate(
+            @PathVariable String licensePlate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(parkingArchiveService.findArchivedHistory(
+                ParkingSession.normalizeLicensePlate(licensePlate), from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * アクティブなセッションの現在料金を一括で見積もる（出口ゲートの事前計算用）
+     * @param request 見積もりリクエスト（sessionIds, licensePlates）
+     * @return 見積もり（quotedAt, quotes, missingSessionIds, missingLicensePlates）
+     */
+    @PostMapping("/sessions/quotes")
+    public ResponseEntity<Map<String, Object>> quoteParkingFees(@Valid @RequestBody FeeQuoteRequest request) {
+        List<Long> sessionIds = request.getSessionIds() != null ? request.getSessionIds() : List.of();
+        List<String> licensePlates = request.getLicensePlates() != null ? request.getLicensePlates() : List.of();
+        if (sessionIds.isEmpty() && licensePlates.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Session IDs or license plates are required"));
+        }
+        try {
+            return ResponseEntity.ok(parkingService.quoteParkingFees(sessionIds,
+                licensePlates.stream().map(ParkingSession::normalizeLicensePlate).toList()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
     
     /**
@@ -246,6 +344,15 @@ public class ParkingController {
         return ResponseEntity.ok(count);
     }
     
+    /**
+     * 階層別の利用可能なスペット数を取得
+     * @return 階層レベル → 利用可能スペット数
+     */
+    @GetMapping("/stats/available-spots/floors")
+    public ResponseEntity<Map<Integer, Long>> getAvailableSpotsCountByFloor() {
+        return ResponseEntity.ok(parkingService.getAvailableSpotsCountByFloor());
+    }
+    
     /**
      * 使用中のスペット数を取得
      * @return 使用中スペット数
@@ -1,12 +1,20 @@
 package com.parking.controller;
 
+import com.parking.dto.ParkingSpotBulkCreateRequest;
+import com.parking.dto.ParkingSpotBulkUpdateRequest;
 import com.parking.entity.ParkingSpotDoma;
 import com.parking.service.ParkingSpotDomaService;
+import jakarta.validation.Valid;
+import org.seasar.doma.jdbc.OptimisticLockException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
 
 /**
  * 駐車場スペットDomaコントローラー
@@ -16,6 +24,9 @@ import java.util.List;
 @RequestMapping("/api/doma/parking-spots")
 public class ParkingSpotDomaController {
     
+    /** ページ検索の1ページあたりの最大件数 */
+    private static final int MAX_PAGE_SIZE = 1000;
+    
     @Autowired
     private ParkingSpotDomaService parkingSpotDomaService;
     
@@ -75,6 +86,50 @@ public class ParkingSpotDomaController {
         return ResponseEntity.ok(spots);
     }
     
+    /**
+     * 状態・タイプで駐車場スペットをページ単位で取得
+     * @param status スペット状態（任意）
+     * @param spotType スペットタイプ（任意、状態とどちらかは必須）
+     * @param page ページ番号（0始まり）
+     * @param size 1ページの件数（1〜1000）
+     * @return ページ
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> getSpotsPage(
+            @RequestParam(required = false) ParkingSpotDoma.SpotStatus status,
+            @RequestParam(required = false) ParkingSpotDoma.SpotType spotType,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid page or size"));
+        }
+        try {
+            return ResponseEntity.ok(parkingSpotDomaService.getSpotsPage(status, spotType, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * 状態ごとの駐車場スペット数を取得
+     * @param status スペット状態
+     * @return スペット数
+     */
+    @GetMapping("/status/{status}/count")
+    public ResponseEntity<Long> countSpotsByStatus(@PathVariable ParkingSpotDoma.SpotStatus status) {
+        return ResponseEntity.ok(parkingSpotDomaService.countSpotsByStatus(status));
+    }
+    
+    /**
+     * 状態ごとの階層別スペット数を取得
+     * @param status スペット状態
+     * @return 階層レベル → スペット数
+     */
+    @GetMapping("/status/{status}/floors")
+    public ResponseEntity<Map<Integer, Long>> countSpotsByFloor(@PathVariable ParkingSpotDoma.SpotStatus status) {
+        return ResponseEntity.ok(parkingSpotDomaService.countSpotsByFloor(status));
+    }
+    
     /**
      * 新しい駐車場スペットを作成
      * @param spotNumber スペット番号
@@ -129,4 +184,69 @@ public class ParkingSpotDomaController {
             return ResponseEntity.notFound().build();
         }
     }
+    
+    /**
+     * 駐車場スペットを一括作成
+     * @param request 一括作成リクエスト
+     * @return 作成結果（作成件数）
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> createParkingSpots(
+            @Valid @RequestBody ParkingSpotBulkCreateRequest request) {
+        try {
+            int created = parkingSpotDomaService.createParkingSpots(request.getSpots());
+            return ResponseEntity.status(HttpStatus.CREATED).body(bulkResult(request.getSpots().size(), created));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * 駐車場スペットの状態を一括更新
+     * @param request 一括更新リクエスト（ids, status）
+     * @return 更新結果（更新件数）
+     */
+    @PutMapping("/bulk/status")
+    public ResponseEntity<Map<String, Object>> updateParkingSpotStatuses(
+            @Valid @RequestBody ParkingSpotBulkUpdateRequest request) {
+        if (request.getStatus() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Status is required"));
+        }
+        return bulkUpdate(request, () ->
+            parkingSpotDomaService.updateParkingSpotStatuses(request.getIds(), request.getStatus()));
+    }
+    
+    /**
+     * 駐車場スペットの時間料金を一括更新
+     * @param request 一括更新リクエスト（ids, hourlyRate）
+     * @return 更新結果（更新件数）
+     */
+    @PutMapping("/bulk/rate")
+    public ResponseEntity<Map<String, Object>> updateParkingSpotRates(
+            @Valid @RequestBody ParkingSpotBulkUpdateRequest request) {
+        if (request.getHourlyRate() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Hourly rate is required"));
+        }
+        return bulkUpdate(request, () ->
+            parkingSpotDomaService.updateParkingSpotRates(request.getIds(), request.getHourlyRate()));
+    }
+    
+    private ResponseEntity<Map<String, Object>> bulkUpdate(ParkingSpotBulkUpdateRequest request,
+                                                           IntSupplier update) {
+        try {
+            int updated = update.getAsInt();
+            return ResponseEntity.ok(bulkResult(request.getIds().size(), updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException | OptimisticLockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    private static Map<String, Object> bulkResult(int requested, int affected) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("requested", requested);
+        result.put("affected", affected);
+        return result;
+    }
 } 
\ No newline at end of file
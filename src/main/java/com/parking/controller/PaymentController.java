@@ -1,16 +1,29 @@
 package com.parking.controller;
 
+import com.parking.config.JwtPrincipal;
 import com.parking.dto.PaymentRequest;
 import com.parking.dto.PaymentResponse;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.Payment;
+import com.parking.service.PaymentGatewayClient;
+import com.parking.service.PaymentGatewayUnavailableException;
+import com.parking.service.PaymentIdempotencyService;
 import com.parking.service.PaymentService;
+import com.parking.service.PaymentStatisticsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -19,19 +32,53 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class PaymentController {
     
+    /** 冪等性キーのリクエストヘッダー */
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    
+    /** 決済ゲートウェイ利用不可時の再試行までの秒数 */
+    private static final String GATEWAY_RETRY_AFTER_SECONDS = "5";
+    
+    /** 決済履歴の1ページあたりの最大件数 */
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+    
     private final PaymentService paymentService;
+    private final PaymentIdempotencyService paymentIdempotencyService;
+    private final PaymentStatisticsService paymentStatisticsService;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final HealthEndpoint healthEndpoint;
     
+    // Idempotency-Key 付きの再送には決済を再実行せず最初の結果を返す（キーは呼び出し元ユーザーごとに独立）
     @PostMapping("/process")
-    public ResponseEntity<PaymentResponse> processPayment(@Valid @RequestBody PaymentRequest request) {
+    public ResponseEntity<PaymentResponse> processPayment(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody PaymentRequest request) {
+        if (idempotencyKey == null) {
+            return process(request);
+        }
+        Long callerId = principal != null ? principal.userId() : null;
+        return paymentIdempotencyService.execute(callerId, idempotencyKey, request, () -> process(request));
+    }
+    
+    private ResponseEntity<PaymentResponse> process(PaymentRequest request) {
         try {
             PaymentResponse response = paymentService.processPayment(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            // 結果が不明（処理中）の場合は照会で確定するため受付のみとする
+            HttpStatus status = response.getStatus() == Payment.PaymentStatus.PROCESSING
+                ? HttpStatus.ACCEPTED
+                : HttpStatus.CREATED;
+            return ResponseEntity.status(status).body(response);
         } catch (IllegalArgumentException e) {
             log.error("Invalid payment request: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         } catch (IllegalStateException e) {
             log.error("Payment state error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (PaymentGatewayUnavailableException e) {
+            log.error("Payment gateway unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, GATEWAY_RETRY_AFTER_SECONDS)
+                .build();
         } catch (Exception e) {
             log.error("Payment processing error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -49,11 +96,26 @@ public class PaymentController {
         }
     }
     
+    /**
+     * ナンバープレートで決済履歴をページ単位で取得（新しい順）
+     * @param licensePlate ナンバープレート
+     * @param cursor 前ページの nextCursor（先頭ページの場合は省略）
+     * @param size 1ページの件数（1〜500）
+     * @return ページ（content, size, nextCursor）
+     */
     @GetMapping("/license/{licensePlate}")
-    public ResponseEntity<List<PaymentResponse>> getPaymentsByLicensePlate(@PathVariable String licensePlate) {
+    public ResponseEntity<Map<String, Object>> getPaymentsByLicensePlate(
+            @PathVariable String licensePlate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid size"));
+        }
         try {
-            List<PaymentResponse> responses = paymentService.getPaymentsByLicensePlate(licensePlate);
-            return ResponseEntity.ok(responses);
+            return ResponseEntity.ok(paymentService.getPaymentsPageByLicensePlate(
+                ParkingSession.normalizeLicensePlate(licensePlate), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Error retrieving payments for license plate: {}", licensePlate);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -88,6 +150,11 @@ public class PaymentController {
         }
     }
     
+    @GetMapping("/statistics/cache")
+    public ResponseEntity<Map<String, Object>> getPaymentStatisticsCacheStats() {
+        return ResponseEntity.ok(paymentStatisticsService.getCacheStatistics());
+    }
+    
     @GetMapping("/methods")
     public ResponseEntity<Map<String, String>> getSupportedPaymentMethods() {
         Map<String, String> methods = Map.of(
@@ -101,13 +168,22 @@ public class PaymentController {
         return ResponseEntity.ok(methods);
     }
     
+    // DB接続はActuatorのヘルスチェック（db）、ゲートウェイはサーキットブレーカーの状態から判定する
     @GetMapping("/health")
-    public ResponseEntity<Map<String, String>> getPaymentServiceHealth() {
-        Map<String, String> health = Map.of(
-            "status", "UP",
-            "service", "Payment Service",
-            "version", "1.0.0"
-        );
-        return ResponseEntity.ok(health);
+    public ResponseEntity<Map<String, Object>> getPaymentServiceHealth() {
+        HealthComponent database = healthEndpoint.healthForPath("db");
+        Status databaseStatus = database != null ? database.getStatus() : Status.UNKNOWN;
+        Set<Payment.PaymentMethod> openCircuits = paymentGatewayClient.getOpenCircuits();
+        
+        String status = !Status.UP.equals(databaseStatus) ? databaseStatus.getCode()
+            : openCircuits.isEmpty() ? Status.UP.getCode() : "DEGRADED";
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", status);
+        health.put("service", "Payment Service");
+        health.put("version", "1.0.0");
+        health.put("database", databaseStatus.getCode());
+        health.put("openCircuits", openCircuits);
+        return ResponseEntity.status(Status.UP.equals(databaseStatus) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+            .body(health);
     }
 } 
\ No newline at end of file
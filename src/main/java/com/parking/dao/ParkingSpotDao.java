@@ -2,15 +2,23 @@ package com.parking.dao;
 
 import com.parking.entity.ParkingSpotDoma;
 import org.seasar.doma.*;
+import org.seasar.doma.jdbc.SelectOptions;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * 駐車場スペットDAO
  * Doma2フレームワークを使用した駐車場スペットのデータアクセス
+ * 生成される実装クラス（ParkingSpotDaoImpl）をSpringのBeanとし、DomaConfig の設定を注入する
  */
 @Dao
-@Repository
+@AnnotateWith(annotations = {
+    @Annotation(target = AnnotationTarget.CLASS, type = Repository.class),
+    @Annotation(target = AnnotationTarget.CONSTRUCTOR, type = Autowired.class)
+})
 public interface ParkingSpotDao {
     
     /**
@@ -28,6 +36,55 @@ public interface ParkingSpotDao {
     @Select
     ParkingSpotDoma selectById(Long id);
     
+    /**
+     * 状態で駐車場スペットを取得（idx_parking_spots_status を使用）
+     * @param status スペット状態
+     * @param options 検索オプション（ページング等、SelectOptions.get()で全件）
+     * @return 駐車場スペットのリスト
+     */
+    @Select
+    List<ParkingSpotDoma> selectByStatus(ParkingSpotDoma.SpotStatus status, SelectOptions options);
+    
+    /**
+     * タイプで駐車場スペットを取得（idx_parking_spots_spot_type を使用）
+     * @param spotType スペットタイプ
+     * @param options 検索オプション（ページング等、SelectOptions.get()で全件）
+     * @return 駐車場スペットのリスト
+     */
+    @Select
+    List<ParkingSpotDoma> selectByType(ParkingSpotDoma.SpotType spotType, SelectOptions options);
+    
+    /**
+     * 状態とタイプで駐車場スペットを取得
+     * @param status スペット状態
+     * @param spotType スペットタイプ
+     * @param options 検索オプション（ページング等、SelectOptions.get()で全件）
+     * @return 駐車場スペットのリスト
+     */
+    @Select
+    List<ParkingSpotDoma> selectByStatusAndType(ParkingSpotDoma.SpotStatus status,
+                                                ParkingSpotDoma.SpotType spotType,
+                                                SelectOptions options);
+    
+    /**
+     * 状態ごとの駐車場スペット数を取得
+     * @param status スペット状態
+     * @return スペット数
+     */
+    @Select
+    long countByStatus(ParkingSpotDoma.SpotStatus status);
+    
+    /**
+     * 状態で駐車場スペットをストリームとして処理（全件をリストに読み込まない）
+     * トランザクション内で呼び出すこと
+     * @param <R> 処理結果の型
+     * @param status スペット状態
+     * @param mapper ストリームを処理する関数
+     * @return 処理結果
+     */
+    @Select(strategy = SelectType.STREAM)
+    <R> R streamByStatus(ParkingSpotDoma.SpotStatus status, Function<Stream<ParkingSpotDoma>, R> mapper);
+    
     /**
      * 駐車場スペットを挿入
      * @param parkingSpot 挿入するスペット
@@ -51,4 +108,36 @@ public interface ParkingSpotDao {
      */
     @Delete
     int delete(ParkingSpotDoma parkingSpot);
+    
+    /**
+     * IDのリストで駐車場スペットを取得
+     * @param ids スペットIDのリスト
+     * @return 駐車場スペットのリスト
+     */
+    @Select
+    List<ParkingSpotDoma> selectByIds(List<Long> ids);
+    
+    /**
+     * スペット番号のリストで駐車場スペットを取得
+     * @param spotNumbers スペット番号のリスト
+     * @return 駐車場スペットのリスト
+     */
+    @Select
+    List<ParkingSpotDoma> selectBySpotNumbers(List<String> spotNumbers);
+    
+    /**
+     * 駐車場スペットを一括挿入（doma.batch.size件ごとにJDBCバッチで実行）
+     * @param parkingSpots 挿入するスペットのリスト
+     * @return 各スペットの更新行数
+     */
+    @BatchInsert
+    int[] batchInsert(List<ParkingSpotDoma> parkingSpots);
+    
+    /**
+     * 駐車場スペットを一括更新（doma.batch.size件ごとにJDBCバッチで実行、バージョンで楽観的ロック）
+     * @param parkingSpots 更新するスペットのリスト
+     * @return 各スペットの更新行数
+     */
+    @BatchUpdate
+    int[] batchUpdate(List<ParkingSpotDoma> parkingSpots);
 } 
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.parking.dto;
+
+import com.parking.entity.ParkingSpot;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * アクティブなセッションの現在料金の見積もり
+ */
+@Data
+@NoArgsConstructor
+public class FeeQuote {
+    
+    private Long sessionId;
+    private String licensePlate;
+    private String spotNumber;
+    private ParkingSpot.SpotType spotType;
+    private Double hourlyRate;
+    private LocalDateTime entryTime;
+    private long durationMinutes;
+    private BigDecimal amount;
+    
+    /**
+     * 読み取り用クエリのコンストラクタ射影（ParkingSessionRepository）で使用する
+     */
+    public FeeQuote(Long sessionId, String licensePlate, String spotNumber, ParkingSpot.SpotType spotType,
+                    Double hourlyRate, LocalDateTime entryTime) {
+        this.sessionId = sessionId;
+        this.licensePlate = licensePlate;
+        this.spotNumber = spotNumber;
+        this.spotType = spotType;
+        this.hourlyRate = hourlyRate;
+        this.entryTime = entryTime;
+    }
+}
@@ -0,0 +1,23 @@
+package com.parking.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 料金一括見積もりリクエスト（セッションIDまたはナンバープレートで指定）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeeQuoteRequest {
+    
+    @Size(max = 500, message = "At most 500 session IDs can be quoted at once")
+    private List<Long> sessionIds = new ArrayList<>();
+    
+    @Size(max = 500, message = "At most 500 license plates can be quoted at once")
+    private List<String> licensePlates = new ArrayList<>();
+}
@@ -0,0 +1,30 @@
+package com.parking.dto;
+
+import com.parking.entity.ParkingSession;
+import com.parking.entity.ParkingSpot;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * セッション履歴の1行
+ * スペット情報を結合済みの射影で、エンティティの遅延ロードを発生させない
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSessionHistoryItem {
+    
+    private Long sessionId;
+    private String licensePlate;
+    private Long spotId;
+    private String spotNumber;
+    private ParkingSpot.SpotType spotType;
+    private LocalDateTime entryTime;
+    private LocalDateTime exitTime;
+    private BigDecimal totalAmount;
+    private ParkingSession.SessionStatus status;
+    private ParkingSession.PaymentStatus paymentStatus;
+}
@@ -0,0 +1,46 @@
+package com.parking.dto;
+
+import com.parking.entity.ParkingSpotDoma;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * 駐車場スペット一括作成リクエスト
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotBulkCreateRequest {
+    
+    @NotEmpty(message = "Spots are required")
+    @Valid
+    private List<SpotItem> spots;
+    
+    /**
+     * 作成するスペット
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SpotItem {
+        
+        @NotBlank(message = "Spot number is required")
+        private String spotNumber;
+        
+        @NotNull(message = "Spot type is required")
+        private ParkingSpotDoma.SpotType spotType;
+        
+        private Integer floorLevel;
+        
+        @NotNull(message = "Hourly rate is required")
+        @DecimalMin(value = "0.0", message = "Hourly rate must not be negative")
+        private Double hourlyRate;
+    }
+}
@@ -0,0 +1,28 @@
+package com.parking.dto;
+
+import com.parking.entity.ParkingSpotDoma;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * 駐車場スペット一括更新リクエスト（状態変更・料金変更）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotBulkUpdateRequest {
+    
+    @NotEmpty(message = "Spot IDs are required")
+    private List<Long> ids;
+    
+    /** 新しい状態（状態変更時） */
+    private ParkingSpotDoma.SpotStatus status;
+    
+    /** 新しい時間料金（料金変更時） */
+    @DecimalMin(value = "0.0", message = "Hourly rate must not be negative")
+    private Double hourlyRate;
+}
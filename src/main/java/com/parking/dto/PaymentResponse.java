@@ -32,4 +32,26 @@ public class PaymentResponse {
     // Payment gateway specific data
     private String gatewayResponse;
     private String gatewayTransactionId;
+    
+    /**
+     * 読み取り用クエリのコンストラクタ射影（PaymentRepository）で使用する
+     */
+    public PaymentResponse(Long paymentId, Long sessionId, String licensePlate, BigDecimal amount,
+                           Payment.PaymentMethod paymentMethod, Payment.PaymentStatus status,
+                           String transactionId, String cardLastFour, String cardBrand, String receiptUrl,
+                           String failureReason, LocalDateTime processedAt, LocalDateTime createdAt) {
+        this.paymentId = paymentId;
+        this.sessionId = sessionId;
+        this.licensePlate = licensePlate;
+        this.amount = amount;
+        this.paymentMethod = paymentMethod;
+        this.status = status;
+        this.transactionId = transactionId;
+        this.cardLastFour = cardLastFour;
+        this.cardBrand = cardBrand;
+        this.receiptUrl = receiptUrl;
+        this.failureReason = failureReason;
+        this.processedAt = processedAt;
+        this.createdAt = createdAt;
+    }
 } 
\ No newline at end of file
@@ -53,6 +53,23 @@ public class Notification {
     @Column(name = "delivery_method", nullable = false)
     private DeliveryMethod deliveryMethod;
     
+    /** 優先度 */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority")
+    private Priority priority = Priority.NORMAL;
+    
+    /** 配信試行回数 */
+    @Column(name = "attempts")
+    private Integer attempts = 0;
+    
+    /** 次回配信試行日時（配信待ちの場合） */
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    
+    /** 最後の配信失敗理由 */
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+    
     /** 送信日時 */
     @Column(name = "sent_at")
     private LocalDateTime sentAt;
@@ -112,6 +129,8 @@ public class Notification {
      * 通知ステータスの列挙型
      */
     public enum NotificationStatus {
+        /** 配信待ち */
+        PENDING,
         /** 未読 */
         UNREAD,
         /** 既読 */
@@ -136,6 +155,20 @@ public class Notification {
         PUSH
     }
     
+    /**
+     * 優先度の列挙型
+     */
+    public enum Priority {
+        /** 低 */
+        LOW,
+        /** 通常 */
+        NORMAL,
+        /** 高 */
+        HIGH,
+        /** 緊急 */
+        CRITICAL
+    }
+    
     /**
      * 通知を既読にする
      */
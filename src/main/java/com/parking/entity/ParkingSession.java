@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
+import java.util.Locale;
 
 /**
  * 駐車場セッションエンティティ
@@ -82,6 +83,37 @@ public class ParkingSession {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * 楽観的ロック用バージョン
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    /** ACTIVEなセッションのナンバープレートの部分ユニークインデックス名（V8） */
+    public static final String ACTIVE_PLATE_UNIQUE_INDEX = "idx_parking_sessions_active_plate_unique";
+
+    /** ACTIVEなセッションのスペットの部分ユニークインデックス名（V4） */
+    public static final String ACTIVE_SPOT_UNIQUE_INDEX = "idx_parking_sessions_active_spot_unique";
+
+    /**
+     * ナンバープレートを正規化（前後の空白除去・連続空白の1文字化・英字大文字化）
+     * APIの入口で1回だけ適用し、正規化した値を保存・検索に使用する
+     * @param licensePlate ナンバープレート
+     * @return 正規化済みナンバープレート
+     * @throws IllegalArgumentException ナンバープレートが空の場合
+     */
+    public static String normalizeLicensePlate(String licensePlate) {
+        if (licensePlate == null) {
+            throw new IllegalArgumentException("License plate is required");
+        }
+        String normalized = licensePlate.strip().replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("License plate is required");
+        }
+        return normalized;
+    }
+
     /**
      * エンティティ作成時の処理
      * 作成日時、更新日時、入庫時刻を設定
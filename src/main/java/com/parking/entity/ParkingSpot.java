@@ -4,14 +4,24 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.time.LocalDateTime;
 
 /**
  * 駐車場スペットエンティティ
  * 駐車場の各スペットの情報を管理する
+ *
+ * Hibernateの二次キャッシュ（READ_WRITE）に保持する。JPA経由の状態変更はコミット時にキャッシュへ反映され、
+ * Doma経由の更新は SpotsChangedExternallyEvent を受けた SecondLevelCacheService がコミット後にキャッシュから破棄する。
+ * スペット番号は自然キーとして、番号からIDへの対応も二次キャッシュに保持する。
  */
 @Entity
 @Table(name = "parking_spots")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ParkingSpot.CACHE_REGION)
+@NaturalIdCache(region = ParkingSpot.NATURAL_ID_CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,6 +37,7 @@ public class ParkingSpot {
     /**
      * スペット番号（一意）
      */
+    @NaturalId(mutable = true)
     @Column(name = "spot_number", unique = true, nullable = false)
     private String spotNumber;
     
@@ -53,7 +64,7 @@ public class ParkingSpot {
     /**
      * 時間料金（円/時間）
      */
-    @Column(name = "hourly_rate", nullable = false)
+    @Column(name = "hourly_rate", nullable = false, columnDefinition = "numeric(10,2)")
     private Double hourlyRate;
     
     /**
@@ -68,6 +79,19 @@ public class ParkingSpot {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * 楽観的ロック用バージョン
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+    
+    /** 二次キャッシュの領域名 */
+    public static final String CACHE_REGION = "parkingSpots";
+    
+    /** スペット番号（自然キー）の二次キャッシュの領域名 */
+    public static final String NATURAL_ID_CACHE_REGION = "parkingSpotNaturalIds";
+    
     /**
      * エンティティ作成時の処理
      * 作成日時と更新日時を設定
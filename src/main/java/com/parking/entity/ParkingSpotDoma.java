@@ -60,6 +60,13 @@ public class ParkingSpotDoma {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * 楽観的ロック用バージョン
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+    
     /**
      * デフォルトコンストラクタ
      */
@@ -76,6 +83,7 @@ public class ParkingSpotDoma {
      * @param hourlyRate 時間料金
      * @param createdAt 作成日時
      * @param updatedAt 更新日時
+     * @param version バージョン
      */
     public ParkingSpotDoma(
             Long id,
@@ -85,7 +93,8 @@ public class ParkingSpotDoma {
             Integer floorLevel,
             Double hourlyRate,
             LocalDateTime createdAt,
-            LocalDateTime updatedAt) {
+            LocalDateTime updatedAt,
+            Long version) {
         this.id = id;
         this.spotNumber = spotNumber;
         this.spotType = spotType;
@@ -94,6 +103,7 @@ public class ParkingSpotDoma {
         this.hourlyRate = hourlyRate;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
     }
     
     // Getter and Setter methods
@@ -193,6 +203,18 @@ public class ParkingSpotDoma {
      */
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    /**
+     * バージョンを取得
+     * @return バージョン
+     */
+    public Long getVersion() { return version; }
+    
+    /**
+     * バージョンを設定
+     * @param version バージョン
+     */
+    public void setVersion(Long version) { this.version = version; }
+    
     /**
      * スペットタイプの列挙型
      */
@@ -0,0 +1,79 @@
+package com.parking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 決済冪等性キーエンティティ
+ * 呼び出し元ユーザーと Idempotency-Key ヘッダーの組ごとに、リクエストのハッシュと
+ * 処理結果（HTTPステータス・レスポンス本文）を保持する
+ */
+@Entity
+@Table(name = "payment_idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentIdempotencyKey {
+    
+    /** 複合主キー（呼び出し元ユーザーID、冪等性キー） */
+    @EmbeddedId
+    private Key id;
+    
+    /** リクエスト本文のSHA-256（同じキーで異なるリクエストを検出する） */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    /** 処理状態 */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+    
+    /** 処理結果のHTTPステータス */
+    @Column(name = "http_status")
+    private Integer httpStatus;
+    
+    /** 処理結果のレスポンス本文（JSON） */
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+    
+    /** 作成日時（処理中の場合はリース開始日時） */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    /** 処理完了日時 */
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    /**
+     * 決済冪等性キーの複合主キー
+     * キーは呼び出し元ごとに独立し、他のユーザーが同じキーを使っても結果は共有されない
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        
+        /** 呼び出し元ユーザーID */
+        @Column(name = "caller_id", nullable = false)
+        private Long callerId;
+        
+        /** クライアントが指定した冪等性キー */
+        @Column(name = "idempotency_key", nullable = false, length = 255)
+        private String idempotencyKey;
+    }
+    
+    /**
+     * 処理状態の列挙型
+     */
+    public enum Status {
+        /** 処理中 */
+        IN_PROGRESS,
+        /** 処理完了（結果を再送できる） */
+        COMPLETED
+    }
+}
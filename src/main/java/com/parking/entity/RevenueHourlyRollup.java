@@ -0,0 +1,57 @@
+package com.parking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 時間別売上ロールアップエンティティ
+ * 完了した決済の金額と件数を1時間・決済方法単位で事前集計する
+ * 同時加算による行ロックの競合を避けるため、1時間・決済方法ごとに複数行（ストライプ）に分けて保持し、読み取り時に合算する
+ */
+@Entity
+@Table(name = "revenue_hourly_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueHourlyRollup {
+    
+    /** 複合主キー（集計時間帯の開始日時、決済方法、ストライプ） */
+    @EmbeddedId
+    private Key id;
+    
+    /** 完了売上の合計金額 */
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+    
+    /** 完了した決済の件数 */
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+    
+    /**
+     * 時間別売上ロールアップの複合主キー
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        
+        /** 集計時間帯の開始日時（時単位に切り捨て） */
+        @Column(name = "bucket_start", nullable = false)
+        private LocalDateTime bucketStart;
+        
+        /** 決済方法 */
+        @Enumerated(EnumType.STRING)
+        @Column(name = "payment_method", nullable = false, length = 20)
+        private Payment.PaymentMethod paymentMethod;
+        
+        /** ストライプ番号（0 から parking.revenue.rollup-stripes - 1） */
+        @Column(name = "stripe", nullable = false)
+        private Short stripe;
+    }
+}
@@ -4,18 +4,25 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.time.LocalDateTime;
 import java.util.Set;
 
 /**
  * 役割（ロール）エンティティクラス
  * ユーザーの権限を管理する
+ * ほとんど変更されないため、ロール名からIDへの対応とともにHibernateの二次キャッシュに保持する
  * 
  * @author Parking System
  * @version 1.0
  */
 @Entity
 @Table(name = "roles")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = Role.CACHE_REGION)
+@NaturalIdCache(region = Role.NATURAL_ID_CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,6 +34,7 @@ public class Role {
     private Long id;
     
     /** 役割名（一意） */
+    @NaturalId
     @Column(name = "name", nullable = false, unique = true)
     private String name;
     
@@ -71,4 +79,9 @@ public class Role {
     public static final String ROLE_ADMIN = "ROLE_ADMIN";
     public static final String ROLE_STAFF = "ROLE_STAFF";
     public static final String ROLE_CUSTOMER = "ROLE_CUSTOMER";
+    
+    /** 二次キャッシュの領域名 */
+    public static final String CACHE_REGION = "roles";
+    /** ロール名（自然キー）の二次キャッシュの領域名 */
+    public static final String NATURAL_ID_CACHE_REGION = "roleNaturalIds";
 } 
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.parking.repository;
+
+import java.util.Optional;
+
+/**
+ * 自然キー検索のリポジトリフラグメント
+ * Hibernateの自然キー検索を使い、自然キーからIDへの対応とエンティティを二次キャッシュから取得する
+ * （キャッシュにない場合のみDBを検索する）
+ */
+public interface NaturalIdRepository {
+
+    /**
+     * 自然キー（@NaturalId）でエンティティを検索
+     * @param entityType エンティティの型
+     * @param naturalId 自然キーの値
+     * @return エンティティ（存在しない場合は空）
+     */
+    <T> Optional<T> findByNaturalId(Class<T> entityType, Object naturalId);
+}
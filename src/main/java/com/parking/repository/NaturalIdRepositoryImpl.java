@@ -0,0 +1,21 @@
+package com.parking.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * 自然キー検索のリポジトリフラグメントの実装
+ */
+public class NaturalIdRepositoryImpl implements NaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <T> Optional<T> findByNaturalId(Class<T> entityType, Object naturalId) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(entityType).loadOptional(naturalId);
+    }
+}
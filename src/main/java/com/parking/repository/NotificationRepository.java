@@ -1,8 +1,12 @@
 package com.parking.repository;
 
 import com.parking.entity.Notification;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -44,7 +48,7 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      * @param status ステータス
      * @return 通知リスト
      */
-    List<Notification> findByUserIdAndStatusOrderByCreatedAtDesc(Long userId, Notification.Status status);
+    List<Notification> findByUserIdAndStatusOrderByCreatedAtDesc(Long userId, Notification.NotificationStatus status);
 
     /**
      * ユーザーIDと優先度で通知を検索
@@ -81,7 +85,7 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      * @param endDate 終了日時
      * @return 通知数
      */
-    long countByStatusAndCreatedAtBetween(Notification.Status status, LocalDateTime startDate, LocalDateTime endDate);
+    long countByStatusAndCreatedAtBetween(Notification.NotificationStatus status, LocalDateTime startDate, LocalDateTime endDate);
 
     /**
      * 指定期間とタイプの通知数をカウント
@@ -99,6 +103,42 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      */
     long countByUserIdAndReadAtIsNull(Long userId);
 
+    /**
+     * ユーザーの未読通知をすべて既読にする
+     * @param userId ユーザーID
+     * @param now 既読日時
+     * @return 更新された行数
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.readAt = :now, n.updatedAt = :now "
+            + "WHERE n.user.id = :userId AND n.readAt IS NULL")
+    int markAllReadByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * 未読の通知を既読にする（既読の通知は更新しない）
+     * 更新後の通知を読み直せるよう、永続化コンテキストをクリアする
+     * @param id 通知ID
+     * @param now 既読日時
+     * @return 更新された行数（既読・存在しない場合は0）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.readAt = :now, n.updatedAt = :now "
+            + "WHERE n.id = :id AND n.readAt IS NULL")
+    int markReadById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * ユーザーの指定した未読通知を既読にする（他のユーザーの通知・既読の通知は更新しない）
+     * @param userId ユーザーID
+     * @param ids 通知IDリスト
+     * @param now 既読日時
+     * @return 更新された行数
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.readAt = :now, n.updatedAt = :now "
+            + "WHERE n.user.id = :userId AND n.id IN :ids AND n.readAt IS NULL")
+    int markReadByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") List<Long> ids,
+                                @Param("now") LocalDateTime now);
+
     /**
      * ユーザーの通知数をカウント
      * @param userId ユーザーID
@@ -130,7 +170,7 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      * 失敗した通知を検索
      * @return 失敗した通知リスト
      */
-    List<Notification> findByStatusOrderByCreatedAtDesc(Notification.Status status);
+    List<Notification> findByStatusOrderByCreatedAtDesc(Notification.NotificationStatus status);
 
     /**
      * 指定期間の失敗した通知を検索
@@ -141,4 +181,89 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.status = 'FAILED' AND n.createdAt BETWEEN :startDate AND :endDate ORDER BY n.createdAt DESC")
     List<Notification> findFailedNotificationsByDateRange(@Param("startDate") LocalDateTime startDate, 
                                                          @Param("endDate") LocalDateTime endDate);
-} 
\ No newline at end of file
+
+    // ==================== 配信（アウトボックス） ====================
+
+    /**
+     * 配信可能な通知をロックしてIDを取得（他のディスパッチャーがロック中の行はスキップ）
+     * @param deliveryMethod 配信方法
+     * @param now 現在日時
+     * @param limit 最大件数
+     * @return 通知IDリスト
+     */
+    @Query(value = "SELECT id FROM notifications WHERE status = 'PENDING' AND delivery_method = :deliveryMethod "
+            + "AND next_attempt_at <= :now ORDER BY next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockDispatchableIds(@Param("deliveryMethod") String deliveryMethod,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("limit") int limit);
+
+    /**
+     * 配信試行を記録し、リース期限まで他のディスパッチャーから見えなくする
+     * @param ids 通知IDリスト
+     * @param leaseUntil リース期限
+     * @return 更新された行数
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.attempts = COALESCE(n.attempts, 0) + 1, n.nextAttemptAt = :leaseUntil "
+            + "WHERE n.id IN :ids")
+    int markDispatchAttempt(@Param("ids") List<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * 通知をユーザーと一緒に取得
+     * @param ids 通知IDリスト
+     * @return 通知リスト
+     */
+    @Query("SELECT n FROM Notification n JOIN FETCH n.user WHERE n.id IN :ids")
+    List<Notification> findAllWithUserByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * 配信待ちの通知を一括で送信済みにする
+     * @param ids 通知IDリスト
+     * @param now 送信日時
+     * @return 更新された行数
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = com.parking.entity.Notification$NotificationStatus.SENT, "
+            + "n.sentAt = :now, n.nextAttemptAt = null, n.errorMessage = null, n.updatedAt = :now "
+            + "WHERE n.id IN :ids AND n.status = com.parking.entity.Notification$NotificationStatus.PENDING")
+    int markSent(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * 配信待ちの通知を一括で送信失敗にする（再試行しない）
+     * @param ids 通知IDリスト
+     * @param errorMessage 失敗理由
+     * @param now 更新日時
+     * @return 更新された行数
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = com.parking.entity.Notification$NotificationStatus.FAILED, "
+            + "n.nextAttemptAt = null, n.errorMessage = :errorMessage, n.updatedAt = :now "
+            + "WHERE n.id IN :ids AND n.status = com.parking.entity.Notification$NotificationStatus.PENDING")
+    int markFailed(@Param("ids") List<Long> ids, @Param("errorMessage") String errorMessage,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * 配信失敗を一括で記録
+     * 試行回数が上限に達した通知は送信失敗にし、それ以外は指数バックオフで次回試行日時を設定する
+     * @param ids 通知IDリスト
+     * @param errorMessage 失敗理由
+     * @param maxAttempts 最大試行回数
+     * @param backoffMs 初回再試行までの待機時間（ミリ秒）
+     * @param now 更新日時
+     * @return 更新された行数
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "notifications"))
+    @Query(value = "UPDATE notifications SET "
+            + "status = CASE WHEN attempts >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END, "
+            + "next_attempt_at = CASE WHEN attempts >= :maxAttempts THEN NULL "
+            + "ELSE CAST(:now AS TIMESTAMP) + make_interval(secs => CAST(:backoffMs AS DOUBLE PRECISION) / 1000 "
+            + "* power(2, LEAST(attempts - 1, 16))) END, "
+            + "error_message = :errorMessage, updated_at = :now "
+            + "WHERE id IN (:ids) AND status = 'PENDING'",
+           nativeQuery = true)
+    int markAttemptFailed(@Param("ids") List<Long> ids, @Param("errorMessage") String errorMessage,
+                          @Param("maxAttempts") int maxAttempts, @Param("backoffMs") long backoffMs,
+                          @Param("now") LocalDateTime now);
+}
@@ -1,13 +1,22 @@
 package com.parking.repository;
 
+import com.parking.dto.FeeQuote;
+import com.parking.dto.ParkingSessionHistoryItem;
 import com.parking.entity.ParkingSession;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 駐車場セッションリポジトリ
@@ -24,10 +33,58 @@ public interface ParkingSessionRepository extends JpaRepository<ParkingSession,
     List<ParkingSession> findByLicensePlate(String licensePlate);
     
     /**
-     * 状態でセッションを検索
+     * ナンバープレートのセッション履歴の先頭ページを取得（新しい順）
+     * @param licensePlate ナンバープレート
+     * @param pageable 取得件数（ページ番号は常に0）
+     * @return セッション履歴
+     */
+    @Query("SELECT new com.parking.dto.ParkingSessionHistoryItem(ps.id, ps.licensePlate, s.id, s.spotNumber, s.spotType, " +
+           "ps.entryTime, ps.exitTime, ps.totalAmount, ps.status, ps.paymentStatus) " +
+           "FROM ParkingSession ps JOIN ps.parkingSpot s " +
+           "WHERE ps.licensePlate = :licensePlate " +
+           "ORDER BY ps.entryTime DESC, ps.id DESC")
+    List<ParkingSessionHistoryItem> findHistoryByLicensePlate(@Param("licensePlate") String licensePlate,
+                                                              Pageable pageable);
+    
+    /**
+     * ナンバープレートのセッション履歴をカーソル位置の次から取得（新しい順）
+     * @param licensePlate ナンバープレート
+     * @param entryTime 前ページ最終行の入庫時刻
+     * @param id 前ページ最終行のセッションID
+     * @param pageable 取得件数（ページ番号は常に0）
+     * @return セッション履歴
+     */
+    @Query("SELECT new com.parking.dto.ParkingSessionHistoryItem(ps.id, ps.licensePlate, s.id, s.spotNumber, s.spotType, " +
+           "ps.entryTime, ps.exitTime, ps.totalAmount, ps.status, ps.paymentStatus) " +
+           "FROM ParkingSession ps JOIN ps.parkingSpot s " +
+           "WHERE ps.licensePlate = :licensePlate " +
+           "AND (ps.entryTime < :entryTime OR (ps.entryTime = :entryTime AND ps.id < :id)) " +
+           "ORDER BY ps.entryTime DESC, ps.id DESC")
+    List<ParkingSessionHistoryItem> findHistoryByLicensePlateAfter(@Param("licensePlate") String licensePlate,
+                                                                   @Param("entryTime") LocalDateTime entryTime,
+                                                                   @Param("id") Long id,
+                                                                   Pageable pageable);
+    
+    /**
+     * ナンバープレートのセッション履歴をストリームで取得（新しい順）
+     * トランザクション内で使用し、使用後はクローズすること
+     * @param licensePlate ナンバープレート
+     * @return セッション履歴のストリーム
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.parking.dto.ParkingSessionHistoryItem(ps.id, ps.licensePlate, s.id, s.spotNumber, s.spotType, " +
+           "ps.entryTime, ps.exitTime, ps.totalAmount, ps.status, ps.paymentStatus) " +
+           "FROM ParkingSession ps JOIN ps.parkingSpot s " +
+           "WHERE ps.licensePlate = :licensePlate " +
+           "ORDER BY ps.entryTime DESC, ps.id DESC")
+    Stream<ParkingSessionHistoryItem> streamHistoryByLicensePlate(@Param("licensePlate") String licensePlate);
+    
+    /**
+     * 状態でセッションを検索（スペットを同時に取得）
      * @param status セッション状態
      * @return 指定状態のセッションリスト
      */
+    @EntityGraph(attributePaths = "parkingSpot")
     List<ParkingSession> findByStatus(ParkingSession.SessionStatus status);
     
     /**
@@ -63,6 +120,25 @@ public interface ParkingSessionRepository extends JpaRepository<ParkingSession,
     @Query("SELECT ps FROM ParkingSession ps WHERE ps.licensePlate = :licensePlate AND ps.status = 'ACTIVE'")
     Optional<ParkingSession> findActiveSessionByLicensePlate(@Param("licensePlate") String licensePlate);
     
+    /**
+     * アクティブなセッションのキー項目を取得（アクティブセッションレジストリの構築用）
+     * @return [ナンバープレート, セッションID, スペットID, 入庫時刻] のリスト
+     */
+    @Query("SELECT ps.licensePlate, ps.id, ps.parkingSpot.id, ps.entryTime FROM ParkingSession ps WHERE ps.status = 'ACTIVE'")
+    List<Object[]> findActiveSessionKeys();
+    
+    /**
+     * セッションIDまたはナンバープレートでアクティブなセッションの料金見積もり用の値を取得
+     * @param ids セッションID（空可）
+     * @param licensePlates ナンバープレート（空可）
+     * @return 料金見積もり（金額は未設定）
+     */
+    @Query("SELECT new com.parking.dto.FeeQuote(ps.id, ps.licensePlate, s.spotNumber, s.spotType, s.hourlyRate, ps.entryTime) " +
+           "FROM ParkingSession ps JOIN ps.parkingSpot s " +
+           "WHERE ps.status = 'ACTIVE' AND (ps.id IN :ids OR ps.licensePlate IN :licensePlates)")
+    List<FeeQuote> findActiveFeeQuotes(@Param("ids") Collection<Long> ids,
+                                       @Param("licensePlates") Collection<String> licensePlates);
+    
     /**
      * アクティブなセッション数をカウント
      * @return アクティブなセッション数
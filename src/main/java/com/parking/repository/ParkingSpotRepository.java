@@ -13,14 +13,17 @@ import java.util.Optional;
  * 駐車場スペットのデータアクセスを管理
  */
 @Repository
-public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long> {
+public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>, NaturalIdRepository {
     
     /**
      * スペット番号で駐車場スペットを検索
+     * スペット番号は自然キーのため、二次キャッシュにあればDBを検索しない
      * @param spotNumber スペット番号
      * @return 駐車場スペット（存在しない場合は空）
      */
-    Optional<ParkingSpot> findBySpotNumber(String spotNumber);
+    default Optional<ParkingSpot> findBySpotNumber(String spotNumber) {
+        return findByNaturalId(ParkingSpot.class, spotNumber);
+    }
     
     /**
      * 状態で駐車場スペットを検索
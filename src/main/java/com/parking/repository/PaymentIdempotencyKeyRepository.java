@@ -0,0 +1,88 @@
+package com.parking.repository;
+
+import com.parking.entity.PaymentIdempotencyKey;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+/**
+ * 決済冪等性キーリポジトリ
+ * 冪等性キーの確保・結果の保存・期限切れキーの削除を管理
+ */
+@Repository
+public interface PaymentIdempotencyKeyRepository extends JpaRepository<PaymentIdempotencyKey, PaymentIdempotencyKey.Key> {
+    
+    /**
+     * 冪等性キーを処理中として確保（既に存在する場合は何もしない）
+     * @param callerId 呼び出し元ユーザーID
+     * @param key 冪等性キー
+     * @param requestHash リクエスト本文のハッシュ
+     * @param now 現在日時
+     * @return 確保できた場合は1、既に存在する場合は0
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "payment_idempotency_keys"))
+    @Query(value = "INSERT INTO payment_idempotency_keys (caller_id, idempotency_key, request_hash, status, created_at) "
+            + "VALUES (:callerId, :key, :requestHash, 'IN_PROGRESS', :now) "
+            + "ON CONFLICT (caller_id, idempotency_key) DO NOTHING",
+           nativeQuery = true)
+    int tryClaim(@Param("callerId") Long callerId, @Param("key") String key,
+                 @Param("requestHash") String requestHash, @Param("now") LocalDateTime now);
+    
+    /**
+     * リースが切れた処理中のキーを引き継ぐ（処理中にプロセスが停止した場合）
+     * @param id 複合主キー
+     * @param requestHash リクエスト本文のハッシュ（一致する場合のみ引き継ぐ）
+     * @param leaseExpiredBefore この日時より前に確保されたキーを期限切れとみなす
+     * @param now 現在日時
+     * @return 引き継いだ場合は1
+     */
+    @Modifying
+    @Query("UPDATE PaymentIdempotencyKey k SET k.createdAt = :now "
+            + "WHERE k.id = :id AND k.requestHash = :requestHash "
+            + "AND k.status = com.parking.entity.PaymentIdempotencyKey$Status.IN_PROGRESS "
+            + "AND k.createdAt < :leaseExpiredBefore")
+    int takeOverExpired(@Param("id") PaymentIdempotencyKey.Key id, @Param("requestHash") String requestHash,
+                        @Param("leaseExpiredBefore") LocalDateTime leaseExpiredBefore,
+                        @Param("now") LocalDateTime now);
+    
+    /**
+     * 処理結果を保存（処理中の結果を確定した結果で置き換える場合も使用する）
+     * @param id 複合主キー
+     * @param httpStatus HTTPステータス
+     * @param responseBody レスポンス本文（JSON）
+     * @param now 現在日時
+     * @return 更新された行数
+     */
+    @Modifying
+    @Query("UPDATE PaymentIdempotencyKey k SET k.status = com.parking.entity.PaymentIdempotencyKey$Status.COMPLETED, "
+            + "k.httpStatus = :httpStatus, k.responseBody = :responseBody, k.completedAt = :now "
+            + "WHERE k.id = :id")
+    int complete(@Param("id") PaymentIdempotencyKey.Key id, @Param("httpStatus") int httpStatus,
+                 @Param("responseBody") String responseBody, @Param("now") LocalDateTime now);
+    
+    /**
+     * 処理中のキーを解放（決済ゲートウェイを呼び出していない場合）
+     * @param id 複合主キー
+     * @return 削除された行数
+     */
+    @Modifying
+    @Query("DELETE FROM PaymentIdempotencyKey k WHERE k.id = :id "
+            + "AND k.status = com.parking.entity.PaymentIdempotencyKey$Status.IN_PROGRESS")
+    int release(@Param("id") PaymentIdempotencyKey.Key id);
+    
+    /**
+     * 保存期間を過ぎたキーを削除
+     * @param cutoff この日時より前に作成されたキーを削除
+     * @return 削除された行数
+     */
+    @Modifying
+    @Query("DELETE FROM PaymentIdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,25 +1,100 @@
 package com.parking.repository;
 
+import com.parking.dto.PaymentResponse;
 import com.parking.entity.Payment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
-    Optional<Payment> findByParkingSessionId(Long sessionId);
+    /**
+     * セッションに指定ステータスの決済があるか（失敗した決済は1セッションに複数存在し得る）
+     * @param sessionId 駐車セッションID
+     * @param status 決済ステータス
+     * @return 存在する場合はtrue
+     */
+    boolean existsByParkingSessionIdAndStatus(Long sessionId, Payment.PaymentStatus status);
+    
+    /**
+     * 決済を行ロック付きで取得（決済結果の確定用）
+     * @param id 決済ID
+     * @return 決済
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * 指定日時より前に作成された処理中の決済のIDを作成日時順に取得（照会による確定の対象）
+     * @param createdBefore 作成日時の上限
+     * @param pageable 取得件数
+     * @return 決済IDのリスト
+     */
+    @Query("SELECT p.id FROM Payment p WHERE p.status = com.parking.entity.Payment$PaymentStatus.PROCESSING " +
+           "AND p.createdAt < :createdBefore ORDER BY p.createdAt, p.id")
+    List<Long> findProcessingIdsCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore, Pageable pageable);
     
     List<Payment> findByStatus(Payment.PaymentStatus status);
     
     List<Payment> findByPaymentMethod(Payment.PaymentMethod paymentMethod);
     
-    @Query("SELECT p FROM Payment p WHERE p.parkingSession.licensePlate = :licensePlate")
+    @Query("SELECT p FROM Payment p JOIN FETCH p.parkingSession ps WHERE ps.licensePlate = :licensePlate " +
+           "ORDER BY ps.entryTime DESC, p.id DESC")
     List<Payment> findByLicensePlate(@Param("licensePlate") String licensePlate);
     
+    /**
+     * ナンバープレートの決済履歴の先頭ページを取得（新しい順）
+     * @param licensePlate ナンバープレート
+     * @param pageable 取得件数（ページ番号は常に0）
+     * @return 決済履歴
+     */
+    @Query("SELECT new com.parking.dto.PaymentResponse(p.id, ps.id, ps.licensePlate, p.amount, p.paymentMethod, " +
+           "p.status, p.transactionId, p.cardLastFour, p.cardBrand, p.receiptUrl, p.failureReason, " +
+           "p.processedAt, p.createdAt) " +
+           "FROM Payment p JOIN p.parkingSession ps WHERE ps.licensePlate = :licensePlate " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentResponse> findResponsesByLicensePlate(@Param("licensePlate") String licensePlate, Pageable pageable);
+    
+    /**
+     * ナンバープレートの決済履歴をカーソル位置の次から取得（新しい順）
+     * @param licensePlate ナンバープレート
+     * @param createdAt 前ページ最終行の作成日時
+     * @param id 前ページ最終行の決済ID
+     * @param pageable 取得件数（ページ番号は常に0）
+     * @return 決済履歴
+     */
+    @Query("SELECT new com.parking.dto.PaymentResponse(p.id, ps.id, ps.licensePlate, p.amount, p.paymentMethod, " +
+           "p.status, p.transactionId, p.cardLastFour, p.cardBrand, p.receiptUrl, p.failureReason, " +
+           "p.processedAt, p.createdAt) " +
+           "FROM Payment p JOIN p.parkingSession ps WHERE ps.licensePlate = :licensePlate " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentResponse> findResponsesByLicensePlateAfter(@Param("licensePlate") String licensePlate,
+                                                           @Param("createdAt") LocalDateTime createdAt,
+                                                           @Param("id") Long id,
+                                                           Pageable pageable);
+    
+    @Query("SELECT new com.parking.dto.PaymentResponse(p.id, ps.id, ps.licensePlate, p.amount, p.paymentMethod, " +
+           "p.status, p.transactionId, p.cardLastFour, p.cardBrand, p.receiptUrl, p.failureReason, " +
+           "p.processedAt, p.createdAt) " +
+           "FROM Payment p JOIN p.parkingSession ps WHERE p.id = :id")
+    Optional<PaymentResponse> findResponseById(@Param("id") Long id);
+    
+    @Query("SELECT new com.parking.dto.PaymentResponse(p.id, ps.id, ps.licensePlate, p.amount, p.paymentMethod, " +
+           "p.status, p.transactionId, p.cardLastFour, p.cardBrand, p.receiptUrl, p.failureReason, " +
+           "p.processedAt, p.createdAt) " +
+           "FROM Payment p JOIN p.parkingSession ps WHERE ps.id = :sessionId ORDER BY p.id DESC")
+    List<PaymentResponse> findResponsesByParkingSessionId(@Param("sessionId") Long sessionId, Pageable pageable);
+    
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status")
     long countByStatus(@Param("status") Payment.PaymentStatus status);
     
@@ -28,4 +103,22 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     @Query("SELECT p.paymentMethod, COUNT(p) FROM Payment p WHERE p.status = 'COMPLETED' GROUP BY p.paymentMethod")
     List<Object[]> getPaymentMethodStats();
+    
+    @Query("SELECT p.status, p.paymentMethod, COUNT(p) FROM Payment p GROUP BY p.status, p.paymentMethod")
+    List<Object[]> countByStatusAndPaymentMethod();
+    
+    /**
+     * ステータス・決済方法別の件数と、指定日時以降に作成された決済の金額合計を1回で集計
+     * @param since 金額合計の対象とする作成日時の下限
+     * @return [ステータス, 決済方法, 件数, 金額合計] の行
+     */
+    @Query("SELECT p.status, p.paymentMethod, COUNT(p), " +
+           "SUM(CASE WHEN p.createdAt >= :since THEN p.amount ELSE 0 END) " +
+           "FROM Payment p GROUP BY p.status, p.paymentMethod")
+    List<Object[]> summarizeByStatusAndPaymentMethod(@Param("since") java.time.LocalDateTime since);
+    
+    @Query(value = "SELECT CAST(EXTRACT(EPOCH FROM date_trunc('hour', created_at)) / 3600 AS BIGINT) AS epoch_hour, SUM(amount) "
+            + "FROM payments WHERE status = 'COMPLETED' AND created_at >= :startDate GROUP BY epoch_hour",
+           nativeQuery = true)
+    List<Object[]> getHourlyRevenueSince(@Param("startDate") java.time.LocalDateTime startDate);
 } 
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.parking.repository;
+
+import com.parking.entity.RevenueHourlyRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 売上ロールアップリポジトリ
+ * 時間別売上ロールアップの加算と期間集計を管理
+ */
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueHourlyRollup, RevenueHourlyRollup.Key> {
+    
+    /**
+     * 時間別ロールアップのストライプに金額と件数を加算（行がなければ作成）
+     * @param bucketStart 集計時間帯の開始日時
+     * @param paymentMethod 決済方法
+     * @param stripe 加算先のストライプ番号
+     * @param amount 加算する金額（取り消し時は負数）
+     * @param count 加算する件数（取り消し時は負数）
+     * @return 更新された行数
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revenue_hourly_rollups"))
+    @Query(value = "INSERT INTO revenue_hourly_rollups (bucket_start, payment_method, stripe, total_amount, transaction_count) "
+            + "VALUES (:bucketStart, :paymentMethod, :stripe, :amount, :count) "
+            + "ON CONFLICT (bucket_start, payment_method, stripe) DO UPDATE SET "
+            + "total_amount = revenue_hourly_rollups.total_amount + EXCLUDED.total_amount, "
+            + "transaction_count = revenue_hourly_rollups.transaction_count + EXCLUDED.transaction_count",
+           nativeQuery = true)
+    int addToHourlyRollup(@Param("bucketStart") LocalDateTime bucketStart,
+                          @Param("paymentMethod") String paymentMethod,
+                          @Param("stripe") int stripe,
+                          @Param("amount") BigDecimal amount,
+                          @Param("count") long count);
+    
+    /**
+     * 期間内の時間別売上を取得（決済方法とストライプは合算）
+     * @param startDate 開始日時（含む）
+     * @param endDate 終了日時（含まない）
+     * @return [集計時間帯の開始日時, 合計金額, 件数] のリスト（時間順）
+     */
+    @Query("SELECT r.id.bucketStart, SUM(r.totalAmount), SUM(r.transactionCount) FROM RevenueHourlyRollup r "
+            + "WHERE r.id.bucketStart >= :startDate AND r.id.bucketStart < :endDate "
+            + "GROUP BY r.id.bucketStart ORDER BY r.id.bucketStart")
+    List<Object[]> getHourlyTotals(@Param("startDate") LocalDateTime startDate,
+                                   @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * ロールアップをすべて削除
+     * @return 削除された行数
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revenue_hourly_rollups"))
+    @Query(value = "DELETE FROM revenue_hourly_rollups", nativeQuery = true)
+    int deleteAllRollups();
+    
+    /**
+     * 決済テーブルから時間別ロールアップを再構築（ストライプ 0 に集約）
+     * @return 作成された行数
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revenue_hourly_rollups"))
+    @Query(value = "INSERT INTO revenue_hourly_rollups (bucket_start, payment_method, total_amount, transaction_count) "
+            + "SELECT date_trunc('hour', created_at), payment_method, SUM(amount), COUNT(*) "
+            + "FROM payments WHERE status = 'COMPLETED' GROUP BY 1, 2",
+           nativeQuery = true)
+    int rebuildHourlyRollups();
+    
+    /**
+     * アーカイブ済みの決済を時間別ロールアップに加算（rebuildHourlyRollups の後に実行）
+     * @return 作成・更新された行数
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revenue_hourly_rollups"))
+    @Query(value = "INSERT INTO revenue_hourly_rollups (bucket_start, payment_method, total_amount, transaction_count) "
+            + "SELECT date_trunc('hour', created_at), payment_method, SUM(amount), COUNT(*) "
+            + "FROM payments_archive WHERE status = 'COMPLETED' GROUP BY 1, 2 "
+            + "ON CONFLICT (bucket_start, payment_method, stripe) DO UPDATE SET "
+            + "total_amount = revenue_hourly_rollups.total_amount + EXCLUDED.total_amount, "
+            + "transaction_count = revenue_hourly_rollups.transaction_count + EXCLUDED.transaction_count",
+           nativeQuery = true)
+    int addArchivedHourlyRollups();
+    
+    /**
+     * 決済のアーカイブテーブルが存在するか
+     * @return 存在する場合はtrue
+     */
+    @Query(value = "SELECT to_regclass('payments_archive') IS NOT NULL", nativeQuery = true)
+    boolean archiveTableExists();
+}
@@ -11,14 +11,17 @@ import java.util.Optional;
  * ロールエンティティのデータベース操作を担当
  */
 @Repository
-public interface RoleRepository extends JpaRepository<Role, Long> {
+public interface RoleRepository extends JpaRepository<Role, Long>, NaturalIdRepository {
 
     /**
      * ロール名でロールを検索
+     * ロール名は自然キーのため、二次キャッシュにあればDBを検索しない
      * @param name ロール名
      * @return ロール（存在しない場合は空）
      */
-    Optional<Role> findByName(String name);
+    default Optional<Role> findByName(String name) {
+        return findByNaturalId(Role.class, name);
+    }
 
     /**
      * ロール名の存在チェック
@@ -0,0 +1,141 @@
+package com.parking.service;
+
+import com.parking.entity.ParkingSession;
+import com.parking.repository.ParkingSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * アクティブセッションレジストリ
+ * 駐車中の車両（ナンバープレート → セッションID・スペットID・入庫時刻）をメモリ上に保持し、
+ * 二重入庫の判定とナンバープレートでの出庫をDBへの問い合わせなしで行う
+ *
+ * 入庫はトランザクション内で予約し、コミット時に確定・ロールバック時に取り消す。
+ * ナンバープレートはAPIの入口で正規化済み（ParkingSession.normalizeLicensePlate）の値をそのままキーにする。
+ * キーは登録時にのみインターンし、参照時は受け取った文字列でそのまま検索する。
+ * DBの部分ユニークインデックス（ACTIVEなセッションのナンバープレート）が最終的な整合性を保証する。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActiveSessionRegistry {
+
+    /** 入庫処理中（未コミット）を表すエントリ */
+    private static final Entry RESERVED = new Entry(-1, -1, 0);
+
+    private final ParkingSessionRepository parkingSessionRepository;
+
+    /** 正規化済みナンバープレート → アクティブセッション */
+    private final ConcurrentHashMap<String, Entry> sessions = new ConcurrentHashMap<>();
+
+    /** DBからの初期ロードが完了したか */
+    private volatile boolean ready;
+
+    // ==================== 初期化 ====================
+
+    /**
+     * アプリケーション起動完了時にDBのアクティブセッションを読み込む
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * DBのアクティブセッションでレジストリを置き換える
+     */
+    public synchronized void reload() {
+        ready = false;
+        sessions.clear();
+        for (Object[] row : parkingSessionRepository.findActiveSessionKeys()) {
+            sessions.put(((String) row[0]).intern(),
+                new Entry((Long) row[1], (Long) row[2], toEpochSecond((LocalDateTime) row[3])));
+        }
+        ready = true;
+        log.info("アクティブセッションレジストリを構築しました: sessions={}", sessions.size());
+    }
+
+    /**
+     * 初期ロードが完了しているか
+     * @return 完了している場合はtrue
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==================== 状態遷移の反映 ====================
+
+    /**
+     * 入庫を予約（トランザクション内で呼び出し、ロールバック時は自動的に取り消される）
+     * @param licensePlate 正規化済みナンバープレート
+     * @return 予約できた場合はtrue（既に駐車中・入庫処理中の場合はfalse）
+     */
+    public boolean tryReserve(String licensePlate) {
+        String key = licensePlate.intern();
+        if (sessions.putIfAbsent(key, RESERVED) != null) {
+            return false;
+        }
+        TransactionCallbacks.afterRollback(() -> sessions.remove(key, RESERVED));
+        return true;
+    }
+
+    /**
+     * セッション開始を反映（コミット後に予約を確定）
+     * @param session 保存済みのセッション
+     */
+    public void onSessionStarted(ParkingSession session) {
+        String key = session.getLicensePlate();
+        Entry entry = new Entry(session.getId(), session.getParkingSpot().getId(),
+            toEpochSecond(session.getEntryTime()));
+        TransactionCallbacks.afterCommit(() -> sessions.put(key, entry));
+    }
+
+    /**
+     * セッション終了を反映（コミット後）
+     * @param session 終了したセッション
+     */
+    public void onSessionEnded(ParkingSession session) {
+        String key = session.getLicensePlate();
+        long sessionId = session.getId();
+        TransactionCallbacks.afterCommit(() ->
+            sessions.computeIfPresent(key, (plate, entry) -> entry.sessionId() == sessionId ? null : entry));
+    }
+
+    // ==================== 参照 ====================
+
+    /**
+     * ナンバープレートのアクティブセッションIDを取得（入庫処理中の場合は空）
+     * @param licensePlate 正規化済みナンバープレート
+     * @return セッションID
+     */
+    public Optional<Long> findSessionId(String licensePlate) {
+        Entry entry = sessions.get(licensePlate);
+        return entry == null || entry == RESERVED ? Optional.empty() : Optional.of(entry.sessionId());
+    }
+
+    /**
+     * アクティブなセッション数を取得（入庫処理中を含む）
+     * @return セッション数
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : 0;
+    }
+
+    /**
+     * アクティブセッション1件分の値（プリミティブのみで保持）
+     */
+    private record Entry(long sessionId, long spotId, long entryEpochSecond) {
+    }
+}
@@ -38,6 +38,9 @@ public class AuthService {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private TokenDenyList tokenDenyList;
+
     /**
      * ユーザー登録
      * @param request 登録リクエスト
@@ -170,5 +173,17 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+
+        // 変更前に発行されたトークンを失効させる
+        tokenDenyList.revokeUser(userId);
+    }
+
+    /**
+     * ログアウト（トークンを失効させる）
+     * @param token JWTトークン
+     */
+    public void logout(String token) {
+        tokenDenyList.revoke(jwtService.verify(token));
+        jwtService.evict(token);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,283 @@
+package com.parking.service;
+
+import com.parking.entity.Payment;
+import com.parking.repository.ParkingSessionRepository;
+import com.parking.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ダッシュボードスナップショットサービス
+ * ダッシュボード概要の集計値をメモリ上のカウンタとして保持する
+ *
+ * セッション・決済の状態遷移のコミット時にカウンタを増減し、
+ * 定期的にDBの集計値と照合して誤差を補正する。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardSnapshot {
+
+    private static final Payment.PaymentStatus[] PAYMENT_STATUSES = Payment.PaymentStatus.values();
+    private static final Payment.PaymentMethod[] PAYMENT_METHODS = Payment.PaymentMethod.values();
+
+    /** 月次売上の集計期間（日） */
+    private static final int REVENUE_WINDOW_DAYS = 30;
+
+    private final ParkingSessionRepository parkingSessionRepository;
+    private final PaymentRepository paymentRepository;
+
+    /** アクティブなセッション数 */
+    private final AtomicLong activeSessions = new AtomicLong();
+    /** ステータス別決済件数 */
+    private final AtomicLongArray paymentsByStatus = new AtomicLongArray(PAYMENT_STATUSES.length);
+    /** 決済方法別の完了件数 */
+    private final AtomicLongArray completedByMethod = new AtomicLongArray(PAYMENT_METHODS.length);
+    /** 完了売上の時間別バケット（エポック時 → 金額（銭単位）） */
+    private final ConcurrentHashMap<Long, LongAdder> revenueByHour = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+    private volatile LocalDateTime lastReconciledAt;
+
+    // ==================== 照合 ====================
+
+    /**
+     * アプリケーション起動完了時にDBから初期値を読み込む
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * 定期的にDBの集計値でカウンタを補正
+     */
+    @Scheduled(fixedDelayString = "${dashboard.snapshot.reconcile-interval-ms:300000}",
+               initialDelayString = "${dashboard.snapshot.reconcile-interval-ms:300000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * DBの集計値でカウンタを置き換える
+     * 照合中にコミットされた遷移は次回の照合で反映される
+     */
+    public synchronized void reconcile() {
+        LocalDateTime now = LocalDateTime.now();
+        long active = parkingSessionRepository.countActiveSessions();
+
+        long[] byStatus = new long[PAYMENT_STATUSES.length];
+        long[] byMethod = new long[PAYMENT_METHODS.length];
+        for (Object[] row : paymentRepository.countByStatusAndPaymentMethod()) {
+            Payment.PaymentStatus status = (Payment.PaymentStatus) row[0];
+            Payment.PaymentMethod method = (Payment.PaymentMethod) row[1];
+            long count = ((Number) row[2]).longValue();
+            byStatus[status.ordinal()] += count;
+            if (status == Payment.PaymentStatus.COMPLETED) {
+                byMethod[method.ordinal()] += count;
+            }
+        }
+
+        Map<Long, Long> hourly = new HashMap<>();
+        for (Object[] row : paymentRepository.getHourlyRevenueSince(now.minusDays(REVENUE_WINDOW_DAYS + 1))) {
+            hourly.put(((Number) row[0]).longValue(), toMinorUnits((BigDecimal) row[1]));
+        }
+
+        activeSessions.set(active);
+        for (int i = 0; i < byStatus.length; i++) {
+            paymentsByStatus.set(i, byStatus[i]);
+        }
+        for (int i = 0; i < byMethod.length; i++) {
+            completedByMethod.set(i, byMethod[i]);
+        }
+        revenueByHour.clear();
+        hourly.forEach((hour, amount) -> revenueByHour.computeIfAbsent(hour, h -> new LongAdder()).add(amount));
+
+        lastReconciledAt = now;
+        ready = true;
+        log.debug("ダッシュボードスナップショットを照合しました: activeSessions={}", active);
+    }
+
+    // ==================== 状態遷移の反映 ====================
+
+    /**
+     * セッション開始を反映（コミット後）
+     */
+    public void onSessionStarted() {
+        TransactionCallbacks.afterCommit(activeSessions::incrementAndGet);
+    }
+
+    /**
+     * セッション終了を反映（コミット後）
+     */
+    public void onSessionEnded() {
+        TransactionCallbacks.afterCommit(activeSessions::decrementAndGet);
+    }
+
+    /**
+     * 決済の新規作成を反映（コミット後）
+     * @param payment 保存済みの決済
+     */
+    public void onPaymentCreated(Payment payment) {
+        Payment.PaymentStatus status = payment.getStatus();
+        Payment.PaymentMethod method = payment.getPaymentMethod();
+        long amount = toMinorUnits(payment.getAmount());
+        long hour = epochHour(payment.getCreatedAt());
+        TransactionCallbacks.afterCommit(() -> {
+            paymentsByStatus.incrementAndGet(status.ordinal());
+            if (status == Payment.PaymentStatus.COMPLETED) {
+                completedByMethod.incrementAndGet(method.ordinal());
+                revenueByHour.computeIfAbsent(hour, h -> new LongAdder()).add(amount);
+            }
+        });
+    }
+
+    /**
+     * 決済のステータス変更を反映（コミット後）
+     * @param payment 変更後の決済
+     * @param previousStatus 変更前のステータス
+     */
+    public void onPaymentStatusChanged(Payment payment, Payment.PaymentStatus previousStatus) {
+        Payment.PaymentStatus status = payment.getStatus();
+        Payment.PaymentMethod method = payment.getPaymentMethod();
+        long amount = toMinorUnits(payment.getAmount());
+        long hour = epochHour(payment.getCreatedAt());
+        TransactionCallbacks.afterCommit(() -> {
+            paymentsByStatus.decrementAndGet(previousStatus.ordinal());
+            paymentsByStatus.incrementAndGet(status.ordinal());
+            if (previousStatus == Payment.PaymentStatus.COMPLETED) {
+                completedByMethod.decrementAndGet(method.ordinal());
+                revenueByHour.computeIfAbsent(hour, h -> new LongAdder()).add(-amount);
+            }
+            if (status == Payment.PaymentStatus.COMPLETED) {
+                completedByMethod.incrementAndGet(method.ordinal());
+                revenueByHour.computeIfAbsent(hour, h -> new LongAdder()).add(amount);
+            }
+        });
+    }
+
+    /**
+     * 決済の削除を反映（コミット後）
+     * @param payment 削除した決済
+     */
+    public void onPaymentDeleted(Payment payment) {
+        Payment.PaymentStatus status = payment.getStatus();
+        Payment.PaymentMethod method = payment.getPaymentMethod();
+        long amount = toMinorUnits(payment.getAmount());
+        long hour = epochHour(payment.getCreatedAt());
+        TransactionCallbacks.afterCommit(() -> {
+            paymentsByStatus.decrementAndGet(status.ordinal());
+            if (status == Payment.PaymentStatus.COMPLETED) {
+                completedByMethod.decrementAndGet(method.ordinal());
+                revenueByHour.computeIfAbsent(hour, h -> new LongAdder()).add(-amount);
+            }
+        });
+    }
+
+    // ==================== 参照 ====================
+
+    /**
+     * アクティブなセッション数を取得
+     * @return アクティブなセッション数
+     */
+    public long getActiveSessions() {
+        ensureReady();
+        return activeSessions.get();
+    }
+
+    /**
+     * 決済統計を取得（PaymentService.getPaymentStatisticsと同じ形式）
+     * @return 決済統計
+     */
+    public Map<String, Object> getPaymentStatistics() {
+        ensureReady();
+        Map<String, Object> stats = new HashMap<>();
+
+        long total = 0;
+        for (int i = 0; i < PAYMENT_STATUSES.length; i++) {
+            total += paymentsByStatus.get(i);
+        }
+        stats.put("totalPayments", total);
+        stats.put("completedPayments", paymentsByStatus.get(Payment.PaymentStatus.COMPLETED.ordinal()));
+        stats.put("failedPayments", paymentsByStatus.get(Payment.PaymentStatus.FAILED.ordinal()));
+        stats.put("pendingPayments", paymentsByStatus.get(Payment.PaymentStatus.PENDING.ordinal()));
+        stats.put("monthlyRevenue", getMonthlyRevenue());
+
+        Map<String, Long> methodCounts = new HashMap<>();
+        for (Payment.PaymentMethod method : PAYMENT_METHODS) {
+            long count = completedByMethod.get(method.ordinal());
+            if (count > 0) {
+                methodCounts.put(method.toString(), count);
+            }
+        }
+        stats.put("paymentMethodStats", methodCounts);
+
+        return stats;
+    }
+
+    /**
+     * 直近30日間の完了売上を取得（時間単位で集計）
+     * @return 売上金額
+     */
+    public double getMonthlyRevenue() {
+        return getRevenueSince(LocalDateTime.now().minusDays(REVENUE_WINDOW_DAYS));
+    }
+
+    /**
+     * 指定日時以降の完了売上を取得（時間単位で集計、直近30日間まで）
+     * @param startDate 開始日時
+     * @return 売上金額
+     */
+    public double getRevenueSince(LocalDateTime startDate) {
+        ensureReady();
+        long since = epochHour(startDate);
+        long total = 0;
+        for (Map.Entry<Long, LongAdder> bucket : revenueByHour.entrySet()) {
+            if (bucket.getKey() >= since) {
+                total += bucket.getValue().sum();
+            }
+        }
+        return total / 100.0;
+    }
+
+    /**
+     * 最後にDBと照合した日時を取得
+     * @return 照合日時
+     */
+    public LocalDateTime getLastReconciledAt() {
+        return lastReconciledAt;
+    }
+
+    private void ensureReady() {
+        if (!ready) {
+            reconcile();
+        }
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private static long epochHour(LocalDateTime time) {
+        LocalDateTime at = time != null ? time : LocalDateTime.now();
+        return at.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+}
@@ -0,0 +1,95 @@
+package com.parking.service;
+
+/**
+ * 決済ゲートウェイ呼び出しのサーキットブレーカー（決済方法ごとに1つ）
+ * 連続失敗が閾値に達すると一定時間呼び出しを遮断し、その後1件だけ試行して復旧を確認する
+ */
+final class GatewayCircuitBreaker {
+
+    /**
+     * ブレーカーの状態
+     */
+    enum State {
+        /** 通常（呼び出し可能） */
+        CLOSED,
+        /** 遮断中 */
+        OPEN,
+        /** 復旧確認中（試行1件のみ） */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    GatewayCircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 呼び出し可否を判定（遮断時間が過ぎていれば復旧確認の1件を許可する）
+     * @param now 現在時刻（ミリ秒）
+     * @return 呼び出し可能な場合はtrue
+     */
+    synchronized boolean tryAcquire(long now) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now < openUntil) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * 呼び出し成功を記録
+     */
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * 呼び出し失敗（エラー・タイムアウト）を記録
+     * @param now 現在時刻（ミリ秒）
+     */
+    synchronized void onFailure(long now) {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openUntil = now + openMillis;
+        }
+    }
+
+    /**
+     * 呼び出しを行わなかった場合に復旧確認の試行枠を返す（状態は変えない）
+     */
+    synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+
+    /**
+     * 現在の状態を取得
+     * @return 状態
+     */
+    synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,29 @@
+package com.parking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * ナンバープレート別履歴のページングカーソル（前ページ最終行の並び順の時刻とID）
+ * セッション履歴では入庫時刻とセッションID、決済履歴では作成日時と決済IDを持つ
+ */
+record HistoryCursor(LocalDateTime time, Long id) {
+
+    static HistoryCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new HistoryCursor(LocalDateTime.parse(value.substring(0, separator)),
+                Long.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    String encode() {
+        String value = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
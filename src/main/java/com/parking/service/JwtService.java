@@ -1,5 +1,8 @@
 package com.parking.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.parking.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
@@ -9,29 +12,105 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * JWTサービス
  * JWTトークンの生成、検証、解析を担当
+ *
+ * 署名鍵とパーサーは一度だけ生成し、署名検証済みのクレームはトークンのハッシュをキーとして
+ * トークンの有効期限まで保持する。同じトークンでの2回目以降の参照は再検証を行わない。
  */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret:defaultSecretKeyForDevelopment}")
-    private String secret;
+    /** 発行日時（エポックミリ秒）のクレーム名（iat は秒精度のため、ユーザー単位の失効の判定に使用する） */
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iatMs";
 
-    @Value("${jwt.expiration:86400000}")
-    private long expiration; // 24時間（ミリ秒）
+    private final String secret;
+
+    private final long expiration; // 24時間（ミリ秒）
+
+    /** 署名鍵（初回使用時に生成） */
+    private volatile SecretKey signingKey;
+
+    /** パーサー（初回使用時に生成） */
+    private volatile JwtParser jwtParser;
+
+    /** 検証済みクレームのキャッシュ（キー: トークンのSHA-256） */
+    private final Cache<String, Claims> verifiedClaims;
+
+    /**
+     * @param secret 署名用シークレット
+     * @param expiration トークンの有効期間（ミリ秒）
+     * @param cacheMaxSize 検証済みクレームのキャッシュ上限件数
+     */
+    public JwtService(@Value("${jwt.secret:defaultSecretKeyForDevelopment}") String secret,
+                      @Value("${jwt.expiration:86400000}") long expiration,
+                      @Value("${jwt.cache.max-size:10000}") long cacheMaxSize) {
+        this.secret = secret;
+        this.expiration = expiration;
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiresAt = claims.getExpiration();
+                        if (expiresAt == null) {
+                            return 0;
+                        }
+                        long remainingMillis = expiresAt.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     /**
      * シークレットキーを取得
      * @return SecretKey
      */
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * パーサーを取得
+     * @return JwtParser
+     */
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build();
+            jwtParser = parser;
+        }
+        return parser;
     }
 
     /**
@@ -44,6 +123,7 @@ public class JwtService {
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getUsername())
                 .claim("userId", user.getId())
                 .claim("email", user.getEmail())
@@ -51,6 +131,7 @@ public class JwtService {
                         .map(role -> role.getName())
                         .collect(Collectors.toList()))
                 .setIssuedAt(now)
+                .claim(ISSUED_AT_MILLIS_CLAIM, now.getTime())
                 .setExpiration(expiryDate)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)
                 .compact();
@@ -84,6 +165,9 @@ public class JwtService {
     public Collection<? extends GrantedAuthority> getAuthoritiesFromToken(String token) {
         Claims claims = getClaimsFromToken(token);
         Collection<String> roles = claims.get("roles", Collection.class);
+        if (roles == null) {
+            return List.of();
+        }
         
         return roles.stream()
                 .map(role -> new SimpleGrantedAuthority(role))
@@ -117,24 +201,66 @@ public class JwtService {
      */
     public boolean validateToken(String token, String username) {
         try {
-            String tokenUsername = getUsernameFromToken(token);
-            return (username.equals(tokenUsername) && !isTokenExpired(token));
+            Claims claims = verify(token);
+            return (username.equals(claims.getSubject()) && !claims.getExpiration().before(new Date()));
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * JWTトークンの署名と有効期限を検証してクレームを取得
+     * 検証済みのトークンはキャッシュから返す
+     * @param token JWTトークン
+     * @return 検証済みのClaims
+     * @throws JwtException 署名不正・有効期限切れ等の場合
+     * @throws IllegalArgumentException トークンが空の場合
+     */
+    public Claims verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+        String key = tokenKey(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
+        claims = getParser().parseClaimsJws(token).getBody();
+        verifiedClaims.put(key, claims);
+        return claims;
+    }
+
+    /**
+     * 検証済みクレームのキャッシュからトークンを削除
+     * @param token JWTトークン
+     */
+    public void evict(String token) {
+        if (token != null) {
+            verifiedClaims.invalidate(tokenKey(token));
+        }
+    }
+
     /**
      * JWTトークンからクレームを取得
      * @param token JWTトークン
      * @return Claims
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return verify(token);
+    }
+
+    /**
+     * キャッシュキー（トークンのSHA-256）を生成
+     * トークン文字列そのものはメモリに保持しない
+     */
+    private static String tokenKey(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     /**
@@ -144,10 +270,7 @@ public class JwtService {
      */
     public boolean isValidToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            verify(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
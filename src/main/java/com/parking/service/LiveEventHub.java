@@ -0,0 +1,309 @@
+package com.parking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.entity.Notification;
+import com.parking.entity.ParkingSpot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ライブイベント配信ハブ（Server-Sent Events）
+ * スペットの状態変更と、ユーザーごとの新しい通知を購読中のクライアントへプッシュする
+ *
+ * スペットの変更はスペットごとに最新の状態だけを保持し、一定間隔（parking.live.flush-interval-ms）で
+ * 1つのイベントにまとめて送る。イベントはJSONに1回だけ変換し、全購読者で共有する。
+ * 購読者ごとの送信バッファは上限付きで、遅いクライアントのバッファがあふれた場合は古いイベントを捨てて
+ * resync イベントを送り、クライアントにREST APIでの再取得を促す。送信は購読者ごとに直列化し、
+ * 共有のワーカースレッドで行うため、遅いクライアントが他の購読者やリクエスト処理を待たせない。
+ */
+@Component
+@Slf4j
+public class LiveEventHub {
+
+    /** スペットの状態変更イベント名 */
+    public static final String SPOTS_EVENT = "spots";
+
+    /** 新しい通知のイベント名 */
+    public static final String NOTIFICATION_EVENT = "notification";
+
+    /** バッファあふれ時の再取得要求のイベント名 */
+    public static final String RESYNC_EVENT = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long emitterTimeoutMs;
+
+    /** 購読者一覧 */
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /** ユーザー別の購読者一覧 */
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+
+    /** 未送信のスペット変更（キー: スペットID、値: 最新の状態） */
+    private final ConcurrentHashMap<Long, Map<String, Object>> pendingSpots = new ConcurrentHashMap<>();
+
+    /** イベントID（クライアントでの順序確認用） */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** 送信ワーカー */
+    private final ExecutorService sender;
+
+    public LiveEventHub(ObjectMapper objectMapper,
+                        @Value("${parking.live.buffer-size:64}") int bufferSize,
+                        @Value("${parking.live.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                        @Value("${parking.live.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        AtomicInteger threadSequence = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "live-events-" + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        sender.shutdownNow();
+    }
+
+    /**
+     * 購読を開始
+     * @param userId 通知を受け取るユーザーID（nullの場合はスペットの変更のみ）
+     * @return SSEエミッター
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        subscribers.add(subscriber);
+        if (userId != null) {
+            subscribersByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        // 接続直後にクライアントが現在の状態を取得できるよう、最初のイベントとして resync を送る
+        subscriber.offer(new Frame(sequence.incrementAndGet(), RESYNC_EVENT, "{}"));
+        log.debug("ライブイベントの購読を開始: userId={}, subscribers={}", userId, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * スペットの状態変更を通知（コミット後、次の送信間隔でまとめて配信）
+     * @param spot 変更後のスペット
+     */
+    public void onSpotChanged(ParkingSpot spot) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("id", spot.getId());
+        snapshot.put("spotNumber", spot.getSpotNumber());
+        snapshot.put("spotType", spot.getSpotType());
+        snapshot.put("status", spot.getStatus());
+        snapshot.put("floorLevel", spot.getFloorLevel());
+        TransactionCallbacks.afterCommit(() -> pendingSpots.put(spot.getId(), snapshot));
+    }
+
+    /**
+     * スペットの削除を通知（コミット後、次の送信間隔でまとめて配信）
+     * @param spotId スペットID
+     */
+    public void onSpotRemoved(Long spotId) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("id", spotId);
+        snapshot.put("removed", true);
+        TransactionCallbacks.afterCommit(() -> pendingSpots.put(spotId, snapshot));
+    }
+
+    /**
+     * 新しい通知をユーザーの購読者へ配信（コミット後）
+     * @param userId ユーザーID
+     * @param notification 保存済みの通知
+     */
+    public void onNotificationCreated(Long userId, Notification notification) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", notification.getId());
+        payload.put("type", notification.getType());
+        payload.put("deliveryMethod", notification.getDeliveryMethod());
+        payload.put("title", notification.getTitle());
+        payload.put("message", notification.getMessage());
+        payload.put("priority", notification.getPriority());
+        payload.put("status", notification.getStatus());
+        payload.put("createdAt", notification.getCreatedAt());
+        TransactionCallbacks.afterCommit(() -> {
+            Set<Subscriber> targets = subscribersByUser.get(userId);
+            if (targets == null || targets.isEmpty()) {
+                return;
+            }
+            Frame frame = new Frame(sequence.incrementAndGet(), NOTIFICATION_EVENT, toJson(payload));
+            targets.forEach(subscriber -> subscriber.offer(frame));
+        });
+    }
+
+    /**
+     * 蓄積したスペット変更をまとめて配信
+     */
+    @Scheduled(fixedDelayString = "${parking.live.flush-interval-ms:250}")
+    public void flushSpotChanges() {
+        if (pendingSpots.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> changes = new ArrayList<>(pendingSpots.size());
+        for (Long spotId : pendingSpots.keySet()) {
+            Map<String, Object> change = pendingSpots.remove(spotId);
+            if (change != null) {
+                changes.add(change);
+            }
+        }
+        if (changes.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        Frame frame = new Frame(sequence.incrementAndGet(), SPOTS_EVENT, toJson(changes));
+        subscribers.forEach(subscriber -> subscriber.offer(frame));
+    }
+
+    /**
+     * 接続維持のコメントを送信（プロキシのアイドルタイムアウト対策と切断の検出）
+     */
+    @Scheduled(fixedDelayString = "${parking.live.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(Frame.HEARTBEAT));
+    }
+
+    /**
+     * 現在の購読者数を取得
+     * @return 購読者数
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        if (subscriber.userId != null) {
+            subscribersByUser.computeIfPresent(subscriber.userId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize live event", e);
+        }
+    }
+
+    /**
+     * 送信するイベント（全購読者で共有する不変オブジェクト）
+     */
+    private record Frame(long id, String name, String data) {
+
+        static final Frame HEARTBEAT = new Frame(0, null, null);
+
+        boolean isHeartbeat() {
+            return name == null;
+        }
+    }
+
+    /**
+     * 購読者（上限付きの送信バッファを持つ）
+     */
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Frame> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private boolean overflowed;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Frame frame) {
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.clear();
+                    overflowed = true;
+                }
+                buffer.add(frame);
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RuntimeException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Frame frame;
+                    boolean resync;
+                    synchronized (buffer) {
+                        frame = buffer.poll();
+                        resync = overflowed;
+                        overflowed = false;
+                    }
+                    if (frame == null) {
+                        return;
+                    }
+                    if (resync) {
+                        send(new Frame(sequence.incrementAndGet(), RESYNC_EVENT, "{}"));
+                    }
+                    send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // クライアントが切断済み
+                remove(this);
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+                boolean pending;
+                synchronized (buffer) {
+                    pending = !buffer.isEmpty();
+                }
+                if (pending && subscribers.contains(this) && draining.compareAndSet(false, true)) {
+                    sender.execute(this::drain);
+                }
+            }
+        }
+
+        private void send(Frame frame) throws IOException {
+            if (frame.isHeartbeat()) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                emitter.send(SseEmitter.event()
+                    .id(Long.toString(frame.id()))
+                    .name(frame.name())
+                    .data(frame.data()));
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.parking.service;
+
+import com.parking.entity.Notification;
+import com.parking.entity.User;
+import com.parking.repository.NotificationRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 通知ディスパッチャー
+ * 配信待ち（PENDING）の通知をチャネル別にバッチで取り出し、外部プロバイダーへ送信する
+ *
+ * 取り出しは FOR UPDATE SKIP LOCKED で行い、試行回数を加算してリース期限を設定するため、
+ * 複数インスタンスで同時に動かしても同じ通知を二重に送らない。送信はチャネルごとの
+ * 固定サイズのスレッドプールで行い、結果はバッチ単位の一括UPDATEで書き戻す。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDispatcher {
+
+    /** 外部配信が必要なチャネル（IN_APPは作成時に送信済みとなる） */
+    private static final Notification.DeliveryMethod[] CHANNELS = {
+        Notification.DeliveryMethod.EMAIL,
+        Notification.DeliveryMethod.SMS,
+        Notification.DeliveryMethod.PUSH
+    };
+
+    /** エラーメッセージの最大長 */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NotificationRepository notificationRepository;
+    private final EmailService emailService;
+    private final SmsService smsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ParkingMetrics parkingMetrics;
+
+    /** 1回に取り出す最大件数 */
+    @Value("${notification.dispatch.batch-size:100}")
+    private int batchSize;
+
+    /** チャネルごとの同時送信数 */
+    @Value("${notification.dispatch.concurrency:8}")
+    private int concurrency;
+
+    /** 最大試行回数 */
+    @Value("${notification.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    /** 初回再試行までの待機時間（ミリ秒、試行ごとに倍増） */
+    @Value("${notification.dispatch.backoff-ms:2000}")
+    private long backoffMs;
+
+    /** 取り出した通知のリース時間（ミリ秒、期限切れで再取り出し可能になる） */
+    @Value("${notification.dispatch.lease-ms:60000}")
+    private long leaseMs;
+
+    private final Map<Notification.DeliveryMethod, ChannelWorker> workers =
+        new EnumMap<>(Notification.DeliveryMethod.class);
+
+    @PostConstruct
+    public void start() {
+        for (Notification.DeliveryMethod channel : CHANNELS) {
+            workers.put(channel, new ChannelWorker(channel));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.values().forEach(ChannelWorker::shutdown);
+    }
+
+    /**
+     * 全チャネルの配信待ち通知を定期的に処理（再試行分の取りこぼし防止）
+     */
+    @Scheduled(fixedDelayString = "${notification.dispatch.poll-interval-ms:1000}")
+    public void poll() {
+        for (Notification.DeliveryMethod channel : CHANNELS) {
+            requestDispatch(channel);
+        }
+    }
+
+    /**
+     * 指定チャネルの配信を要求
+     * 処理中の場合は現在の処理が終わった後にもう一度取り出しを行う
+     * @param channel 配信方法
+     */
+    public void requestDispatch(Notification.DeliveryMethod channel) {
+        ChannelWorker worker = workers.get(channel);
+        if (worker != null) {
+            worker.request();
+        }
+    }
+
+    /**
+     * チャネルごとの取り出しループと送信プール
+     */
+    private final class ChannelWorker {
+
+        private final Notification.DeliveryMethod channel;
+        private final ExecutorService drainExecutor;
+        private final ExecutorService sendExecutor;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final AtomicBoolean requested = new AtomicBoolean();
+
+        ChannelWorker(Notification.DeliveryMethod channel) {
+            this.channel = channel;
+            String name = "notify-" + channel.name().toLowerCase();
+            this.drainExecutor = Executors.newSingleThreadExecutor(daemon(name + "-drain"));
+            this.sendExecutor = Executors.newFixedThreadPool(concurrency, daemon(name + "-send"));
+        }
+
+        void request() {
+            requested.set(true);
+            if (running.compareAndSet(false, true)) {
+                drainExecutor.execute(this::run);
+            }
+        }
+
+        private void run() {
+            try {
+                while (requested.getAndSet(false)) {
+                    drain();
+                }
+            } catch (Exception e) {
+                log.error("通知の配信処理に失敗: channel={}, error={}", channel, e.getMessage());
+            } finally {
+                running.set(false);
+            }
+            // 終了直前に届いた要求を取りこぼさない
+            if (requested.get() && running.compareAndSet(false, true)) {
+                drainExecutor.execute(this::run);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<OutboundNotification> batch = claimBatch(channel);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                deliver(batch);
+                if (batch.size() < batchSize) {
+                    return;
+                }
+            }
+        }
+
+        private void deliver(List<OutboundNotification> batch) {
+            List<CompletableFuture<String>> results = new ArrayList<>(batch.size());
+            for (OutboundNotification notification : batch) {
+                results.add(notification.recipient() == null
+                    ? null : CompletableFuture.supplyAsync(() -> send(notification), sendExecutor));
+            }
+
+            List<Long> sent = new ArrayList<>();
+            Map<String, List<Long>> retryable = new LinkedHashMap<>();
+            Map<String, List<Long>> permanent = new LinkedHashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                OutboundNotification notification = batch.get(i);
+                if (notification.recipient() == null) {
+                    permanent.computeIfAbsent("配信先が登録されていません", k -> new ArrayList<>()).add(notification.id());
+                    continue;
+                }
+                String error = results.get(i).join();
+                if (error == null) {
+                    sent.add(notification.id());
+                } else {
+                    retryable.computeIfAbsent(error, k -> new ArrayList<>()).add(notification.id());
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (!sent.isEmpty()) {
+                    notificationRepository.markSent(sent, now);
+                }
+                permanent.forEach((error, ids) -> notificationRepository.markFailed(ids, error, now));
+                retryable.forEach((error, ids) ->
+                    notificationRepository.markAttemptFailed(ids, error, maxAttempts, backoffMs, now));
+            });
+            log.debug("通知を配信しました: channel={}, sent={}, failed={}",
+                channel, sent.size(), batch.size() - sent.size());
+        }
+
+        void shutdown() {
+            drainExecutor.shutdownNow();
+            sendExecutor.shutdown();
+            try {
+                sendExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 配信可能な通知をロックして取り出し、試行回数とリース期限を記録する
+     */
+    private List<OutboundNotification> claimBatch(Notification.DeliveryMethod channel) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = notificationRepository.lockDispatchableIds(channel.name(), now, batchSize);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            notificationRepository.markDispatchAttempt(ids, now.plusNanos(leaseMs * 1_000_000));
+            return notificationRepository.findAllWithUserByIdIn(ids).stream()
+                .map(OutboundNotification::from)
+                .toList();
+        });
+    }
+
+    /**
+     * 1件の通知を送信
+     * @return 失敗理由（成功時はnull）
+     */
+    private String send(OutboundNotification notification) {
+        Timer.Sample sample = parkingMetrics.start();
+        try {
+            switch (notification.channel()) {
+                case EMAIL:
+                    emailService.sendEmail(notification.recipient(), notification.title(), notification.message());
+                    break;
+                case SMS:
+                    smsService.sendSms(notification.recipient(), notification.message());
+                    break;
+                case PUSH:
+                    // プッシュ通知の実装（FCM等を使用）
+                    // ここでは簡略化のため実装を省略
+                    log.info("プッシュ通知を送信: userId={}, title={}", notification.recipient(), notification.title());
+                    break;
+                default:
+                    break;
+            }
+            parkingMetrics.recordNotificationDelivery(sample, notification.channel(), ParkingMetrics.SUCCESS);
+            return null;
+        } catch (Exception e) {
+            parkingMetrics.recordNotificationDelivery(sample, notification.channel(), "error");
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 送信に必要な値だけを持つ通知のコピー（トランザクション外で使用）
+     */
+    private record OutboundNotification(Long id, Notification.DeliveryMethod channel,
+                                        String recipient, String title, String message) {
+
+        static OutboundNotification from(Notification notification) {
+            User user = notification.getUser();
+            String recipient = switch (notification.getDeliveryMethod()) {
+                case EMAIL -> user.getEmail();
+                case SMS -> user.getPhoneNumber() != null && !user.getPhoneNumber().isEmpty()
+                    ? user.getPhoneNumber() : null;
+                case PUSH -> String.valueOf(user.getId());
+                default -> null;
+            };
+            return new OutboundNotification(notification.getId(), notification.getDeliveryMethod(),
+                recipient, notification.getTitle(), notification.getMessage());
+        }
+    }
+}
@@ -14,12 +14,15 @@ import java.util.Optional;
 
 /**
  * 通知サービス
- * メール、SMS、プッシュ通知の送信と管理を担当
+ * メール、SMS、プッシュ通知の登録と管理を担当（送信はNotificationDispatcherが行う）
  */
 @Service
 @Transactional
 public class NotificationService {
 
+    /** 一括既読の最大件数 */
+    private static final int MAX_BATCH_SIZE = 500;
+
     @Autowired
     private NotificationRepository notificationRepository;
 
@@ -27,119 +30,68 @@ public class NotificationService {
     private UserRepository userRepository;
 
     @Autowired
-    private EmailService emailService;
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private LiveEventHub liveEventHub;
 
     @Autowired
-    private SmsService smsService;
+    private UnreadNotificationCounter unreadNotificationCounter;
+
+    @Autowired
+    private ParkingMetrics parkingMetrics;
 
     /**
-     * 通知を作成して送信
+     * 通知を作成して配信待ちに登録
+     * 外部チャネルへの送信はコミット後にNotificationDispatcherが非同期で行う
      * @param userId ユーザーID
      * @param type 通知タイプ
+     * @param deliveryMethod 配信方法
      * @param title タイトル
      * @param message メッセージ
      * @param priority 優先度
      * @return 作成された通知
      */
-    public Notification createAndSendNotification(Long userId, Notification.NotificationType type, 
+    public Notification createAndSendNotification(Long userId, Notification.NotificationType type,
+                                               Notification.DeliveryMethod deliveryMethod,
                                                String title, String message, Notification.Priority priority) {
         // ユーザーを検索
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません"));
 
         // 通知を作成
+        LocalDateTime now = LocalDateTime.now();
         Notification notification = new Notification();
         notification.setUser(user);
         notification.setType(type);
+        notification.setDeliveryMethod(deliveryMethod);
         notification.setTitle(title);
         notification.setMessage(message);
         notification.setPriority(priority);
-        notification.setStatus(Notification.Status.PENDING);
-        notification.setCreatedAt(LocalDateTime.now());
-        notification.setUpdatedAt(LocalDateTime.now());
+        notification.setAttempts(0);
+        if (deliveryMethod == Notification.DeliveryMethod.IN_APP) {
+            // アプリ内通知はデータベースに保存するのみ
+            notification.setStatus(Notification.NotificationStatus.SENT);
+            notification.setSentAt(now);
+        } else {
+            notification.setStatus(Notification.NotificationStatus.PENDING);
+            notification.setNextAttemptAt(now);
+        }
 
         // 通知を保存
         Notification savedNotification = notificationRepository.save(notification);
 
-        // 通知を送信
-        sendNotification(savedNotification);
+        // コミット後に配信を要求し、購読中の画面へプッシュする
+        requestDispatchAfterCommit(deliveryMethod);
+        liveEventHub.onNotificationCreated(userId, savedNotification);
+        unreadNotificationCounter.adjust(userId, 1);
+        TransactionCallbacks.afterCommit(() -> parkingMetrics.recordNotificationCreated(deliveryMethod));
 
         return savedNotification;
     }
 
-    /**
-     * 通知を送信
-     * @param notification 通知
-     */
-    private void sendNotification(Notification notification) {
-        try {
-            switch (notification.getType()) {
-                case EMAIL:
-                    sendEmailNotification(notification);
-                    break;
-                case SMS:
-                    sendSmsNotification(notification);
-                    break;
-                case PUSH:
-                    sendPushNotification(notification);
-                    break;
-                case SYSTEM:
-                    // システム通知はデータベースに保存するのみ
-                    notification.setStatus(Notification.Status.SENT);
-                    notification.setSentAt(LocalDateTime.now());
-                    break;
-            }
-            
-            // 送信成功時
-            notification.setStatus(Notification.Status.SENT);
-            notification.setSentAt(LocalDateTime.now());
-            notification.setUpdatedAt(LocalDateTime.now());
-            
-        } catch (Exception e) {
-            // 送信失敗時
-            notification.setStatus(Notification.Status.FAILED);
-            notification.setErrorMessage(e.getMessage());
-            notification.setUpdatedAt(LocalDateTime.now());
-        }
-        
-        notificationRepository.save(notification);
-    }
-
-    /**
-     * メール通知を送信
-     * @param notification 通知
-     */
-    private void sendEmailNotification(Notification notification) {
-        User user = notification.getUser();
-        emailService.sendEmail(
-                user.getEmail(),
-                notification.getTitle(),
-                notification.getMessage()
-        );
-    }
-
-    /**
-     * SMS通知を送信
-     * @param notification 通知
-     */
-    private void sendSmsNotification(Notification notification) {
-        User user = notification.getUser();
-        if (user.getPhoneNumber() != null && !user.getPhoneNumber().isEmpty()) {
-            smsService.sendSms(
-                    user.getPhoneNumber(),
-                    notification.getMessage()
-            );
-        }
-    }
-
-    /**
-     * プッシュ通知を送信
-     * @param notification 通知
-     */
-    private void sendPushNotification(Notification notification) {
-        // プッシュ通知の実装（FCM等を使用）
-        // ここでは簡略化のため実装を省略
-        System.out.println("プッシュ通知を送信: " + notification.getTitle());
+    private void requestDispatchAfterCommit(Notification.DeliveryMethod deliveryMethod) {
+        TransactionCallbacks.afterCommit(() -> notificationDispatcher.requestDispatch(deliveryMethod));
     }
 
     /**
@@ -161,18 +113,57 @@ public class NotificationService {
     }
 
     /**
-     * 通知を既読にする
+     * 未読通知数を取得（カウンターから取得し、通知一覧は読み込まない）
+     * @param userId ユーザーID
+     * @return 未読通知数
+     */
+    @Transactional(readOnly = true)
+    public long getUnreadCount(Long userId) {
+        return unreadNotificationCounter.get(userId);
+    }
+
+    /**
+     * 通知を既読にする（未読の場合のみ条件付きUPDATEで更新し、更新した場合のみ未読数を減らす）
      * @param notificationId 通知ID
      * @return 更新された通知
      */
     public Notification markAsRead(Long notificationId) {
+        int updated = notificationRepository.markReadById(notificationId, LocalDateTime.now());
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("通知が見つかりません"));
 
-        notification.setReadAt(LocalDateTime.now());
-        notification.setUpdatedAt(LocalDateTime.now());
-        
-        return notificationRepository.save(notification);
+        unreadNotificationCounter.adjust(notification.getUser().getId(), -updated);
+        return notification;
+    }
+
+    /**
+     * ユーザーの未読通知をすべて既読にする（1回のUPDATEで更新）
+     * @param userId ユーザーID
+     * @return 既読にした件数
+     */
+    public int markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllReadByUserId(userId, LocalDateTime.now());
+        unreadNotificationCounter.clear(userId);
+        return updated;
+    }
+
+    /**
+     * ユーザーの指定した通知をまとめて既読にする（1回のUPDATEで更新）
+     * @param userId ユーザーID
+     * @param notificationIds 通知IDリスト
+     * @return 既読にした件数（他のユーザーの通知・既読の通知は含まない）
+     */
+    public int markAsRead(Long userId, List<Long> notificationIds) {
+        if (notificationIds.isEmpty()) {
+            return 0;
+        }
+        if (notificationIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Too many notification ids: " + notificationIds.size()
+                    + " (max " + MAX_BATCH_SIZE + ")");
+        }
+        int updated = notificationRepository.markReadByUserIdAndIdIn(userId, notificationIds, LocalDateTime.now());
+        unreadNotificationCounter.adjust(userId, -updated);
+        return updated;
     }
 
     /**
@@ -180,26 +171,37 @@ public class NotificationService {
      * @param notificationId 通知ID
      */
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        notificationRepository.findById(notificationId).ifPresent(notification -> {
+            if (notification.getReadAt() == null) {
+                unreadNotificationCounter.adjust(notification.getUser().getId(), -1);
+            }
+            notificationRepository.delete(notification);
+        });
     }
 
     /**
-     * 通知を再送信
+     * 通知を再送信（配信待ちに戻す）
      * @param notificationId 通知ID
-     * @return 再送信された通知
+     * @return 再送信を登録した通知
      */
     public Notification resendNotification(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("通知が見つかりません"));
 
-        notification.setStatus(Notification.Status.PENDING);
+        if (notification.getDeliveryMethod() == Notification.DeliveryMethod.IN_APP) {
+            return notification;
+        }
+
+        notification.setStatus(Notification.NotificationStatus.PENDING);
+        notification.setAttempts(0);
+        notification.setNextAttemptAt(LocalDateTime.now());
         notification.setErrorMessage(null);
-        notification.setUpdatedAt(LocalDateTime.now());
 
-        // 通知を再送信
-        sendNotification(notification);
+        // コミット後に配信を要求
+        Notification savedNotification = notificationRepository.save(notification);
+        requestDispatchAfterCommit(notification.getDeliveryMethod());
 
-        return notification;
+        return savedNotification;
     }
 
     /**
@@ -211,9 +213,9 @@ public class NotificationService {
     public NotificationStatistics getNotificationStatistics(LocalDateTime startDate, LocalDateTime endDate) {
         long totalNotifications = notificationRepository.countByCreatedAtBetween(startDate, endDate);
         long sentNotifications = notificationRepository.countByStatusAndCreatedAtBetween(
-                Notification.Status.SENT, startDate, endDate);
+                Notification.NotificationStatus.SENT, startDate, endDate);
         long failedNotifications = notificationRepository.countByStatusAndCreatedAtBetween(
-                Notification.Status.FAILED, startDate, endDate);
+                Notification.NotificationStatus.FAILED, startDate, endDate);
 
         return new NotificationStatistics(totalNotifications, sentNotifications, failedNotifications);
     }
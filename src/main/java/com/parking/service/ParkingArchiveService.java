@@ -0,0 +1,222 @@
+package com.parking.service;
+
+import com.parking.dto.ParkingSessionHistoryItem;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.ParkingSpot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 駐車セッション・決済のアーカイブサービス
+ * 保存期間（parking.archive.retention-months）を過ぎた完了・キャンセル済みのセッションと、その決済を
+ * 月単位のレンジパーティションを持つアーカイブテーブル（V11）へ移動する
+ * アーカイブの可変長列は圧縮して格納する（V13、パーティションは toast_tuple_target=128 で作成）
+ *
+ * 移動は1回の文（CTE内の DELETE ... RETURNING と INSERT）で行うため、途中で失敗しても
+ * 稼働中のテーブルとアーカイブの両方に存在する行や、どちらにも存在しない行は生じない。
+ * バッチごとにトランザクションを分け、稼働中のテーブルのロックを短く保つ。
+ * 売上は時間別ロールアップに集計済みのため、アーカイブ後もレポートは変わらない。
+ */
+@Service
+@Slf4j
+public class ParkingArchiveService {
+
+    /** 最短の保存期間（直近30日の統計・ダッシュボードの対象を移動しないため） */
+    private static final int MIN_RETENTION_MONTHS = 2;
+
+    /** アーカイブ検索の最大期間 */
+    private static final Duration MAX_SEARCH_RANGE = Duration.ofDays(366);
+
+    /** アーカイブ検索の最大件数 */
+    private static final int MAX_SEARCH_ROWS = 1000;
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String SESSION_COLUMNS = "id, parking_spot_id, license_plate, entry_time, exit_time, "
+            + "total_amount, status, payment_status, created_at, updated_at, version";
+
+    private static final String PAYMENT_COLUMNS = "id, parking_session_id, amount, payment_method, status, "
+            + "transaction_id, card_last_four, card_brand, receipt_url, failure_reason, processed_at, "
+            + "created_at, updated_at";
+
+    private static final String ARCHIVABLE = "status IN ('COMPLETED', 'CANCELLED') AND entry_time < ?";
+
+    /** 1バッチ分のセッションと決済を移動する（移動したセッション数を返す） */
+    private static final String ARCHIVE_BATCH_SQL =
+            "WITH batch AS ("
+            + "  SELECT id FROM parking_sessions WHERE " + ARCHIVABLE
+            + "  ORDER BY entry_time, id LIMIT ? FOR UPDATE SKIP LOCKED), "
+            + "moved_payments AS ("
+            + "  DELETE FROM payments p USING batch b WHERE p.parking_session_id = b.id RETURNING p.*), "
+            + "archived_payments AS ("
+            + "  INSERT INTO payments_archive (" + PAYMENT_COLUMNS + ") "
+            + "  SELECT " + PAYMENT_COLUMNS + " FROM moved_payments), "
+            + "moved_sessions AS ("
+            + "  DELETE FROM parking_sessions s USING batch b WHERE s.id = b.id RETURNING s.*), "
+            + "archived_sessions AS ("
+            + "  INSERT INTO parking_sessions_archive (" + SESSION_COLUMNS + ") "
+            + "  SELECT " + SESSION_COLUMNS + " FROM moved_sessions RETURNING 1) "
+            + "SELECT COUNT(*) FROM archived_sessions";
+
+    private static final String SEARCH_SQL =
+            "SELECT s.id, s.license_plate, s.parking_spot_id, sp.spot_number, sp.spot_type, s.entry_time, "
+            + "s.exit_time, s.total_amount, s.status, s.payment_status "
+            + "FROM parking_sessions_archive s LEFT JOIN parking_spots sp ON sp.id = s.parking_spot_id "
+            + "WHERE s.license_plate = ? AND s.entry_time >= ? AND s.entry_time < ? "
+            + "ORDER BY s.entry_time DESC, s.id DESC LIMIT ?";
+
+    private static final RowMapper<ParkingSessionHistoryItem> HISTORY_ROW = (rs, rowNum) -> {
+        String spotType = rs.getString("spot_type");
+        String paymentStatus = rs.getString("payment_status");
+        return new ParkingSessionHistoryItem(
+            rs.getLong("id"),
+            rs.getString("license_plate"),
+            rs.getLong("parking_spot_id"),
+            rs.getString("spot_number"),
+            spotType != null ? ParkingSpot.SpotType.valueOf(spotType) : null,
+            toLocalDateTime(rs.getTimestamp("entry_time")),
+            toLocalDateTime(rs.getTimestamp("exit_time")),
+            rs.getBigDecimal("total_amount"),
+            ParkingSession.SessionStatus.valueOf(rs.getString("status")),
+            paymentStatus != null ? ParkingSession.PaymentStatus.valueOf(paymentStatus) : null);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int retentionMonths;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    /** 作成済みのパーティション名 */
+    private final Set<String> knownPartitions = new HashSet<>();
+
+    public ParkingArchiveService(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${parking.archive.enabled:false}") boolean enabled,
+                                 @Value("${parking.archive.retention-months:24}") int retentionMonths,
+                                 @Value("${parking.archive.batch-size:1000}") int batchSize,
+                                 @Value("${parking.archive.max-batches-per-run:100}") int maxBatchesPerRun) {
+        if (retentionMonths < MIN_RETENTION_MONTHS) {
+            throw new IllegalArgumentException("parking.archive.retention-months must be at least "
+                + MIN_RETENTION_MONTHS + ": " + retentionMonths);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.retentionMonths = retentionMonths;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    /**
+     * 定期アーカイブ（parking.archive.enabled=true の場合のみ）
+     */
+    @Scheduled(cron = "${parking.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * 保存期間を過ぎたセッションと決済をアーカイブへ移動
+     * @return 移動したセッション数
+     */
+    public synchronized long archive() {
+        // 月初で区切り、セッションのパーティションが月の途中で増えないようにする
+        LocalDateTime cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1).atStartOfDay();
+        Timestamp cutoffParam = Timestamp.valueOf(cutoff);
+        ensurePartitions(cutoffParam, cutoff);
+
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Long moved = transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject(ARCHIVE_BATCH_SQL, Long.class, cutoffParam, batchSize));
+            long count = moved != null ? moved : 0;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("駐車セッションをアーカイブしました: sessions={}, cutoff={}", total, cutoff);
+        }
+        return total;
+    }
+
+    /**
+     * アーカイブ済みのセッション履歴を検索（入庫日時の範囲で対象パーティションを絞り込む）
+     * @param licensePlate ナンバープレート
+     * @param from 入庫日時の下限（含む）
+     * @param to 入庫日時の上限（含まない）
+     * @return セッション履歴（新しい順、最大1000件）
+     * @throws IllegalArgumentException 期間が不正、または1年を超える場合
+     */
+    public List<ParkingSessionHistoryItem> findArchivedHistory(String licensePlate, LocalDateTime from,
+                                                               LocalDateTime to) {
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(MAX_SEARCH_RANGE) > 0) {
+            throw new IllegalArgumentException("Archive search range must be positive and at most 366 days");
+        }
+        return jdbcTemplate.query(SEARCH_SQL, HISTORY_ROW,
+            licensePlate, Timestamp.valueOf(from), Timestamp.valueOf(to), MAX_SEARCH_ROWS);
+    }
+
+    /**
+     * 移動対象の行が入る月のパーティションを作成
+     * 決済は作成日時で分割されるため、対象セッションの最古の決済から当月まで作成する
+     */
+    private void ensurePartitions(Timestamp cutoffParam, LocalDateTime cutoff) {
+        LocalDateTime oldestSession = jdbcTemplate.queryForObject(
+            "SELECT MIN(entry_time) FROM parking_sessions WHERE " + ARCHIVABLE, LocalDateTime.class, cutoffParam);
+        if (oldestSession == null) {
+            return;
+        }
+        LocalDateTime oldestPayment = jdbcTemplate.queryForObject(
+            "SELECT MIN(p.created_at) FROM payments p JOIN parking_sessions s ON s.id = p.parking_session_id "
+            + "WHERE s.status IN ('COMPLETED', 'CANCELLED') AND s.entry_time < ?", LocalDateTime.class, cutoffParam);
+
+        for (YearMonth month = YearMonth.from(oldestSession); month.isBefore(YearMonth.from(cutoff));
+             month = month.plusMonths(1)) {
+            ensureMonthlyPartition("parking_sessions_archive", month);
+        }
+        if (oldestPayment != null) {
+            for (YearMonth month = YearMonth.from(oldestPayment); !month.isAfter(YearMonth.now());
+                 month = month.plusMonths(1)) {
+                ensureMonthlyPartition("payments_archive", month);
+            }
+        }
+    }
+
+    private void ensureMonthlyPartition(String parent, YearMonth month) {
+        String partition = parent + "_" + month.format(PARTITION_SUFFIX);
+        if (knownPartitions.contains(partition)) {
+            return;
+        }
+        LocalDate start = month.atDay(1);
+        LocalDate end = month.plusMonths(1).atDay(1);
+        // 行が短いため、既定（約2KB）より小さい行でも可変長列の圧縮を試みる（圧縮方式は親テーブルから継承）
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + parent
+            + " FOR VALUES FROM ('" + start + "') TO ('" + end + "') WITH (toast_tuple_target = 128)");
+        knownPartitions.add(partition);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,129 @@
+package com.parking.service;
+
+import com.parking.entity.Notification;
+import com.parking.entity.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 業務処理のメトリクス（Micrometer）
+ * 入出庫・決済・通知の処理時間と件数を記録し、/actuator/prometheus で公開する
+ *
+ * タグは結果（outcome）・決済方法・配信チャネルの固定値のみとし、ナンバープレート等の
+ * 値はタグに含めない（系列数が増え続けないようにするため）。登録済みのメーターは
+ * キーごとに保持し、ホットパスでのメーターIDの生成を避ける。
+ */
+@Component
+public class ParkingMetrics {
+
+    /** 成功 */
+    public static final String SUCCESS = "success";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ParkingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 計測を開始
+     * @return 計測中のサンプル
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * 入庫（セッション開始）の処理時間を記録
+     * @param sample 計測中のサンプル
+     * @param outcome 結果
+     */
+    public void recordSessionStart(Timer.Sample sample, String outcome) {
+        sample.stop(timer("parking.session.start", "入庫処理の時間", "outcome", outcome));
+    }
+
+    /**
+     * 出庫（セッション終了）の処理時間を記録
+     * @param sample 計測中のサンプル
+     * @param outcome 結果
+     */
+    public void recordSessionEnd(Timer.Sample sample, String outcome) {
+        sample.stop(timer("parking.session.end", "出庫処理の時間", "outcome", outcome));
+    }
+
+    /**
+     * 決済の処理時間を決済方法別に記録
+     * @param sample 計測中のサンプル
+     * @param method 決済方法
+     * @param outcome 結果（success・declined・エラー種別）
+     */
+    public void recordPayment(Timer.Sample sample, Payment.PaymentMethod method, String outcome) {
+        sample.stop(timer("parking.payment.process", "決済処理の時間",
+            "method", method.name(), "outcome", outcome));
+    }
+
+    /**
+     * 通知の登録件数をチャネル別に記録
+     * @param channel 配信方法
+     */
+    public void recordNotificationCreated(Notification.DeliveryMethod channel) {
+        counter("parking.notification.created", "登録された通知の件数", "channel", channel.name()).increment();
+    }
+
+    /**
+     * 外部プロバイダーへの通知の送信時間をチャネル別に記録
+     * @param sample 計測中のサンプル
+     * @param channel 配信方法
+     * @param outcome 結果
+     */
+    public void recordNotificationDelivery(Timer.Sample sample, Notification.DeliveryMethod channel,
+                                           String outcome) {
+        sample.stop(timer("parking.notification.delivery", "通知の送信時間",
+            "channel", channel.name(), "outcome", outcome));
+    }
+
+    /**
+     * 例外を結果タグの値に変換
+     * @param error 発生した例外
+     * @return 結果タグの値
+     */
+    public static String outcomeOf(Throwable error) {
+        if (error instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        if (error instanceof IllegalStateException || error instanceof OptimisticLockingFailureException) {
+            return "conflict";
+        }
+        if (error instanceof PaymentGatewayUnavailableException) {
+            return "unavailable";
+        }
+        return "error";
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return timers.computeIfAbsent(key(name, tags), key -> Timer.builder(name)
+            .description(description)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+    }
+
+    private Counter counter(String name, String description, String... tags) {
+        return counters.computeIfAbsent(key(name, tags), key -> Counter.builder(name)
+            .description(description)
+            .tags(tags)
+            .register(meterRegistry));
+    }
+
+    private static String key(String name, String... tags) {
+        return name + '|' + String.join("|", tags);
+    }
+}
@@ -1,19 +1,36 @@
 package com.parking.service;
 
+import com.parking.dto.FeeQuote;
+import com.parking.dto.ParkingSessionHistoryItem;
 import com.parking.entity.ParkingSpot;
 import com.parking.entity.ParkingSession;
 import com.parking.repository.ParkingSpotRepository;
 import com.parking.repository.ParkingSessionRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 駐車場管理サービス
@@ -27,6 +44,17 @@ public class ParkingService {
     
     private final ParkingSpotRepository parkingSpotRepository;
     private final ParkingSessionRepository parkingSessionRepository;
+    private final SpotOccupancyIndex spotOccupancyIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardSnapshot dashboardSnapshot;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final TariffEngine tariffEngine;
+    private final LiveEventHub liveEventHub;
+    private final ParkingMetrics parkingMetrics;
+    
+    /** スペット確保が競合した場合の最大再試行回数 */
+    @Value("${parking.claim.max-retries:3}")
+    private int maxClaimRetries;
     
     // ==================== 駐車場スペット管理メソッド ====================
     
@@ -61,6 +89,9 @@ public class ParkingService {
      * @return 利用可能なスペットのリスト
      */
     public List<ParkingSpot> getAvailableSpots() {
+        if (spotOccupancyIndex.isReady()) {
+            return spotOccupancyIndex.getAvailableSpots();
+        }
         return parkingSpotRepository.findByStatus(ParkingSpot.SpotStatus.AVAILABLE);
     }
     
@@ -70,6 +101,9 @@ public class ParkingService {
      * @return 利用可能なスペットのリスト
      */
     public List<ParkingSpot> getAvailableSpotsByType(ParkingSpot.SpotType spotType) {
+        if (spotOccupancyIndex.isReady()) {
+            return spotOccupancyIndex.getAvailableSpots(spotType);
+        }
         return parkingSpotRepository.findByStatusAndSpotType(ParkingSpot.SpotStatus.AVAILABLE, spotType);
     }
     
@@ -83,7 +117,10 @@ public class ParkingService {
         if (parkingSpotRepository.existsBySpotNumber(parkingSpot.getSpotNumber())) {
             throw new IllegalArgumentException("Parking spot number already exists: " + parkingSpot.getSpotNumber());
         }
-        return parkingSpotRepository.save(parkingSpot);
+        ParkingSpot savedSpot = parkingSpotRepository.save(parkingSpot);
+        spotOccupancyIndex.refresh(savedSpot);
+        liveEventHub.onSpotChanged(savedSpot);
+        return savedSpot;
     }
     
     /**
@@ -103,7 +140,10 @@ public class ParkingService {
         parkingSpot.setFloorLevel(parkingSpotDetails.getFloorLevel());
         parkingSpot.setHourlyRate(parkingSpotDetails.getHourlyRate());
         
-        return parkingSpotRepository.save(parkingSpot);
+        ParkingSpot savedSpot = parkingSpotRepository.save(parkingSpot);
+        spotOccupancyIndex.refresh(savedSpot);
+        liveEventHub.onSpotChanged(savedSpot);
+        return savedSpot;
     }
     
     /**
@@ -116,32 +156,108 @@ public class ParkingService {
             throw new IllegalArgumentException("Parking spot not found with id: " + id);
         }
         parkingSpotRepository.deleteById(id);
+        spotOccupancyIndex.evict(id);
+        liveEventHub.onSpotRemoved(id);
     }
     
     // ==================== 駐車場セッション管理メソッド ====================
     
     /**
      * 駐車場セッションを開始
+     * 指定スペットを他の車両に先に確保された場合（楽観的ロックの競合を含む）は、
+     * 同じタイプの空きスペットを選び直して parking.claim.max-retries 回まで自動的に再試行する
      * @param spotId スペットID
      * @param licensePlate ナンバープレート
      * @return 作成されたセッション
      * @throws IllegalArgumentException スペットが見つからない場合
      * @throws IllegalStateException スペットが利用不可、または車両が既に駐車中の場合
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ParkingSession startParkingSession(Long spotId, String licensePlate) {
-        ParkingSpot parkingSpot = parkingSpotRepository.findById(spotId)
-            .orElseThrow(() -> new IllegalArgumentException("Parking spot not found with id: " + spotId));
+        Timer.Sample sample = parkingMetrics.start();
+        try {
+            ParkingSession session = claimSpotWithRetry(spotId, licensePlate);
+            parkingMetrics.recordSessionStart(sample, ParkingMetrics.SUCCESS);
+            return session;
+        } catch (RuntimeException e) {
+            parkingMetrics.recordSessionStart(sample, ParkingMetrics.outcomeOf(e));
+            throw e;
+        }
+    }
+    
+    /**
+     * 競合時に空きスペットを選び直しながらセッションを開始
+     */
+    private ParkingSession claimSpotWithRetry(Long spotId, String licensePlate) {
+        Long targetSpotId = spotId;
+        ParkingSpot.SpotType spotType = null;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Long claimSpotId = targetSpotId;
+                ParkingSpot.SpotType claimSpotType = spotType;
+                return transactionTemplate.execute(
+                    status -> claimSpotAndStartSession(claimSpotId, claimSpotType, licensePlate));
+            } catch (SpotContentionException | OptimisticLockingFailureException e) {
+                if (attempt >= maxClaimRetries) {
+                    throw new IllegalStateException("Parking spot is not available after " + (attempt + 1)
+                        + " attempts: " + spotId);
+                }
+                if (spotType == null) {
+                    spotType = e instanceof SpotContentionException contention
+                        ? contention.spotType
+                        : resolveSpotType(spotId);
+                }
+                log.debug("Spot claim conflict for {} (attempt {}), retrying with another {} spot",
+                    licensePlate, attempt + 1, spotType);
+                targetSpotId = null;
+            }
+        }
+    }
+    
+    /**
+     * スペットを確保してセッションを作成（1回分の試行、トランザクション内で実行）
+     * @param spotId スペットID（nullの場合は指定タイプの空きスペットを選ぶ）
+     * @param spotType 選び直す場合のスペットタイプ
+     * @param licensePlate ナンバープレート
+     * @return 作成されたセッション
+     * @throws SpotContentionException 指定スペットが他の車両に確保された場合
+     */
+    private ParkingSession claimSpotAndStartSession(Long spotId, ParkingSpot.SpotType spotType, String licensePlate) {
+        // 車両が既に駐車中かチェック（レジストリ上で予約し、ロールバック時は自動的に取り消される）
+        if (activeSessionRegistry.isReady()) {
+            if (!activeSessionRegistry.tryReserve(licensePlate)) {
+                throw new IllegalStateException("Vehicle is already parked: " + licensePlate);
+            }
+        } else if (parkingSessionRepository.findActiveSessionByLicensePlate(licensePlate).isPresent()) {
+            throw new IllegalStateException("Vehicle is already parked: " + licensePlate);
+        }
+        
+        if (spotId == null) {
+            spotId = claimAnySpot(spotType);
+        } else if (spotOccupancyIndex.isReady() && !spotOccupancyIndex.tryClaim(spotId)) {
+            // インデックス上でスペットを確保（ロールバック時は自動的に解放される）
+            Long requestedSpotId = spotId;
+            ParkingSpot current = spotOccupancyIndex.getSpot(spotId)
+                .orElseThrow(() -> new IllegalArgumentException("Parking spot not found with id: " + requestedSpotId));
+            if (current.getStatus() == ParkingSpot.SpotStatus.OCCUPIED) {
+                throw new SpotContentionException(current.getSpotType());
+            }
+            throw new IllegalStateException("Parking spot is not available: " + current.getSpotNumber());
+        }
+        
+        Long claimedSpotId = spotId;
+        ParkingSpot parkingSpot = parkingSpotRepository.findById(claimedSpotId)
+            .orElseThrow(() -> new IllegalArgumentException("Parking spot not found with id: " + claimedSpotId));
         
         if (parkingSpot.getStatus() != ParkingSpot.SpotStatus.AVAILABLE) {
+            // インデックスがDBより古い場合は読み込んだ状態で補正する
+            spotOccupancyIndex.resync(parkingSpot);
+            if (parkingSpot.getStatus() == ParkingSpot.SpotStatus.OCCUPIED) {
+                throw new SpotContentionException(parkingSpot.getSpotType());
+            }
             throw new IllegalStateException("Parking spot is not available: " + parkingSpot.getSpotNumber());
         }
         
-        // 車両が既に駐車中かチェック
-        Optional<ParkingSession> existingSession = parkingSessionRepository
-            .findActiveSessionByLicensePlate(licensePlate);
-        if (existingSession.isPresent()) {
-            throw new IllegalStateException("Vehicle is already parked: " + licensePlate);
-        }
         
         // 新しい駐車場セッションを作成
         ParkingSession session = new ParkingSession();
@@ -151,11 +267,58 @@ public class ParkingService {
         session.setStatus(ParkingSession.SessionStatus.ACTIVE);
         session.setPaymentStatus(ParkingSession.PaymentStatus.PENDING);
         
-        // 駐車場スペットの状態を更新
+        // 駐車場スペットの状態を更新（バージョン不一致の場合はここで競合が検出される）
         parkingSpot.setStatus(ParkingSpot.SpotStatus.OCCUPIED);
-        parkingSpotRepository.save(parkingSpot);
+        parkingSpotRepository.saveAndFlush(parkingSpot);
+        liveEventHub.onSpotChanged(parkingSpot);
         
-        return parkingSessionRepository.save(session);
+        ParkingSession savedSession;
+        try {
+            savedSession = parkingSessionRepository.saveAndFlush(session);
+        } catch (DataIntegrityViolationException e) {
+            String constraint = violatedConstraint(e);
+            if (ParkingSession.ACTIVE_PLATE_UNIQUE_INDEX.equalsIgnoreCase(constraint)) {
+                // 他のインスタンスで同じ車両が先に入庫した場合
+                throw new IllegalStateException("Vehicle is already parked: " + licensePlate);
+            }
+            if (ParkingSession.ACTIVE_SPOT_UNIQUE_INDEX.equalsIgnoreCase(constraint)) {
+                // スペットの状態がDBと食い違っていた場合は別のスペットで再試行する
+                throw new SpotContentionException(parkingSpot.getSpotType());
+            }
+            throw e;
+        }
+        activeSessionRegistry.onSessionStarted(savedSession);
+        dashboardSnapshot.onSessionStarted();
+        return savedSession;
+    }
+    
+    /**
+     * 指定タイプの空きスペットを1件選んで確保
+     * @param spotType スペットタイプ
+     * @return 確保したスペットID
+     * @throws IllegalStateException 空きスペットがない場合
+     */
+    private Long claimAnySpot(ParkingSpot.SpotType spotType) {
+        if (spotOccupancyIndex.isReady()) {
+            return spotOccupancyIndex.claimAny(spotType)
+                .orElseThrow(() -> new IllegalStateException("No available parking spot of type: " + spotType));
+        }
+        return parkingSpotRepository.findByStatusAndSpotType(ParkingSpot.SpotStatus.AVAILABLE, spotType).stream()
+            .findFirst()
+            .map(ParkingSpot::getId)
+            .orElseThrow(() -> new IllegalStateException("No available parking spot of type: " + spotType));
+    }
+    
+    /**
+     * スペットタイプを取得（インデックス優先）
+     * @param spotId スペットID
+     * @return スペットタイプ
+     */
+    private ParkingSpot.SpotType resolveSpotType(Long spotId) {
+        return spotOccupancyIndex.getSpot(spotId)
+            .or(() -> parkingSpotRepository.findById(spotId))
+            .map(ParkingSpot::getSpotType)
+            .orElseThrow(() -> new IllegalArgumentException("Parking spot not found with id: " + spotId));
     }
     
     /**
@@ -166,6 +329,23 @@ public class ParkingService {
      * @throws IllegalStateException セッションがアクティブでない場合
      */
     public ParkingSession endParkingSession(Long sessionId) {
+        Timer.Sample sample = parkingMetrics.start();
+        try {
+            ParkingSession session = closeSession(sessionId);
+            // コミットまでを処理時間に含める
+            TransactionCallbacks.afterCommit(() -> parkingMetrics.recordSessionEnd(sample, ParkingMetrics.SUCCESS));
+            TransactionCallbacks.afterRollback(() -> parkingMetrics.recordSessionEnd(sample, "rolled_back"));
+            return session;
+        } catch (RuntimeException e) {
+            parkingMetrics.recordSessionEnd(sample, ParkingMetrics.outcomeOf(e));
+            throw e;
+        }
+    }
+    
+    /**
+     * セッションを終了してスペットを解放（トランザクション内で実行）
+     */
+    private ParkingSession closeSession(Long sessionId) {
         ParkingSession session = parkingSessionRepository.findById(sessionId)
             .orElseThrow(() -> new IllegalArgumentException("Parking session not found with id: " + sessionId));
         
@@ -181,8 +361,13 @@ public class ParkingService {
         ParkingSpot parkingSpot = session.getParkingSpot();
         parkingSpot.setStatus(ParkingSpot.SpotStatus.AVAILABLE);
         parkingSpotRepository.save(parkingSpot);
+        spotOccupancyIndex.release(parkingSpot.getId());
+        liveEventHub.onSpotChanged(parkingSpot);
         
-        return parkingSessionRepository.save(session);
+        ParkingSession savedSession = parkingSessionRepository.save(session);
+        activeSessionRegistry.onSessionEnded(savedSession);
+        dashboardSnapshot.onSessionEnded();
+        return savedSession;
     }
     
     /**
@@ -192,10 +377,12 @@ public class ParkingService {
      * @throws IllegalArgumentException アクティブなセッションが見つからない場合
      */
     public ParkingSession endParkingSessionByLicensePlate(String licensePlate) {
-        ParkingSession session = parkingSessionRepository.findActiveSessionByLicensePlate(licensePlate)
-            .orElseThrow(() -> new IllegalArgumentException("No active parking session found for: " + licensePlate));
+        Optional<Long> sessionId = activeSessionRegistry.isReady()
+            ? activeSessionRegistry.findSessionId(licensePlate)
+            : parkingSessionRepository.findActiveSessionByLicensePlate(licensePlate).map(ParkingSession::getId);
         
-        return endParkingSession(session.getId());
+        return endParkingSession(sessionId
+            .orElseThrow(() -> new IllegalArgumentException("No active parking session found for: " + licensePlate)));
     }
     
     /**
@@ -214,12 +401,56 @@ public class ParkingService {
     }
     
     /**
-     * ナンバープレートでセッション履歴を取得
+     * ナンバープレートでセッション履歴をページ単位で取得（新しい順）
+     * (入庫時刻, セッションID) のカーソルで次ページを取得するため、件数が多くても読み飛ばしが発生しない
      * @param licensePlate ナンバープレート
-     * @return セッション履歴のリスト
+     * @param cursor 前ページの次ページカーソル（先頭ページの場合はnull）
+     * @param size 1ページの件数
+     * @return ページ（content, size, nextCursor）
      */
-    public List<ParkingSession> getParkingSessionsByLicensePlate(String licensePlate) {
-        return parkingSessionRepository.findByLicensePlate(licensePlate);
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSessionHistoryPage(String licensePlate, String cursor, int size) {
+        // 1件多く取得して次ページの有無を判定する
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ParkingSessionHistoryItem> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = parkingSessionRepository.findHistoryByLicensePlate(licensePlate, limit);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            rows = parkingSessionRepository.findHistoryByLicensePlateAfter(
+                licensePlate, position.time(), position.id(), limit);
+        }
+        
+        boolean hasNext = rows.size() > size;
+        List<ParkingSessionHistoryItem> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            ParkingSessionHistoryItem last = content.get(size - 1);
+            nextCursor = new HistoryCursor(last.getEntryTime(), last.getSessionId()).encode();
+        }
+        Map<String, Object> page = new HashMap<>();
+        page.put("content", content);
+        page.put("size", content.size());
+        page.put("nextCursor", nextCursor);
+        return page;
+    }
+    
+    /**
+     * ナンバープレートのセッション履歴をすべて1行ずつ出力（新しい順、一括エクスポート用）
+     * @param licensePlate ナンバープレート
+     * @param sink 1行ごとの出力先
+     * @return 出力件数
+     */
+    @Transactional(readOnly = true)
+    public long exportSessionHistory(String licensePlate, Consumer<ParkingSessionHistoryItem> sink) {
+        long count = 0;
+        try (Stream<ParkingSessionHistoryItem> rows = parkingSessionRepository.streamHistoryByLicensePlate(licensePlate)) {
+            for (ParkingSessionHistoryItem row : (Iterable<ParkingSessionHistoryItem>) rows::iterator) {
+                sink.accept(row);
+                count++;
+            }
+        }
+        return count;
     }
     
     /**
@@ -227,6 +458,10 @@ public class ParkingService {
      * @return アクティブなセッションのリスト
      */
     public List<ParkingSession> getActiveParkingSessions() {
+        // 駐車中の車両がない場合はDBに問い合わせない
+        if (activeSessionRegistry.isReady() && activeSessionRegistry.size() == 0) {
+            return List.of();
+        }
         return parkingSessionRepository.findByStatus(ParkingSession.SessionStatus.ACTIVE);
     }
     
@@ -234,6 +469,7 @@ public class ParkingService {
     
     /**
      * 駐車場料金を計算
+     * 料金ルールはスペットタイプごとに料金計算エンジンが適用する（parking.tariff.*）
      * @param session 駐車場セッション
      * @return 計算された料金
      * @throws IllegalArgumentException 出庫時刻が設定されていない場合
@@ -243,22 +479,64 @@ public class ParkingService {
             throw new IllegalArgumentException("Exit time is not set for session: " + session.getId());
         }
         
-        Duration duration = Duration.between(session.getEntryTime(), session.getExitTime());
-        long hours = duration.toHours();
-        long minutes = duration.toMinutes() % 60;
-        
-        // 分がある場合は1時間に切り上げ
-        if (minutes > 0) {
-            hours++;
+        ParkingSpot spot = session.getParkingSpot();
+        return calculateFee(spot.getSpotType(), spot.getHourlyRate(), session.getEntryTime(), session.getExitTime());
+    }
+    
+    private BigDecimal calculateFee(ParkingSpot.SpotType spotType, Double hourlyRate,
+                                    LocalDateTime entryTime, LocalDateTime exitTime) {
+        return tariffEngine.calculateFee(spotType, hourlyRate, entryTime, exitTime);
+    }
+    
+    /**
+     * アクティブなセッションの現在料金を一括で見積もる（セッションは変更しない）
+     * ナンバープレートはアクティブセッションレジストリでセッションIDに変換し、1回のクエリで読み込む
+     * @param sessionIds セッションID
+     * @param licensePlates ナンバープレート
+     * @return 見積もり（quotedAt, quotes, missingSessionIds, missingLicensePlates）
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> quoteParkingFees(List<Long> sessionIds, List<String> licensePlates) {
+        Set<Long> ids = new LinkedHashSet<>(sessionIds);
+        Map<Long, String> platesBySessionId = new HashMap<>();
+        List<String> unresolvedPlates = new ArrayList<>();
+        for (String licensePlate : licensePlates) {
+            Optional<Long> sessionId = activeSessionRegistry.isReady()
+                ? activeSessionRegistry.findSessionId(licensePlate)
+                : Optional.empty();
+            if (sessionId.isPresent()) {
+                ids.add(sessionId.get());
+                platesBySessionId.put(sessionId.get(), licensePlate);
+            } else if (!activeSessionRegistry.isReady()) {
+                unresolvedPlates.add(licensePlate);
+            }
         }
         
-        // 最低1時間の料金
-        if (hours == 0) {
-            hours = 1;
+        List<FeeQuote> quotes = ids.isEmpty() && unresolvedPlates.isEmpty()
+            ? List.of()
+            : parkingSessionRepository.findActiveFeeQuotes(ids, unresolvedPlates);
+        
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> foundIds = new HashSet<>();
+        Set<String> foundPlates = new HashSet<>();
+        for (FeeQuote quote : quotes) {
+            quote.setDurationMinutes(Duration.between(quote.getEntryTime(), now).toMinutes());
+            quote.setAmount(calculateFee(quote.getSpotType(), quote.getHourlyRate(), quote.getEntryTime(), now));
+            foundIds.add(quote.getSessionId());
+            foundPlates.add(quote.getLicensePlate());
+            String requestedPlate = platesBySessionId.get(quote.getSessionId());
+            if (requestedPlate != null) {
+                foundPlates.add(requestedPlate);
+            }
         }
         
-        BigDecimal hourlyRate = BigDecimal.valueOf(session.getParkingSpot().getHourlyRate());
-        return hourlyRate.multiply(BigDecimal.valueOf(hours)).setScale(2, RoundingMode.HALF_UP);
+        Map<String, Object> result = new HashMap<>();
+        result.put("quotedAt", now);
+        result.put("quotes", quotes);
+        result.put("missingSessionIds", sessionIds.stream().filter(id -> !foundIds.contains(id)).distinct().toList());
+        result.put("missingLicensePlates",
+            licensePlates.stream().filter(plate -> !foundPlates.contains(plate)).distinct().toList());
+        return result;
     }
     
     /**
@@ -266,6 +544,9 @@ public class ParkingService {
      * @return 利用可能なスペット数
      */
     public long getAvailableSpotsCount() {
+        if (spotOccupancyIndex.isReady()) {
+            return spotOccupancyIndex.countByStatus(ParkingSpot.SpotStatus.AVAILABLE);
+        }
         return parkingSpotRepository.countByStatus(ParkingSpot.SpotStatus.AVAILABLE);
     }
     
@@ -274,14 +555,52 @@ public class ParkingService {
      * @return 使用中のスペット数
      */
     public long getOccupiedSpotsCount() {
+        if (spotOccupancyIndex.isReady()) {
+            return spotOccupancyIndex.countByStatus(ParkingSpot.SpotStatus.OCCUPIED);
+        }
         return parkingSpotRepository.countByStatus(ParkingSpot.SpotStatus.OCCUPIED);
     }
     
+    /**
+     * 階層別の利用可能なスペット数を取得
+     * @return 階層レベル → 利用可能スペット数
+     */
+    public Map<Integer, Long> getAvailableSpotsCountByFloor() {
+        return spotOccupancyIndex.getAvailableCountByFloor();
+    }
+    
     /**
      * アクティブなセッション数を取得
      * @return アクティブなセッション数
      */
     public long getActiveSessionsCount() {
-        return parkingSessionRepository.countActiveSessions();
+        return dashboardSnapshot.getActiveSessions();
+    }
+    
+    /**
+     * 一意制約違反の原因となった制約名を取得
+     * @param e データ整合性違反
+     * @return 制約名（特定できない場合はnull）
+     */
+    private static String violatedConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 指定スペットが他の車両に先に確保されたことを表す例外
+     * 同じタイプの別スペットで再試行するために使用する
+     */
+    private static class SpotContentionException extends RuntimeException {
+        private final ParkingSpot.SpotType spotType;
+        
+        SpotContentionException(ParkingSpot.SpotType spotType) {
+            super("Parking spot was claimed concurrently", null, false, false);
+            this.spotType = spotType;
+        }
     }
-} 
\ No newline at end of file
+}
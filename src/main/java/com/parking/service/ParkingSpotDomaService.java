@@ -1,13 +1,23 @@
 package com.parking.service;
 
 import com.parking.dao.ParkingSpotDao;
+import com.parking.dto.ParkingSpotBulkCreateRequest;
 import com.parking.entity.ParkingSpotDoma;
+import org.seasar.doma.jdbc.SelectOptions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -18,9 +28,15 @@ import java.util.stream.Collectors;
 @Transactional
 public class ParkingSpotDomaService {
     
+    /** IN句1回あたりの最大件数 */
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+    
     @Autowired
     private ParkingSpotDao parkingSpotDao;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * すべての駐車場スペットを取得
      * @return 駐車場スペットのリスト
@@ -43,9 +59,7 @@ public class ParkingSpotDomaService {
      * @return 利用可能なスペットのリスト
      */
     public List<ParkingSpotDoma> getAvailableSpots() {
-        return parkingSpotDao.selectAll().stream()
-            .filter(spot -> spot.getStatus() == ParkingSpotDoma.SpotStatus.AVAILABLE)
-            .collect(Collectors.toList());
+        return parkingSpotDao.selectByStatus(ParkingSpotDoma.SpotStatus.AVAILABLE, SelectOptions.get());
     }
     
     /**
@@ -54,9 +68,7 @@ public class ParkingSpotDomaService {
      * @return 指定状態のスペットリスト
      */
     public List<ParkingSpotDoma> getSpotsByStatus(ParkingSpotDoma.SpotStatus status) {
-        return parkingSpotDao.selectAll().stream()
-            .filter(spot -> spot.getStatus() == status)
-            .collect(Collectors.toList());
+        return parkingSpotDao.selectByStatus(status, SelectOptions.get());
     }
     
     /**
@@ -65,9 +77,61 @@ public class ParkingSpotDomaService {
      * @return 指定タイプのスペットリスト
      */
     public List<ParkingSpotDoma> getSpotsByType(ParkingSpotDoma.SpotType spotType) {
-        return parkingSpotDao.selectAll().stream()
-            .filter(spot -> spot.getSpotType() == spotType)
-            .collect(Collectors.toList());
+        return parkingSpotDao.selectByType(spotType, SelectOptions.get());
+    }
+    
+    /**
+     * 状態・タイプで駐車場スペットをページ単位で取得
+     * @param status スペット状態（nullの場合は条件なし）
+     * @param spotType スペットタイプ（nullの場合は条件なし）
+     * @param page ページ番号（0始まり）
+     * @param size 1ページの件数
+     * @return ページ（content, page, size, totalElements, totalPages）
+     */
+    public Map<String, Object> getSpotsPage(ParkingSpotDoma.SpotStatus status,
+                                            ParkingSpotDoma.SpotType spotType,
+                                            int page, int size) {
+        SelectOptions options = SelectOptions.get().offset(page * size).limit(size).count();
+        List<ParkingSpotDoma> content;
+        if (status != null && spotType != null) {
+            content = parkingSpotDao.selectByStatusAndType(status, spotType, options);
+        } else if (status != null) {
+            content = parkingSpotDao.selectByStatus(status, options);
+        } else if (spotType != null) {
+            content = parkingSpotDao.selectByType(spotType, options);
+        } else {
+            throw new IllegalArgumentException("Status or spot type is required");
+        }
+        
+        long total = options.getCount();
+        Map<String, Object> result = new HashMap<>();
+        result.put("content", content);
+        result.put("page", page);
+        result.put("size", size);
+        result.put("totalElements", total);
+        result.put("totalPages", (total + size - 1) / size);
+        return result;
+    }
+    
+    /**
+     * 状態ごとの駐車場スペット数を取得
+     * @param status スペット状態
+     * @return スペット数
+     */
+    public long countSpotsByStatus(ParkingSpotDoma.SpotStatus status) {
+        return parkingSpotDao.countByStatus(status);
+    }
+    
+    /**
+     * 状態ごとの階層別スペット数を取得
+     * スペットはストリームで1行ずつ処理し、全件をリストに読み込まない
+     * @param status スペット状態
+     * @return 階層レベル → スペット数（階層順）
+     */
+    public Map<Integer, Long> countSpotsByFloor(ParkingSpotDoma.SpotStatus status) {
+        return parkingSpotDao.streamByStatus(status, spots -> spots
+            .filter(spot -> spot.getFloorLevel() != null)
+            .collect(Collectors.groupingBy(ParkingSpotDoma::getFloorLevel, TreeMap::new, Collectors.counting())));
     }
     
     /**
@@ -93,6 +157,7 @@ public class ParkingSpotDomaService {
         parkingSpot.setUpdatedAt(now);
         
         parkingSpotDao.insert(parkingSpot);
+        eventPublisher.publishEvent(new SpotsChangedExternallyEvent(List.of(parkingSpot.getId())));
         return parkingSpot;
     }
     
@@ -111,7 +176,9 @@ public class ParkingSpotDomaService {
         existingSpot.setStatus(status);
         existingSpot.setUpdatedAt(LocalDateTime.now());
         
-        return parkingSpotDao.update(existingSpot) > 0;
+        boolean updated = parkingSpotDao.update(existingSpot) > 0;
+        eventPublisher.publishEvent(new SpotsChangedExternallyEvent(List.of(id)));
+        return updated;
     }
     
     /**
@@ -125,6 +192,134 @@ public class ParkingSpotDomaService {
             return false;
         }
         
-        return parkingSpotDao.delete(existingSpot) > 0;
+        boolean deleted = parkingSpotDao.delete(existingSpot) > 0;
+        eventPublisher.publishEvent(new SpotsChangedExternallyEvent(List.of(id)));
+        return deleted;
+    }
+    
+    // ==================== 一括処理 ====================
+    
+    /**
+     * 駐車場スペットを一括作成
+     * スペット番号の重複は1回の検索でまとめて確認し、doma.batch.size件ごとのJDBCバッチで挿入する
+     * @param items 作成するスペットのリスト
+     * @return 作成されたスペット数
+     * @throws IllegalArgumentException スペット番号が重複している場合
+     */
+    public int createParkingSpots(List<ParkingSpotBulkCreateRequest.SpotItem> items) {
+        Set<String> spotNumbers = new LinkedHashSet<>();
+        for (ParkingSpotBulkCreateRequest.SpotItem item : items) {
+            if (!spotNumbers.add(item.getSpotNumber())) {
+                throw new IllegalArgumentException("Duplicate spot number in request: " + item.getSpotNumber());
+            }
+        }
+        
+        List<String> existing = new ArrayList<>();
+        for (List<String> chunk : chunks(new ArrayList<>(spotNumbers))) {
+            parkingSpotDao.selectBySpotNumbers(chunk).forEach(spot -> existing.add(spot.getSpotNumber()));
+        }
+        if (!existing.isEmpty()) {
+            throw new IllegalArgumentException("Spot numbers already exist: "
+                + existing.stream().limit(10).collect(Collectors.joining(", "))
+                + (existing.size() > 10 ? " ... (" + existing.size() + ")" : ""));
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<ParkingSpotDoma> spots = new ArrayList<>(items.size());
+        for (ParkingSpotBulkCreateRequest.SpotItem item : items) {
+            ParkingSpotDoma parkingSpot = new ParkingSpotDoma();
+            parkingSpot.setSpotNumber(item.getSpotNumber());
+            parkingSpot.setSpotType(item.getSpotType());
+            parkingSpot.setStatus(ParkingSpotDoma.SpotStatus.AVAILABLE);
+            parkingSpot.setFloorLevel(item.getFloorLevel());
+            parkingSpot.setHourlyRate(item.getHourlyRate());
+            parkingSpot.setCreatedAt(now);
+            parkingSpot.setUpdatedAt(now);
+            spots.add(parkingSpot);
+        }
+        
+        int created = Arrays.stream(parkingSpotDao.batchInsert(spots)).sum();
+        eventPublisher.publishEvent(new SpotsChangedExternallyEvent(
+            spots.stream().map(ParkingSpotDoma::getId).collect(Collectors.toList())));
+        return created;
+    }
+    
+    /**
+     * 駐車場スペットの状態を一括更新
+     * 使用中（OCCUPIED）への変更と使用中スペットの変更は駐車セッションで管理するため受け付けない
+     * @param ids スペットIDのリスト
+     * @param status 新しい状態
+     * @return 更新されたスペット数
+     * @throws IllegalArgumentException スペットが存在しない場合
+     * @throws IllegalStateException 使用中の状態を変更しようとした場合
+     */
+    public int updateParkingSpotStatuses(List<Long> ids, ParkingSpotDoma.SpotStatus status) {
+        if (status == ParkingSpotDoma.SpotStatus.OCCUPIED) {
+            throw new IllegalStateException("Spots can only become OCCUPIED through a parking session");
+        }
+        List<ParkingSpotDoma> spots = selectExisting(ids);
+        LocalDateTime now = LocalDateTime.now();
+        for (ParkingSpotDoma spot : spots) {
+            if (spot.getStatus() == ParkingSpotDoma.SpotStatus.OCCUPIED) {
+                throw new IllegalStateException("Parking spot is occupied: " + spot.getId());
+            }
+            spot.setStatus(status);
+            spot.setUpdatedAt(now);
+        }
+        return batchUpdate(spots);
+    }
+    
+    /**
+     * 駐車場スペットの時間料金を一括更新
+     * @param ids スペットIDのリスト
+     * @param hourlyRate 新しい時間料金
+     * @return 更新されたスペット数
+     * @throws IllegalArgumentException スペットが存在しない場合
+     */
+    public int updateParkingSpotRates(List<Long> ids, Double hourlyRate) {
+        List<ParkingSpotDoma> spots = selectExisting(ids);
+        LocalDateTime now = LocalDateTime.now();
+        for (ParkingSpotDoma spot : spots) {
+            spot.setHourlyRate(hourlyRate);
+            spot.setUpdatedAt(now);
+        }
+        return batchUpdate(spots);
+    }
+    
+    /**
+     * IDのリストでスペットを取得（存在しないIDがあれば例外）
+     */
+    private List<ParkingSpotDoma> selectExisting(List<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<ParkingSpotDoma> spots = new ArrayList<>(distinctIds.size());
+        for (List<Long> chunk : chunks(distinctIds)) {
+            spots.addAll(parkingSpotDao.selectByIds(chunk));
+        }
+        if (spots.size() != distinctIds.size()) {
+            Set<Long> found = spots.stream().map(ParkingSpotDoma::getId).collect(Collectors.toSet());
+            List<Long> missing = distinctIds.stream().filter(id -> !found.contains(id)).limit(10)
+                .collect(Collectors.toList());
+            throw new IllegalArgumentException("Parking spots not found: " + missing);
+        }
+        return spots;
+    }
+    
+    /**
+     * doma.batch.size件ごとのJDBCバッチで更新し、コミット後に二次キャッシュ・占有インデックスに反映
+     * 他のトランザクションが先に更新していた場合はBatchOptimisticLockExceptionとなる
+     */
+    private int batchUpdate(List<ParkingSpotDoma> spots) {
+        int updated = Arrays.stream(parkingSpotDao.batchUpdate(spots)).sum();
+        eventPublisher.publishEvent(new SpotsChangedExternallyEvent(
+            spots.stream().map(ParkingSpotDoma::getId).collect(Collectors.toList())));
+        return updated;
+    }
+    
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(values.size(), from + IN_CLAUSE_CHUNK_SIZE)));
+        }
+        return chunks;
     }
 } 
\ No newline at end of file
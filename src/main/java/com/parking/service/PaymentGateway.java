@@ -0,0 +1,46 @@
+package com.parking.service;
+
+import com.parking.entity.Payment;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * 決済ゲートウェイ
+ * 外部の決済事業者への課金要求を抽象化する（呼び出しはブロッキングで、非同期化は PaymentGatewayClient が行う）
+ */
+public interface PaymentGateway {
+
+    /**
+     * 課金を要求
+     * @param charge 課金内容
+     * @return 課金結果（承認・拒否）
+     * @throws Exception 通信エラーなどで結果が得られなかった場合
+     */
+    Result charge(Charge charge) throws Exception;
+
+    /**
+     * 取引IDで課金結果を照会（タイムアウト等で結果が得られなかった課金の確定に使用する）
+     * @param transactionId 取引ID
+     * @return 課金結果（ゲートウェイが課金要求を受け付けていない場合は空）
+     * @throws Exception 通信エラーなどで照会できなかった場合
+     */
+    Optional<Result> lookup(String transactionId) throws Exception;
+
+    /**
+     * 課金内容
+     * @param transactionId 取引ID
+     * @param paymentMethod 決済方法
+     * @param amount 金額
+     */
+    record Charge(String transactionId, Payment.PaymentMethod paymentMethod, BigDecimal amount) {
+    }
+
+    /**
+     * 課金結果
+     * @param approved 承認された場合はtrue
+     * @param gatewayTransactionId ゲートウェイ側の取引ID
+     */
+    record Result(boolean approved, String gatewayTransactionId) {
+    }
+}
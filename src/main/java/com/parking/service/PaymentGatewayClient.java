@@ -0,0 +1,226 @@
+package com.parking.service;
+
+import com.parking.config.VirtualThreadConfig;
+import com.parking.entity.Payment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 決済ゲートウェイの非同期呼び出しクライアント
+ * 決済方法ごとに同時実行数の上限（セマフォ）とサーキットブレーカーを持ち、呼び出しにタイムアウトを設定する
+ *
+ * 同時実行数の許可はゲートウェイ呼び出しが実際に終わった時点で返却するため、
+ * タイムアウト後も応答待ちの呼び出しが上限を超えて積み上がらない。
+ * 上限到達・遮断中の場合は呼び出さずに PaymentGatewayUnavailableException で失敗する。
+ * 課金は呼び出し枠を reserve で先に確保してから行うため、呼び出せない決済を登録せずに済む。
+ * 呼び出し後のタイムアウト・通信エラーは結果が不明なため PaymentOutcomeUnknownException で失敗する。
+ * 呼び出しは実行モードに応じたエグゼキューター（VirtualThreadConfig）で行う。
+ */
+@Component
+@Slf4j
+public class PaymentGatewayClient {
+
+    private final PaymentGateway paymentGateway;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+    private final long acquireTimeoutMs;
+    private final Map<Payment.PaymentMethod, Semaphore> permits = new EnumMap<>(Payment.PaymentMethod.class);
+    private final Map<Payment.PaymentMethod, GatewayCircuitBreaker> breakers =
+        new EnumMap<>(Payment.PaymentMethod.class);
+
+    /**
+     * @param paymentGateway 決済ゲートウェイ
+     * @param executor ゲートウェイ呼び出しのエグゼキューター
+     * @param environment 決済方法別の同時実行数（payment.gateway.max-in-flight.&lt;PaymentMethod&gt;）の参照用
+     * @param maxInFlight 決済方法ごとの同時実行数の既定値
+     * @param timeoutMs 呼び出しのタイムアウト（ミリ秒）
+     * @param acquireTimeoutMs 同時実行数の空きを待つ時間（ミリ秒）
+     * @param failureThreshold サーキットブレーカーが遮断する連続失敗数
+     * @param openMs サーキットブレーカーの遮断時間（ミリ秒）
+     */
+    public PaymentGatewayClient(PaymentGateway paymentGateway,
+                                @Qualifier(VirtualThreadConfig.PAYMENT_GATEWAY_EXECUTOR) ExecutorService executor,
+                                Environment environment,
+                                @Value("${payment.gateway.max-in-flight:64}") int maxInFlight,
+                                @Value("${payment.gateway.timeout-ms:5000}") long timeoutMs,
+                                @Value("${payment.gateway.acquire-timeout-ms:100}") long acquireTimeoutMs,
+                                @Value("${payment.gateway.circuit.failure-threshold:5}") int failureThreshold,
+                                @Value("${payment.gateway.circuit.open-ms:30000}") long openMs) {
+        this.paymentGateway = paymentGateway;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        for (Payment.PaymentMethod method : Payment.PaymentMethod.values()) {
+            int limit = environment.getProperty("payment.gateway.max-in-flight." + method, Integer.class, maxInFlight);
+            permits.put(method, new Semaphore(limit, true));
+            breakers.put(method, new GatewayCircuitBreaker(failureThreshold, openMs));
+        }
+    }
+
+    /**
+     * 決済方法の呼び出し枠（サーキットブレーカーの通過と同時実行数の許可）を確保
+     * @param method 決済方法
+     * @return 呼び出し枠（charge で使用するか、使用しない場合は release で返却する）
+     * @throws PaymentGatewayUnavailableException 遮断中・同時実行数の上限到達の場合
+     */
+    public Permit reserve(Payment.PaymentMethod method) {
+        GatewayCircuitBreaker breaker = breakers.get(method);
+        if (!breaker.tryAcquire(System.currentTimeMillis())) {
+            throw new PaymentGatewayUnavailableException("Payment gateway circuit is open for " + method);
+        }
+        Semaphore semaphore = permits.get(method);
+        if (!tryAcquire(semaphore)) {
+            breaker.releaseTrial();
+            throw new PaymentGatewayUnavailableException("Too many in-flight payment gateway calls for " + method);
+        }
+        return new Permit(method, semaphore, breaker);
+    }
+
+    /**
+     * 確保済みの呼び出し枠で課金を非同期で要求
+     * @param permit reserve で確保した呼び出し枠
+     * @param charge 課金内容
+     * @return 課金結果（呼び出さなかった場合は PaymentGatewayUnavailableException、
+     *         タイムアウト・通信エラーの場合は PaymentOutcomeUnknownException で失敗）
+     */
+    public CompletableFuture<PaymentGateway.Result> charge(Permit permit, PaymentGateway.Charge charge) {
+        return dispatch(permit, charge.transactionId(), () -> paymentGateway.charge(charge));
+    }
+
+    /**
+     * 取引IDで課金結果を非同期で照会（課金と同じ同時実行数の上限とサーキットブレーカーを適用する）
+     * @param paymentMethod 決済方法
+     * @param transactionId 取引ID
+     * @return 課金結果（ゲートウェイが課金要求を受け付けていない場合は空）
+     */
+    public CompletableFuture<Optional<PaymentGateway.Result>> lookup(Payment.PaymentMethod paymentMethod,
+                                                                     String transactionId) {
+        return call(paymentMethod, transactionId, () -> paymentGateway.lookup(transactionId));
+    }
+
+    private <T> CompletableFuture<T> call(Payment.PaymentMethod method, String transactionId, Callable<T> request) {
+        Permit permit;
+        try {
+            permit = reserve(method);
+        } catch (PaymentGatewayUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return dispatch(permit, transactionId, request);
+    }
+
+    private <T> CompletableFuture<T> dispatch(Permit permit, String transactionId, Callable<T> request) {
+        if (!permit.use()) {
+            throw new IllegalStateException("Payment gateway permit already used or released");
+        }
+        Payment.PaymentMethod method = permit.method;
+        GatewayCircuitBreaker breaker = permit.breaker;
+        Semaphore semaphore = permit.semaphore;
+
+        CompletableFuture<T> call = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    call.complete(request.call());
+                } catch (Throwable e) {
+                    call.completeExceptionally(e);
+                } finally {
+                    semaphore.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            semaphore.release();
+            breaker.releaseTrial();
+            return CompletableFuture.failedFuture(
+                new PaymentGatewayUnavailableException("Payment gateway executor rejected the call for " + method, e));
+        }
+
+        // 後続の処理（決済の確定）がタイムアウト監視スレッドで動かないよう、結果はワーカースレッドで返す
+        return call.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).handleAsync((result, error) -> {
+            if (error == null) {
+                breaker.onSuccess();
+                return result;
+            }
+            breaker.onFailure(System.currentTimeMillis());
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            String reason = cause instanceof TimeoutException
+                ? "Payment gateway timed out after " + timeoutMs + "ms"
+                : "Payment gateway error: " + cause.getMessage();
+            log.warn("決済ゲートウェイ呼び出しに失敗: method={}, transactionId={}, reason={}, circuit={}",
+                method, transactionId, reason, breaker.state());
+            throw new PaymentOutcomeUnknownException(reason, cause);
+        }, executor);
+    }
+
+    /**
+     * サーキットブレーカーが遮断中（復旧確認中を含む）の決済方法を取得
+     * @return 遮断中の決済方法
+     */
+    public Set<Payment.PaymentMethod> getOpenCircuits() {
+        Set<Payment.PaymentMethod> open = EnumSet.noneOf(Payment.PaymentMethod.class);
+        breakers.forEach((method, breaker) -> {
+            if (breaker.state() != GatewayCircuitBreaker.State.CLOSED) {
+                open.add(method);
+            }
+        });
+        return open;
+    }
+
+    /**
+     * 決済方法の呼び出し枠
+     * 呼び出しに使用しなかった場合は release で返却する（使用後・返却後の release は何もしない）
+     */
+    public static final class Permit {
+
+        private final Payment.PaymentMethod method;
+        private final Semaphore semaphore;
+        private final GatewayCircuitBreaker breaker;
+        private final AtomicBoolean consumed = new AtomicBoolean();
+
+        private Permit(Payment.PaymentMethod method, Semaphore semaphore, GatewayCircuitBreaker breaker) {
+            this.method = method;
+            this.semaphore = semaphore;
+            this.breaker = breaker;
+        }
+
+        /**
+         * 呼び出しに使用しなかった枠を返却
+         */
+        public void release() {
+            if (consumed.compareAndSet(false, true)) {
+                semaphore.release();
+                breaker.releaseTrial();
+            }
+        }
+
+        private boolean use() {
+            return consumed.compareAndSet(false, true);
+        }
+    }
+
+    private boolean tryAcquire(Semaphore semaphore) {
+        try {
+            return semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.parking.service;
+
+/**
+ * 決済ゲートウェイを利用できないことを表す例外
+ * サーキットブレーカーの遮断中・同時実行数の上限到達の場合に送出する（ゲートウェイは呼び出されていない）
+ * 呼び出し後にタイムアウト・通信エラーとなった場合はサブクラスの PaymentOutcomeUnknownException を送出する
+ */
+public class PaymentGatewayUnavailableException extends RuntimeException {
+
+    public PaymentGatewayUnavailableException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,317 @@
+package com.parking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.parking.dto.PaymentRequest;
+import com.parking.dto.PaymentResponse;
+import com.parking.entity.Payment;
+import com.parking.entity.PaymentIdempotencyKey;
+import com.parking.repository.PaymentIdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 決済冪等性サービス
+ * Idempotency-Key ヘッダー付きの決済リクエストを1回だけ処理し、再送には保存済みの結果を返す
+ *
+ * キーは呼び出し元ユーザーごとに独立し、テーブルの主キー（呼び出し元ユーザーID、冪等性キー）への
+ * INSERT ... ON CONFLICT DO NOTHING で確保するため、同じキーのリクエストが同時に届いても
+ * 決済ゲートウェイを呼ぶのは1回だけになる。同じインスタンス内で処理中のキーへの再送は処理完了を
+ * 待って結果を返し、他のインスタンスで処理中の場合は409を返す。
+ * 処理結果はメモリ上のLRUキャッシュにも保持し、再送の大半をDBに問い合わせずに返す。
+ *
+ * キーを解放して同じキーでの再試行を許すのは、決済ゲートウェイを呼び出していないことが確実な
+ * 場合（サーキットオープン・同時実行数の上限による503）のみとする。結果が不明な決済（202）は
+ * 結果を保存し、再送時に決済の現在の状態を照会して確定していれば確定した結果に置き換える。
+ */
+@Service
+@Slf4j
+public class PaymentIdempotencyService {
+
+    /** 再送されたレスポンスに付与するヘッダー */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /** 冪等性キーの最大長 */
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /** 呼び出し元が認証されていない場合のユーザーID */
+    private static final long ANONYMOUS_CALLER_ID = 0L;
+
+    private final PaymentIdempotencyKeyRepository repository;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    /** 処理結果のLRUキャッシュ（キー: 呼び出し元ユーザーIDと冪等性キー） */
+    private final Cache<PaymentIdempotencyKey.Key, StoredResponse> completed;
+
+    /** このインスタンスで処理中のキーと完了通知 */
+    private final ConcurrentHashMap<PaymentIdempotencyKey.Key, CompletableFuture<StoredResponse>> inFlight =
+            new ConcurrentHashMap<>();
+
+    /** キーの保存期間 */
+    private final Duration retention;
+
+    /** 処理中のキーのリース時間（超えた場合は他のリクエストが引き継げる） */
+    private final Duration lease;
+
+    /** 同じインスタンスで処理中のキーへの再送が完了を待つ時間 */
+    private final long waitMillis;
+
+    public PaymentIdempotencyService(PaymentIdempotencyKeyRepository repository,
+                                     PaymentService paymentService,
+                                     TransactionTemplate transactionTemplate,
+                                     ObjectMapper objectMapper,
+                                     @Value("${payment.idempotency.cache-size:10000}") long cacheSize,
+                                     @Value("${payment.idempotency.retention-hours:24}") long retentionHours,
+                                     @Value("${payment.idempotency.lease-ms:60000}") long leaseMillis,
+                                     @Value("${payment.idempotency.wait-ms:10000}") long waitMillis) {
+        this.repository = repository;
+        this.paymentService = paymentService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = Duration.ofHours(retentionHours);
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.waitMillis = waitMillis;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(this.retention)
+                .build();
+    }
+
+    /**
+     * 冪等性キー付きで決済を処理
+     * @param callerId 呼び出し元ユーザーID（未認証の場合はnull）
+     * @param key 冪等性キー
+     * @param request 決済リクエスト
+     * @param processor 決済処理（初回のみ呼び出される）
+     * @return 決済結果（再送の場合は保存済みの結果）
+     */
+    public ResponseEntity<PaymentResponse> execute(Long callerId, String key, PaymentRequest request,
+                                                  Supplier<ResponseEntity<PaymentResponse>> processor) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        PaymentIdempotencyKey.Key id = new PaymentIdempotencyKey.Key(
+                callerId != null ? callerId : ANONYMOUS_CALLER_ID, key);
+        String requestHash = hash(request);
+
+        StoredResponse cached = completed.getIfPresent(id);
+        if (cached != null) {
+            return replay(id, cached, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> ownFuture = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, ownFuture);
+        if (running != null) {
+            return awaitInFlight(id, running, requestHash);
+        }
+
+        try {
+            if (!claim(id, requestHash)) {
+                Optional<PaymentIdempotencyKey> existing = repository.findById(id);
+                if (existing.isPresent() && existing.get().getStatus() == PaymentIdempotencyKey.Status.COMPLETED) {
+                    StoredResponse stored = StoredResponse.of(existing.get());
+                    completed.put(id, stored);
+                    return replay(id, stored, requestHash);
+                }
+                if (existing.isPresent() && !existing.get().getRequestHash().equals(requestHash)) {
+                    return ResponseEntity.unprocessableEntity().build();
+                }
+                // 他のインスタンスで処理中
+                return inProgress();
+            }
+
+            // 処理中の例外ではゲートウェイを呼び出したか分からないため、キーは処理中のまま残す
+            // （リース期限後の引き継ぎでは、処理中の決済があるセッションへの決済は拒否される）
+            ResponseEntity<PaymentResponse> response = processor.get();
+            ownFuture.complete(store(id, requestHash, response));
+            return response;
+        } finally {
+            ownFuture.complete(null);
+            inFlight.remove(id, ownFuture);
+        }
+    }
+
+    /**
+     * 保存期間を過ぎたキーを定期的に削除
+     */
+    @Scheduled(fixedDelayString = "${payment.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+            repository.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("期限切れの冪等性キーを削除しました: count={}", deleted);
+        }
+    }
+
+    /**
+     * キーを確保（リースが切れた処理中のキーは引き継ぐ）
+     */
+    private boolean claim(PaymentIdempotencyKey.Key id, String requestHash) {
+        Boolean claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            return repository.tryClaim(id.getCallerId(), id.getIdempotencyKey(), requestHash, now) == 1
+                || repository.takeOverExpired(id, requestHash, now.minus(lease), now) == 1;
+        });
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    /**
+     * 処理結果を保存
+     * 決済ゲートウェイを呼び出していない503の場合のみ、キーを解放して再試行可能にする
+     */
+    private StoredResponse store(PaymentIdempotencyKey.Key id, String requestHash,
+                                 ResponseEntity<PaymentResponse> response) {
+        int status = response.getStatusCode().value();
+        if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            releaseQuietly(id);
+            return null;
+        }
+        return save(id, new StoredResponse(requestHash, status, toJson(response.getBody())));
+    }
+
+    private StoredResponse save(PaymentIdempotencyKey.Key id, StoredResponse stored) {
+        completed.put(id, stored);
+        try {
+            transactionTemplate.executeWithoutResult(tx ->
+                repository.complete(id, stored.httpStatus(), stored.body(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            // キーは処理中のまま残り、他のインスタンスへの再送はリース期限まで409となる
+            log.error("冪等性キーの処理結果の保存に失敗: key={}, error={}", id, e.getMessage());
+        }
+        return stored;
+    }
+
+    /**
+     * 結果が不明（受付のみ）の保存済み結果を決済の現在の状態で更新
+     * 照会で確定していれば確定した結果を保存し、以降の再送には確定した結果を返す
+     * （このキーで作成した決済を決済IDで参照する。同じセッションの別の試行とは混同しない）
+     */
+    private StoredResponse refresh(PaymentIdempotencyKey.Key id, StoredResponse stored) {
+        PaymentResponse accepted = fromJson(stored.body());
+        if (accepted == null || accepted.getPaymentId() == null) {
+            return stored;
+        }
+        PaymentResponse current;
+        try {
+            current = paymentService.getPayment(accepted.getPaymentId());
+        } catch (RuntimeException e) {
+            log.warn("処理中の決済の照会に失敗: key={}, error={}", id, e.getMessage());
+            return stored;
+        }
+        if (current.getStatus() == Payment.PaymentStatus.PROCESSING) {
+            return stored;
+        }
+        return save(id, new StoredResponse(stored.requestHash(), HttpStatus.CREATED.value(), toJson(current)));
+    }
+
+    private ResponseEntity<PaymentResponse> awaitInFlight(PaymentIdempotencyKey.Key id,
+                                                          CompletableFuture<StoredResponse> running,
+                                                          String requestHash) {
+        try {
+            StoredResponse stored = running.get(waitMillis, TimeUnit.MILLISECONDS);
+            if (stored != null) {
+                return replay(id, stored, requestHash);
+            }
+        } catch (TimeoutException | ExecutionException e) {
+            log.debug("処理中の冪等性キーの完了を待てませんでした: key={}", id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 先行リクエストが結果を保存しなかった（503・例外・待機超過）場合
+        return inProgress();
+    }
+
+    private ResponseEntity<PaymentResponse> replay(PaymentIdempotencyKey.Key id, StoredResponse stored,
+                                                   String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            // 同じキーで異なるリクエスト
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        if (stored.httpStatus() == HttpStatus.ACCEPTED.value()) {
+            stored = refresh(id, stored);
+        }
+        return ResponseEntity.status(stored.httpStatus())
+                .header(REPLAYED_HEADER, "true")
+                .body(fromJson(stored.body()));
+    }
+
+    private static ResponseEntity<PaymentResponse> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    private void releaseQuietly(PaymentIdempotencyKey.Key id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.release(id));
+        } catch (RuntimeException e) {
+            log.warn("冪等性キーの解放に失敗（リース期限後に引き継がれます）: key={}, error={}", id, e.getMessage());
+        }
+    }
+
+    private String hash(PaymentRequest request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Failed to hash payment request", e);
+        }
+    }
+
+    private String toJson(PaymentResponse body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize payment response", e);
+        }
+    }
+
+    private PaymentResponse fromJson(String body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, PaymentResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize payment response", e);
+        }
+    }
+
+    /**
+     * 保存済みの処理結果
+     */
+    private record StoredResponse(String requestHash, int httpStatus, String body) {
+
+        static StoredResponse of(PaymentIdempotencyKey key) {
+            return new StoredResponse(key.getRequestHash(), key.getHttpStatus(), key.getResponseBody());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.parking.service;
+
+/**
+ * 決済ゲートウェイを呼び出したが結果が得られなかったことを表す例外
+ * タイムアウト・通信エラーの場合に送出する。課金されている可能性があるため決済を失敗扱いにせず、
+ * 取引IDでゲートウェイに照会して確定する（PaymentService.reconcileProcessingPayments）
+ */
+public class PaymentOutcomeUnknownException extends PaymentGatewayUnavailableException {
+
+    public PaymentOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -6,17 +6,26 @@ import com.parking.dto.PaymentRequest;
 import com.parking.dto.PaymentResponse;
 import com.parking.repository.PaymentRepository;
 import com.parking.repository.ParkingSessionRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.Map;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 決済サービスクラス
@@ -35,191 +44,376 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     /** 駐車セッションリポジトリ */
     private final ParkingSessionRepository parkingSessionRepository;
+    /** ダッシュボード集計 */
+    private final DashboardSnapshot dashboardSnapshot;
+    /** 売上集計サービス */
+    private final RevenueAggregationService revenueAggregationService;
+    
+    /** 決済ゲートウェイクライアント */
+    private final PaymentGatewayClient paymentGatewayClient;
+    /** トランザクションテンプレート */
+    private final TransactionTemplate transactionTemplate;
+    /** 決済統計サービス */
+    private final PaymentStatisticsService paymentStatisticsService;
+    /** メトリクス */
+    private final ParkingMetrics parkingMetrics;
+    
+    /** 照会による確定の対象とする処理中の決済の経過時間（ゲートウェイのタイムアウトより長くする） */
+    @Value("${payment.reconcile.min-age-ms:60000}")
+    private long reconcileMinAgeMs;
+    
+    /** 1回の照会で確定する決済の最大件数 */
+    @Value("${payment.reconcile.batch-size:100}")
+    private int reconcileBatchSize;
     
     /**
      * 決済を処理する
      * 
      * @param request 決済リクエスト
      * @return 決済レスポンス
-     * @throws IllegalArgumentException 駐車セッションが見つからない場合
+     * @throws IllegalArgumentException 駐車セッションが見つからない、または決済情報が不正な場合
      * @throws IllegalStateException 決済が既に完了している場合
+     * @throws PaymentGatewayUnavailableException 決済ゲートウェイが利用できない場合
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse processPayment(PaymentRequest request) {
+        try {
+            return processPaymentAsync(request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * 決済を非同期で処理する
+     * 処理中の決済を登録・コミットしてから決済ゲートウェイを呼び出し、結果を短いトランザクションで確定する。
+     * ゲートウェイ呼び出しの間はDB接続を保持しない。
+     * タイムアウト・通信エラーで結果が不明な場合は処理中のまま返し、照会で確定する（reconcileProcessingPayments）
+     * 
+     * @param request 決済リクエスト
+     * @return 決済レスポンス（結果が不明な場合は処理中、ゲートウェイを呼び出せなかった場合は
+     *         PaymentGatewayUnavailableException で失敗）
+     * @throws IllegalArgumentException 駐車セッションが見つからない、または決済情報が不正な場合
+     * @throws IllegalStateException 決済が既に完了している場合
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<PaymentResponse> processPaymentAsync(PaymentRequest request) {
+        Payment.PaymentMethod method = request.getPaymentMethod();
+        Timer.Sample sample = parkingMetrics.start();
+        CompletableFuture<PaymentResponse> response;
+        try {
+            response = chargeAndFinalize(request);
+        } catch (RuntimeException e) {
+            parkingMetrics.recordPayment(sample, method, ParkingMetrics.outcomeOf(e));
+            throw e;
+        }
+        return response.whenComplete((result, error) -> parkingMetrics.recordPayment(sample, method,
+            error != null ? ParkingMetrics.outcomeOf(error instanceof CompletionException ? error.getCause() : error)
+                : result.getStatus() == Payment.PaymentStatus.COMPLETED ? ParkingMetrics.SUCCESS
+                : result.getStatus() == Payment.PaymentStatus.PROCESSING ? "unknown" : "declined"));
+    }
+    
+    /**
+     * 決済を登録してゲートウェイを呼び出し、結果を確定する
+     */
+    private CompletableFuture<PaymentResponse> chargeAndFinalize(PaymentRequest request) {
+        validatePaymentDetails(request);
+        
+        if (request.getPaymentMethod() == Payment.PaymentMethod.CASH) {
+            // For cash payments, we assume immediate completion
+            return CompletableFuture.completedFuture(transactionTemplate.execute(status -> {
+                Payment payment = createPayment(request, Payment.PaymentStatus.COMPLETED);
+                payment.setProcessedAt(LocalDateTime.now());
+                payment.setReceiptUrl(generateReceiptUrl(payment.getTransactionId()));
+                payment = paymentRepository.save(payment);
+                markSessionPaid(payment.getParkingSession());
+                dashboardSnapshot.onPaymentCreated(payment);
+                revenueAggregationService.recordCompleted(payment);
+                return convertToPaymentResponse(payment);
+            }));
+        }
+        
+        // 呼び出せない場合（遮断中・上限到達）は決済を登録せずに失敗させる
+        PaymentGatewayClient.Permit permit = paymentGatewayClient.reserve(request.getPaymentMethod());
+        Payment processing;
+        try {
+            processing = transactionTemplate.execute(status -> {
+                Payment payment = paymentRepository.save(createPayment(request, Payment.PaymentStatus.PROCESSING));
+                dashboardSnapshot.onPaymentCreated(payment);
+                return payment;
+            });
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        Long paymentId = processing.getId();
+        PaymentGateway.Charge charge = new PaymentGateway.Charge(
+            processing.getTransactionId(), processing.getPaymentMethod(), processing.getAmount());
+        
+        return paymentGatewayClient.charge(permit, charge).handle((result, error) -> {
+            if (error == null) {
+                return transactionTemplate.execute(
+                    status -> finalizePayment(paymentId, request.getCardNumber(), result, null));
+            }
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof PaymentGatewayUnavailableException unavailable
+                    && !(cause instanceof PaymentOutcomeUnknownException)) {
+                // ゲートウェイを呼び出していないため、課金されていないことが確実（呼び出していない決済は残さない）
+                log.error("Payment processing failed: {}", unavailable.getMessage());
+                transactionTemplate.executeWithoutResult(status -> discardPayment(paymentId));
+                throw unavailable;
+            }
+            // 課金されている可能性があるため失敗にせず、処理中のまま照会で確定する
+            log.warn("Payment outcome unknown, left for reconciliation: transactionId={}, reason={}",
+                charge.transactionId(), cause.getMessage());
+            return transactionTemplate.execute(status -> paymentRepository.findById(paymentId)
+                .map(PaymentService::convertToPaymentResponse)
+                .orElseThrow(() -> new IllegalStateException("Payment disappeared while processing: " + paymentId)));
+        });
+    }
+    
+    /**
+     * 決済方法ごとの必須項目を検証
+     */
+    private void validatePaymentDetails(PaymentRequest request) {
+        switch (request.getPaymentMethod()) {
+            case CREDIT_CARD:
+            case DEBIT_CARD:
+                if (request.getCardNumber() == null || request.getCardNumber().length() < 13) {
+                    throw new IllegalArgumentException("Invalid card number");
+                }
+                break;
+            case MOBILE_PAYMENT:
+                if (request.getPhoneNumber() == null || request.getWalletType() == null) {
+                    throw new IllegalArgumentException("Phone number and wallet type are required for mobile payment");
+                }
+                break;
+            case QR_CODE:
+                if (request.getQrCodeData() == null) {
+                    throw new IllegalArgumentException("QR code data is required");
+                }
+                break;
+            case ELECTRONIC_WALLET:
+                if (request.getWalletId() == null || request.getWalletProvider() == null) {
+                    throw new IllegalArgumentException("Wallet ID and provider are required");
+                }
+                break;
+            case CASH:
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported payment method: " + request.getPaymentMethod());
+        }
+    }
+    
+    /**
+     * 決済レコードを作成（トランザクション内で実行）
+     */
+    private Payment createPayment(PaymentRequest request, Payment.PaymentStatus status) {
         // Validate parking session
         ParkingSession session = parkingSessionRepository.findById(request.getSessionId())
             .orElseThrow(() -> new IllegalArgumentException("Parking session not found: " + request.getSessionId()));
         
-        // Check if payment already exists
-        Optional<Payment> existingPayment = paymentRepository.findByParkingSessionId(request.getSessionId());
-        if (existingPayment.isPresent() && existingPayment.get().getStatus() == Payment.PaymentStatus.COMPLETED) {
+        // Check if payment already exists（失敗した決済は何件あっても再決済できる）
+        if (paymentRepository.existsByParkingSessionIdAndStatus(request.getSessionId(), Payment.PaymentStatus.COMPLETED)) {
             throw new IllegalStateException("Payment already completed for session: " + request.getSessionId());
         }
+        // 結果が不明な決済は照会で確定するまで再決済しない（二重課金の防止）
+        if (paymentRepository.existsByParkingSessionIdAndStatus(request.getSessionId(), Payment.PaymentStatus.PROCESSING)) {
+            throw new IllegalStateException("Payment is being processed for session: " + request.getSessionId());
+        }
         
-        // Create payment record
+        log.info("Processing {} payment for session: {}", request.getPaymentMethod(), session.getId());
         Payment payment = new Payment();
         payment.setParkingSession(session);
         payment.setAmount(request.getAmount());
         payment.setPaymentMethod(request.getPaymentMethod());
-        payment.setStatus(Payment.PaymentStatus.PROCESSING);
+        payment.setStatus(status);
         payment.setTransactionId(generateTransactionId());
-        
-        // Process payment based on method
-        try {
-            switch (request.getPaymentMethod()) {
-                case CREDIT_CARD:
-                case DEBIT_CARD:
-                    payment = processCardPayment(payment, request);
-                    break;
-                case MOBILE_PAYMENT:
-                    payment = processMobilePayment(payment, request);
-                    break;
-                case QR_CODE:
-                    payment = processQrCodePayment(payment, request);
-                    break;
-                case ELECTRONIC_WALLET:
-                    payment = processElectronicWalletPayment(payment, request);
-                    break;
-                case CASH:
-                    payment = processCashPayment(payment, request);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported payment method: " + request.getPaymentMethod());
-            }
-            
-            // Update parking session payment status
-            session.setPaymentStatus(ParkingSession.PaymentStatus.PAID);
-            parkingSessionRepository.save(session);
-            
-            return convertToPaymentResponse(payment);
-            
-        } catch (Exception e) {
-            log.error("Payment processing failed: {}", e.getMessage());
-            payment.setStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason(e.getMessage());
-            paymentRepository.save(payment);
-            throw new RuntimeException("Payment processing failed: " + e.getMessage());
-        }
+        return payment;
     }
     
-    private Payment processCardPayment(Payment payment, PaymentRequest request) {
-        // Simulate card payment processing
-        log.info("Processing card payment for session: {}", payment.getParkingSession().getId());
-        
-        // Validate card details
-        if (request.getCardNumber() == null || request.getCardNumber().length() < 13) {
-            throw new IllegalArgumentException("Invalid card number");
+    /**
+     * ゲートウェイの結果で決済を確定（トランザクション内で実行）
+     * 決済行をロックし、既に確定している場合は変更しない（照会による確定との競合のため）
+     * @param cardNumber カード番号（照会で確定する場合はnull）
+     * @param result ゲートウェイの結果（呼び出していない・受け付けられていない場合はnull）
+     * @param errorReason 呼び出していない・受け付けられていない理由
+     */
+    private PaymentResponse finalizePayment(Long paymentId, String cardNumber,
+                                            PaymentGateway.Result result, String errorReason) {
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+            .orElseThrow(() -> new IllegalStateException("Payment disappeared while processing: " + paymentId));
+        if (payment.getStatus() != Payment.PaymentStatus.PROCESSING) {
+            return convertToPaymentResponse(payment);
         }
         
-        // Simulate payment gateway call
-        boolean paymentSuccess = simulatePaymentGatewayCall();
-        
-        if (paymentSuccess) {
+        if (result != null && result.approved()) {
             payment.setStatus(Payment.PaymentStatus.COMPLETED);
             payment.setProcessedAt(LocalDateTime.now());
-            payment.setCardLastFour(request.getCardNumber().substring(request.getCardNumber().length() - 4));
-            payment.setCardBrand(detectCardBrand(request.getCardNumber()));
             payment.setReceiptUrl(generateReceiptUrl(payment.getTransactionId()));
+            if (cardNumber != null && (payment.getPaymentMethod() == Payment.PaymentMethod.CREDIT_CARD
+                    || payment.getPaymentMethod() == Payment.PaymentMethod.DEBIT_CARD)) {
+                payment.setCardLastFour(cardNumber.substring(cardNumber.length() - 4));
+                payment.setCardBrand(detectCardBrand(cardNumber));
+            }
+            markSessionPaid(payment.getParkingSession());
         } else {
             payment.setStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason("Card payment declined");
+            payment.setFailureReason(errorReason != null ? errorReason : declineReason(payment.getPaymentMethod()));
         }
         
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        dashboardSnapshot.onPaymentStatusChanged(savedPayment, Payment.PaymentStatus.PROCESSING);
+        if (savedPayment.getStatus() == Payment.PaymentStatus.COMPLETED) {
+            revenueAggregationService.recordCompleted(savedPayment);
+        }
+        return convertToPaymentResponse(savedPayment);
     }
     
-    private Payment processMobilePayment(Payment payment, PaymentRequest request) {
-        log.info("Processing mobile payment for session: {}", payment.getParkingSession().getId());
-        
-        if (request.getPhoneNumber() == null || request.getWalletType() == null) {
-            throw new IllegalArgumentException("Phone number and wallet type are required for mobile payment");
+    /**
+     * ゲートウェイを呼び出せなかった処理中の決済を削除（トランザクション内で実行）
+     */
+    private void discardPayment(Long paymentId) {
+        paymentRepository.findByIdForUpdate(paymentId)
+            .filter(payment -> payment.getStatus() == Payment.PaymentStatus.PROCESSING)
+            .ifPresent(payment -> {
+                paymentRepository.delete(payment);
+                dashboardSnapshot.onPaymentDeleted(payment);
+            });
+    }
+    
+    /**
+     * 結果が確定していない処理中の決済を、取引IDでゲートウェイに照会して確定する
+     * タイムアウト・通信エラーで結果が不明な決済と、処理中にプロセスが停止した決済が対象。
+     * ゲートウェイが課金要求を受け付けていない場合は失敗とし、照会できない場合は次回に再試行する
+     */
+    @Scheduled(fixedDelayString = "${payment.reconcile.interval-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconcileProcessingPayments() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(reconcileMinAgeMs, ChronoUnit.MILLIS);
+        List<Long> paymentIds = paymentRepository.findProcessingIdsCreatedBefore(
+            createdBefore, PageRequest.of(0, reconcileBatchSize));
+        int reconciled = 0;
+        for (Long paymentId : paymentIds) {
+            if (reconcile(paymentId)) {
+                reconciled++;
+            }
         }
-        
-        // Simulate mobile payment processing
-        boolean paymentSuccess = simulatePaymentGatewayCall();
-        
-        if (paymentSuccess) {
-            payment.setStatus(Payment.PaymentStatus.COMPLETED);
-            payment.setProcessedAt(LocalDateTime.now());
-            payment.setReceiptUrl(generateReceiptUrl(payment.getTransactionId()));
-        } else {
-            payment.setStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason("Mobile payment failed");
+        if (reconciled > 0) {
+            log.info("処理中の決済を照会で確定しました: count={}", reconciled);
         }
-        
-        return paymentRepository.save(payment);
     }
     
-    private Payment processQrCodePayment(Payment payment, PaymentRequest request) {
-        log.info("Processing QR code payment for session: {}", payment.getParkingSession().getId());
-        
-        if (request.getQrCodeData() == null) {
-            throw new IllegalArgumentException("QR code data is required");
+    private boolean reconcile(Long paymentId) {
+        Optional<Payment> processing = paymentRepository.findById(paymentId)
+            .filter(payment -> payment.getStatus() == Payment.PaymentStatus.PROCESSING);
+        if (processing.isEmpty()) {
+            return false;
         }
-        
-        // Generate QR code URL for payment
-        String qrCodeUrl = generateQrCodeUrl(payment.getTransactionId(), payment.getAmount());
-        
-        // For QR payments, we typically wait for external confirmation
-        // For demo purposes, we'll simulate immediate success
-        boolean paymentSuccess = simulatePaymentGatewayCall();
-        
-        if (paymentSuccess) {
-            payment.setStatus(Payment.PaymentStatus.COMPLETED);
-            payment.setProcessedAt(LocalDateTime.now());
-            payment.setReceiptUrl(generateReceiptUrl(payment.getTransactionId()));
-        } else {
-            payment.setStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason("QR payment failed");
+        Payment payment = processing.get();
+        Optional<PaymentGateway.Result> result;
+        try {
+            result = paymentGatewayClient.lookup(payment.getPaymentMethod(), payment.getTransactionId()).join();
+        } catch (CompletionException e) {
+            log.warn("決済の照会に失敗しました（次回再試行）: transactionId={}, reason={}",
+                payment.getTransactionId(), e.getCause().getMessage());
+            return false;
         }
-        
-        return paymentRepository.save(payment);
+        transactionTemplate.executeWithoutResult(status -> finalizePayment(paymentId, null,
+            result.orElse(null), result.isPresent() ? null : "Payment was not received by the gateway"));
+        return true;
     }
     
-    private Payment processElectronicWalletPayment(Payment payment, PaymentRequest request) {
-        log.info("Processing electronic wallet payment for session: {}", payment.getParkingSession().getId());
-        
-        if (request.getWalletId() == null || request.getWalletProvider() == null) {
-            throw new IllegalArgumentException("Wallet ID and provider are required");
-        }
-        
-        // Simulate electronic wallet payment
-        boolean paymentSuccess = simulatePaymentGatewayCall();
-        
-        if (paymentSuccess) {
-            payment.setStatus(Payment.PaymentStatus.COMPLETED);
-            payment.setProcessedAt(LocalDateTime.now());
-            payment.setReceiptUrl(generateReceiptUrl(payment.getTransactionId()));
-        } else {
-            payment.setStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason("Electronic wallet payment failed");
+    private void markSessionPaid(ParkingSession session) {
+        // Update parking session payment status
+        session.setPaymentStatus(ParkingSession.PaymentStatus.PAID);
+        parkingSessionRepository.save(session);
+    }
+    
+    private static String declineReason(Payment.PaymentMethod method) {
+        switch (method) {
+            case CREDIT_CARD:
+            case DEBIT_CARD:
+                return "Card payment declined";
+            case MOBILE_PAYMENT:
+                return "Mobile payment failed";
+            case QR_CODE:
+                return "QR payment failed";
+            case ELECTRONIC_WALLET:
+                return "Electronic wallet payment failed";
+            default:
+                return "Payment failed";
         }
-        
-        return paymentRepository.save(payment);
     }
     
-    private Payment processCashPayment(Payment payment, PaymentRequest request) {
-        log.info("Processing cash payment for session: {}", payment.getParkingSession().getId());
-        
-        // For cash payments, we assume immediate completion
-        payment.setStatus(Payment.PaymentStatus.COMPLETED);
-        payment.setProcessedAt(LocalDateTime.now());
-        payment.setReceiptUrl(generateReceiptUrl(payment.getTransactionId()));
+    /**
+     * 決済を取得
+     * @param paymentId 決済ID
+     * @return 決済レスポンス
+     * @throws IllegalArgumentException 決済が見つからない場合
+     */
+    @Transactional(readOnly = true)
+    public PaymentResponse getPayment(Long paymentId) {
+        PaymentResponse response = paymentRepository.findResponseById(paymentId)
+            .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + paymentId));
         
-        return paymentRepository.save(payment);
+        return withQrCodeUrl(response);
     }
     
+    /**
+     * セッションの最新の決済を取得（失敗後に再決済した場合は最後の試行）
+     * @param sessionId 駐車セッションID
+     * @return 決済レスポンス
+     * @throws IllegalArgumentException 決済が見つからない場合
+     */
+    @Transactional(readOnly = true)
     public PaymentResponse getPaymentBySessionId(Long sessionId) {
-        Payment payment = paymentRepository.findByParkingSessionId(sessionId)
+        PaymentResponse response = paymentRepository.findResponsesByParkingSessionId(sessionId, PageRequest.of(0, 1))
+            .stream()
+            .findFirst()
             .orElseThrow(() -> new IllegalArgumentException("Payment not found for session: " + sessionId));
         
-        return convertToPaymentResponse(payment);
+        return withQrCodeUrl(response);
     }
     
-    public List<PaymentResponse> getPaymentsByLicensePlate(String licensePlate) {
-        List<Payment> payments = paymentRepository.findByLicensePlate(licensePlate);
-        return payments.stream()
-            .map(this::convertToPaymentResponse)
-            .toList();
+    /**
+     * ナンバープレートで決済履歴をページ単位で取得（新しい順）
+     * (作成日時, 決済ID) のカーソルで次ページを取得する（セッション履歴と同じ形式）
+     * @param licensePlate ナンバープレート
+     * @param cursor 前ページの次ページカーソル（先頭ページの場合はnull）
+     * @param size 1ページの件数
+     * @return ページ（content, size, nextCursor）
+     * @throws IllegalArgumentException カーソルが不正な場合
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPaymentsPageByLicensePlate(String licensePlate, String cursor, int size) {
+        // 1件多く取得して次ページの有無を判定する
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<PaymentResponse> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = paymentRepository.findResponsesByLicensePlate(licensePlate, limit);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            rows = paymentRepository.findResponsesByLicensePlateAfter(
+                licensePlate, position.time(), position.id(), limit);
+        }
+        
+        boolean hasNext = rows.size() > size;
+        List<PaymentResponse> content = hasNext ? rows.subList(0, size) : rows;
+        content.forEach(PaymentService::withQrCodeUrl);
+        String nextCursor = null;
+        if (hasNext) {
+            PaymentResponse last = content.get(size - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getPaymentId()).encode();
+        }
+        Map<String, Object> page = new HashMap<>();
+        page.put("content", content);
+        page.put("size", content.size());
+        page.put("nextCursor", nextCursor);
+        return page;
     }
     
     public PaymentResponse refundPayment(Long paymentId) {
@@ -231,6 +425,7 @@ public class PaymentService {
         }
         
         // Simulate refund processing
+        Payment.PaymentStatus previousStatus = payment.getStatus();
         payment.setStatus(Payment.PaymentStatus.REFUNDED);
         payment.setProcessedAt(LocalDateTime.now());
         
@@ -239,30 +434,15 @@ public class PaymentService {
         session.setPaymentStatus(ParkingSession.PaymentStatus.PENDING);
         parkingSessionRepository.save(session);
         
-        return convertToPaymentResponse(paymentRepository.save(payment));
+        Payment savedPayment = paymentRepository.save(payment);
+        dashboardSnapshot.onPaymentStatusChanged(savedPayment, previousStatus);
+        revenueAggregationService.recordReversal(savedPayment);
+        return convertToPaymentResponse(savedPayment);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Map<String, Object> getPaymentStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        stats.put("totalPayments", paymentRepository.count());
-        stats.put("completedPayments", paymentRepository.countByStatus(Payment.PaymentStatus.COMPLETED));
-        stats.put("failedPayments", paymentRepository.countByStatus(Payment.PaymentStatus.FAILED));
-        stats.put("pendingPayments", paymentRepository.countByStatus(Payment.PaymentStatus.PENDING));
-        
-        // Revenue statistics
-        Double totalRevenue = paymentRepository.getTotalRevenueSince(LocalDateTime.now().minusDays(30));
-        stats.put("monthlyRevenue", totalRevenue != null ? totalRevenue : 0.0);
-        
-        // Payment method statistics
-        List<Object[]> methodStats = paymentRepository.getPaymentMethodStats();
-        Map<String, Long> methodCounts = new HashMap<>();
-        for (Object[] stat : methodStats) {
-            methodCounts.put(stat[0].toString(), (Long) stat[1]);
-        }
-        stats.put("paymentMethodStats", methodCounts);
-        
-        return stats;
+        return paymentStatisticsService.getPaymentStatistics();
     }
     
     private String generateTransactionId() {
@@ -273,16 +453,12 @@ public class PaymentService {
         return "https://parking-system.com/receipts/" + transactionId + ".pdf";
     }
     
-    private String generateQrCodeUrl(String transactionId, BigDecimal amount) {
+    private static String generateQrCodeUrl(String transactionId, BigDecimal amount) {
         return "https://parking-system.com/qr/" + transactionId + "?amount=" + amount;
     }
     
-    private boolean simulatePaymentGatewayCall() {
-        // Simulate payment gateway processing with 95% success rate
-        return Math.random() > 0.05;
-    }
-    
-    private String detectCardBrand(String cardNumber) {
+    // パッケージプライベート: JMHベンチマーク（src/jmh/java の com.parking.service）から参照する
+    static String detectCardBrand(String cardNumber) {
         if (cardNumber.startsWith("4")) {
             return "Visa";
         } else if (cardNumber.startsWith("5")) {
@@ -294,7 +470,7 @@ public class PaymentService {
         }
     }
     
-    private PaymentResponse convertToPaymentResponse(Payment payment) {
+    static PaymentResponse convertToPaymentResponse(Payment payment) {
         PaymentResponse response = new PaymentResponse();
         response.setPaymentId(payment.getId());
         response.setSessionId(payment.getParkingSession().getId());
@@ -310,11 +486,14 @@ public class PaymentService {
         response.setProcessedAt(payment.getProcessedAt());
         response.setCreatedAt(payment.getCreatedAt());
         
+        return withQrCodeUrl(response);
+    }
+    
+    private static PaymentResponse withQrCodeUrl(PaymentResponse response) {
         // Set QR code URL for QR payments
-        if (payment.getPaymentMethod() == Payment.PaymentMethod.QR_CODE) {
-            response.setQrCodeUrl(generateQrCodeUrl(payment.getTransactionId(), payment.getAmount()));
+        if (response.getPaymentMethod() == Payment.PaymentMethod.QR_CODE) {
+            response.setQrCodeUrl(generateQrCodeUrl(response.getTransactionId(), response.getAmount()));
         }
-        
         return response;
     }
 } 
\ No newline at end of file
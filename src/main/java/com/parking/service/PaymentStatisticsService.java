@@ -0,0 +1,134 @@
+package com.parking.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.parking.entity.Payment;
+import com.parking.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 決済統計サービス
+ * ステータス・決済方法別の1回の集計クエリから件数・売上をまとめて求め、短時間キャッシュする
+ *
+ * キャッシュの読み込みは同時に1件だけ実行されるため（single-flight）、ダッシュボードの閲覧が
+ * 集中しても集計クエリは有効期限ごとに最大1回となる。ヒット・ミス数は getCacheStatistics で参照できる。
+ */
+@Service
+@Slf4j
+public class PaymentStatisticsService {
+
+    /** 集計対象とする売上の期間（日） */
+    private static final int REVENUE_WINDOW_DAYS = 30;
+
+    /** キャッシュのキー（統計は1件のみ） */
+    private static final String KEY = "payment-statistics";
+
+    private final PaymentRepository paymentRepository;
+
+    /** 集計結果のキャッシュ */
+    private final LoadingCache<String, Map<String, Object>> statistics;
+
+    public PaymentStatisticsService(PaymentRepository paymentRepository,
+                                    @Value("${payment.statistics.cache-ttl-ms:5000}") long cacheTtlMs) {
+        this.paymentRepository = paymentRepository;
+        this.statistics = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .recordStats()
+                .build(key -> load());
+    }
+
+    /**
+     * 決済統計を取得（有効期限内はキャッシュを返す）
+     * @return 決済統計（変更不可）
+     */
+    public Map<String, Object> getPaymentStatistics() {
+        return statistics.get(KEY);
+    }
+
+    /**
+     * 統計キャッシュのヒット・ミス数を取得
+     * @return キャッシュ統計
+     */
+    public Map<String, Object> getCacheStatistics() {
+        CacheStats stats = statistics.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("missRate", stats.missRate());
+        result.put("loadCount", stats.loadCount());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        result.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+
+    /**
+     * キャッシュを破棄（次回の取得で再集計する）
+     */
+    void invalidate() {
+        statistics.invalidateAll();
+    }
+
+    /**
+     * ステータス・決済方法別の集計から統計を作成
+     */
+    private Map<String, Object> load() {
+        long total = 0;
+        long completed = 0;
+        long failed = 0;
+        long pending = 0;
+        BigDecimal monthlyRevenue = BigDecimal.ZERO;
+        Map<String, Long> methodCounts = new HashMap<>();
+
+        LocalDateTime since = LocalDateTime.now().minusDays(REVENUE_WINDOW_DAYS);
+        for (Object[] row : paymentRepository.summarizeByStatusAndPaymentMethod(since)) {
+            Payment.PaymentStatus status = (Payment.PaymentStatus) row[0];
+            Payment.PaymentMethod method = (Payment.PaymentMethod) row[1];
+            long count = ((Number) row[2]).longValue();
+            total += count;
+            switch (status) {
+                case COMPLETED:
+                    completed += count;
+                    methodCounts.merge(method.toString(), count, Long::sum);
+                    monthlyRevenue = monthlyRevenue.add(toBigDecimal(row[3]));
+                    break;
+                case FAILED:
+                    failed += count;
+                    break;
+                case PENDING:
+                    pending += count;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalPayments", total);
+        stats.put("completedPayments", completed);
+        stats.put("failedPayments", failed);
+        stats.put("pendingPayments", pending);
+        stats.put("monthlyRevenue", monthlyRevenue.doubleValue());
+        stats.put("paymentMethodStats", Collections.unmodifiableMap(methodCounts));
+        log.debug("決済統計を集計しました: total={}", total);
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
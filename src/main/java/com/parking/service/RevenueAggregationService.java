@@ -0,0 +1,182 @@
+package com.parking.service;
+
+import com.parking.entity.Payment;
+import com.parking.repository.RevenueRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * 売上集計サービス
+ * 完了した決済を時間別ロールアップに積み上げ、日次・週次・月次の売上レポートを生成する
+ *
+ * ロールアップは決済と同じトランザクション内で加算されるため、
+ * レポートは決済テーブルを走査せず、期間内の時間別行（最大で約750行×決済方法数×ストライプ数）だけを読む。
+ * 同じ時間帯・決済方法の決済が同時に完了しても1行の行ロックで直列化されないよう、
+ * 加算先は決済IDごとにストライプへ分散させる。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueAggregationService {
+
+    private final RevenueRollupRepository revenueRollupRepository;
+
+    /** 時間帯・決済方法ごとのストライプ数（1 で分散なし） */
+    @Value("${parking.revenue.rollup-stripes:16}")
+    private int rollupStripes;
+
+    // ==================== ロールアップの更新 ====================
+
+    /**
+     * 完了した決済をロールアップに加算
+     * @param payment 完了した決済
+     */
+    @Transactional
+    public void recordCompleted(Payment payment) {
+        apply(payment, payment.getAmount(), 1);
+    }
+
+    /**
+     * 完了済みだった決済（返金等）をロールアップから差し引く
+     * @param payment 完了済みではなくなった決済
+     */
+    @Transactional
+    public void recordReversal(Payment payment) {
+        apply(payment, payment.getAmount().negate(), -1);
+    }
+
+    /**
+     * 決済テーブル（アーカイブを含む）からロールアップを再構築
+     * 既存データの取り込みや誤差の補正に使用する
+     * @return 作成されたロールアップ行数
+     */
+    @Transactional
+    public int rebuild() {
+        revenueRollupRepository.deleteAllRollups();
+        int rows = revenueRollupRepository.rebuildHourlyRollups();
+        if (revenueRollupRepository.archiveTableExists()) {
+            // アーカイブ済みの決済も含める
+            rows += revenueRollupRepository.addArchivedHourlyRollups();
+        }
+        log.info("売上ロールアップを再構築しました: rows={}", rows);
+        return rows;
+    }
+
+    private void apply(Payment payment, BigDecimal amount, long count) {
+        LocalDateTime createdAt = payment.getCreatedAt() != null ? payment.getCreatedAt() : LocalDateTime.now();
+        revenueRollupRepository.addToHourlyRollup(
+            createdAt.truncatedTo(ChronoUnit.HOURS), payment.getPaymentMethod().name(), stripeOf(payment), amount, count);
+    }
+
+    /**
+     * 加算先のストライプ（連番の決済IDは隣り合うストライプに分かれる）
+     */
+    private int stripeOf(Payment payment) {
+        int stripes = Math.max(1, rollupStripes);
+        return payment.getId() != null
+            ? (int) Math.floorMod(payment.getId(), (long) stripes)
+            : ThreadLocalRandom.current().nextInt(stripes);
+    }
+
+    // ==================== レポート ====================
+
+    /**
+     * 今日の売上レポートを生成（時間別）
+     * @return 日次売上データ
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDailyReport() {
+        LocalDateTime start = LocalDate.now().atStartOfDay();
+        return buildReport(start, start.plusDays(1), "hourlyData",
+            bucket -> String.format("%02d:00", bucket.getHour()));
+    }
+
+    /**
+     * 直近7日間（今日を含む）の売上レポートを生成（曜日別）
+     * @return 週次売上データ
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getWeeklyReport() {
+        LocalDateTime start = LocalDate.now().minusDays(6).atStartOfDay();
+        Map<String, Object> report = buildReport(start, start.plusDays(7), "dailyData",
+            bucket -> dayName(bucket.getDayOfWeek()));
+        fillMissingKeys(report, "dailyData", start.toLocalDate(), 7);
+        return report;
+    }
+
+    /**
+     * 今月の売上レポートを生成（週別、1日から7日ごとに Week 1, Week 2, ...）
+     * @return 月次売上データ
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getMonthlyReport() {
+        LocalDateTime start = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        return buildReport(start, start.plusMonths(1), "weeklyData",
+            bucket -> "Week " + ((bucket.getDayOfMonth() - 1) / 7 + 1));
+    }
+
+    private Map<String, Object> buildReport(LocalDateTime start, LocalDateTime end, String seriesKey,
+                                            Function<LocalDateTime, String> bucketLabel) {
+        List<Object[]> rows = revenueRollupRepository.getHourlyTotals(start, end);
+
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long transactionCount = 0;
+        Map<String, BigDecimal> series = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            LocalDateTime bucket = (LocalDateTime) row[0];
+            BigDecimal amount = (BigDecimal) row[1];
+            long count = ((Number) row[2]).longValue();
+            totalRevenue = totalRevenue.add(amount);
+            transactionCount += count;
+            series.merge(bucketLabel.apply(bucket), amount, BigDecimal::add);
+        }
+
+        Map<String, Double> seriesData = new LinkedHashMap<>();
+        series.forEach((label, amount) -> seriesData.put(label, amount.doubleValue()));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("totalRevenue", totalRevenue.doubleValue());
+        data.put("transactionCount", transactionCount);
+        data.put("averageTransaction", transactionCount > 0
+            ? totalRevenue.divide(BigDecimal.valueOf(transactionCount), 2, RoundingMode.HALF_UP).doubleValue()
+            : 0.0);
+        data.put(seriesKey, seriesData);
+        return data;
+    }
+
+    /**
+     * 売上のない日も0として曜日順に並べ直す
+     */
+    @SuppressWarnings("unchecked")
+    private void fillMissingKeys(Map<String, Object> report, String seriesKey, LocalDate firstDay, int days) {
+        Map<String, Double> series = (Map<String, Double>) report.get(seriesKey);
+        Map<String, Double> ordered = new LinkedHashMap<>();
+        for (int i = 0; i < days; i++) {
+            String label = dayName(firstDay.plusDays(i).getDayOfWeek());
+            ordered.put(label, series.getOrDefault(label, 0.0));
+        }
+        report.put(seriesKey, ordered);
+    }
+
+    private static String dayName(DayOfWeek dayOfWeek) {
+        return dayOfWeek.getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+    }
+}
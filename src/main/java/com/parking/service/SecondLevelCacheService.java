@@ -0,0 +1,97 @@
+package com.parking.service;
+
+import com.parking.entity.ParkingSpot;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate二次キャッシュの管理サービス
+ * Hibernateを経由しない更新（Doma等）の後のキャッシュ破棄と、領域ごとのヒット・ミス数の参照を提供する
+ */
+@Service
+@RequiredArgsConstructor
+public class SecondLevelCacheService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /** 二次キャッシュが有効か（SecondLevelCacheConfig と同じ設定） */
+    @Value("${parking.second-level-cache.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * JPAを経由しないスペットの変更のコミット後に、スペットを二次キャッシュから破棄
+     * 占有インデックスがDBから読み直す前に破棄するため、他のリスナーより先に実行する
+     * @param event 変更されたスペット
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSpotsChangedExternally(SpotsChangedExternallyEvent event) {
+        evictParkingSpots(event.spotIds());
+    }
+
+    /**
+     * スペットを二次キャッシュから破棄
+     * コミット後に呼び出すこと（コミット前に破棄すると、更新前の内容が再びキャッシュされることがある）
+     * スペット番号が変更されている場合があるため、スペット番号の対応もすべて破棄する
+     * @param spotIds スペットIDのリスト
+     */
+    public void evictParkingSpots(Collection<Long> spotIds) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        for (Long spotId : spotIds) {
+            cache.evictEntityData(ParkingSpot.class, spotId);
+        }
+        cache.evictNaturalIdData(ParkingSpot.class);
+    }
+
+    /**
+     * 二次キャッシュの領域ごとのヒット・ミス数を取得
+     * @return キャッシュ統計（無効の場合は enabled=false）
+     */
+    public Map<String, Object> getCacheStatistics() {
+        SessionFactory sessionFactory = sessionFactory();
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("hitCount", statistics.getSecondLevelCacheHitCount());
+        result.put("missCount", statistics.getSecondLevelCacheMissCount());
+        result.put("hitRate", hitRate(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        result.put("entityLoadCount", statistics.getEntityLoadCount());
+        result.put("prepareStatementCount", statistics.getPrepareStatementCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("hitCount", region.getHitCount());
+            regionStats.put("missCount", region.getMissCount());
+            regionStats.put("putCount", region.getPutCount());
+            regionStats.put("hitRate", hitRate(region.getHitCount(), region.getMissCount()));
+            regions.put(regionName, regionStats);
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,481 @@
+package com.parking.service;
+
+import com.parking.entity.ParkingSpot;
+import com.parking.repository.ParkingSpotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 駐車場スペット占有インデックス
+ * スペットの状態をメモリ上に保持し、DBへの往復なしで空き判定とスペットの確保を行う
+ *
+ * スロットごとに（スペット、状態）の組を不変オブジェクトとして保持してCASで遷移させ、
+ * スペットタイプ別のビットセットを空きスペット検索のヒントとして、状態別・タイプ別・階層別の
+ * カウンタを集計値として保持する。確保・解放はロックフリーで、スペットの追加・削除などの
+ * 構造変更のみ同期化する。削除したスペットのスロットは空きリストに戻して再利用する。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SpotOccupancyIndex {
+
+    /** 1セグメントあたりのスロット数（64の倍数） */
+    private static final int SEGMENT_SIZE = 1024;
+
+    /** 一括反映時にDBから1回で読み込むスペット数 */
+    private static final int REFRESH_CHUNK_SIZE = 1000;
+
+    private static final ParkingSpot.SpotType[] TYPES = ParkingSpot.SpotType.values();
+    private static final ParkingSpot.SpotStatus[] STATUSES = ParkingSpot.SpotStatus.values();
+    private static final int AVAILABLE = ParkingSpot.SpotStatus.AVAILABLE.ordinal();
+    private static final int OCCUPIED = ParkingSpot.SpotStatus.OCCUPIED.ordinal();
+
+    private final ParkingSpotRepository parkingSpotRepository;
+
+    /** 現在のインデックス状態（再構築時に丸ごと差し替える） */
+    private volatile State state = new State();
+
+    /** DBからの初期ロードが完了したか */
+    private volatile boolean ready;
+
+    // ==================== 初期化 ====================
+
+    /**
+     * アプリケーション起動完了時にDBからインデックスを構築
+     * DataLoaderによるサンプルデータ投入後に実行される
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * DBの内容からインデックスを再構築
+     */
+    public synchronized void reload() {
+        State fresh = new State();
+        for (ParkingSpot spot : parkingSpotRepository.findAll()) {
+            attach(fresh, fresh.allocateSlot(spot.getId()), copyOf(spot, spot.getStatus()));
+        }
+        state = fresh;
+        ready = true;
+        log.info("スペット占有インデックスを構築しました: {}件", fresh.slots.size());
+    }
+
+    /**
+     * インデックスが利用可能か
+     * @return 初期ロード済みの場合true
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==================== 確保・解放 ====================
+
+    /**
+     * 指定スペットを確保（AVAILABLE → OCCUPIED）
+     * トランザクション中に呼ばれた場合、ロールバック時に確保を自動的に取り消す
+     * @param spotId スペットID
+     * @return 確保できた場合true（未登録または利用不可の場合false）
+     */
+    public boolean tryClaim(Long spotId) {
+        State s = state;
+        Integer slot = s.slots.get(spotId);
+        if (slot == null || claimSlot(s, slot, spotId, null) == null) {
+            return false;
+        }
+        releaseOnRollback(spotId);
+        return true;
+    }
+
+    /**
+     * 指定タイプの空きスペットを1件確保
+     * トランザクション中に呼ばれた場合、ロールバック時に確保を自動的に取り消す
+     * @param spotType スペットタイプ
+     * @return 確保したスペットID（空きがない場合は空）
+     */
+    public Optional<Long> claimAny(ParkingSpot.SpotType spotType) {
+        State s = state;
+        int type = spotType.ordinal();
+        if (s.availableByType.get(type) <= 0) {
+            return Optional.empty();
+        }
+        Segment[] segments = s.segments;
+        for (int seg = 0; seg < segments.length; seg++) {
+            AtomicLongArray bits = segments[seg].freeBits[type];
+            for (int w = 0; w < bits.length(); w++) {
+                long word = bits.get(w);
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    int slot = seg * SEGMENT_SIZE + w * 64 + bit;
+                    ParkingSpot claimed = claimSlot(s, slot, null, spotType);
+                    if (claimed != null) {
+                        releaseOnRollback(claimed.getId());
+                        return Optional.of(claimed.getId());
+                    }
+                    word &= word - 1;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 指定スペットを解放（OCCUPIED → AVAILABLE）
+     * トランザクション中に呼ばれた場合、コミット後に反映する
+     * @param spotId スペットID
+     */
+    public void release(Long spotId) {
+        TransactionCallbacks.afterCommit(() -> {
+            State s = state;
+            Integer slot = s.slots.get(spotId);
+            if (slot != null) {
+                releaseSlot(s, slot, spotId);
+            }
+        });
+    }
+
+    // ==================== 構造変更 ====================
+
+    /**
+     * スペット情報をインデックスに反映（追加または置き換え）
+     * トランザクション中に呼ばれた場合、コミット後に反映する
+     * @param spot スペット
+     */
+    public void refresh(ParkingSpot spot) {
+        ParkingSpot snapshot = copyOf(spot, spot.getStatus());
+        TransactionCallbacks.afterCommit(() -> upsert(snapshot));
+    }
+
+    /**
+     * インデックスがDBより古い場合に、読み込んだスペットの状態で補正
+     * トランザクション中に呼ばれた場合、コミット・ロールバックを問わず完了後に反映する
+     * （同一トランザクションで確保したスロットのロールバック解放より後に適用される）
+     * @param spot DBから読み込んだスペット
+     */
+    public void resync(ParkingSpot spot) {
+        ParkingSpot snapshot = copyOf(spot, spot.getStatus());
+        TransactionCallbacks.afterCompletion(() -> upsert(snapshot));
+    }
+
+    /**
+     * JPAを経由しないスペットの変更（Doma等）のコミット後に、DBから読み直してインデックスに反映
+     * DBに存在しないスペットはインデックスから削除する
+     * （二次キャッシュの破棄は SecondLevelCacheService のリスナーが先に行う）
+     * @param event 変更されたスペット
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSpotsChangedExternally(SpotsChangedExternallyEvent event) {
+        List<Long> ids = event.spotIds();
+        Set<Long> found = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += REFRESH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + REFRESH_CHUNK_SIZE));
+            for (ParkingSpot spot : parkingSpotRepository.findAllById(chunk)) {
+                upsert(copyOf(spot, spot.getStatus()));
+                found.add(spot.getId());
+            }
+        }
+        for (Long spotId : ids) {
+            if (!found.contains(spotId)) {
+                remove(spotId);
+            }
+        }
+    }
+
+    /**
+     * スペットをインデックスから削除
+     * トランザクション中に呼ばれた場合、コミット後に反映する
+     * @param spotId スペットID
+     */
+    public void evict(Long spotId) {
+        TransactionCallbacks.afterCommit(() -> remove(spotId));
+    }
+
+    private synchronized void upsert(ParkingSpot snapshot) {
+        State s = state;
+        Integer slot = s.slots.get(snapshot.getId());
+        if (slot == null) {
+            slot = s.allocateSlot(snapshot.getId());
+        } else {
+            detach(s, slot);
+        }
+        attach(s, slot, snapshot);
+    }
+
+    private synchronized void remove(Long spotId) {
+        State s = state;
+        Integer slot = s.slots.remove(spotId);
+        if (slot != null) {
+            detach(s, slot);
+            s.freeSlots.push(slot);
+        }
+    }
+
+    // ==================== 参照 ====================
+
+    /**
+     * 指定状態のスペット数を取得
+     * @param status スペット状態
+     * @return スペット数
+     */
+    public long countByStatus(ParkingSpot.SpotStatus status) {
+        return state.statusCounts.get(status.ordinal());
+    }
+
+    /**
+     * 指定スペットのスナップショットを現在の状態付きで取得
+     * @param spotId スペットID
+     * @return スペット（未登録の場合は空）
+     */
+    public Optional<ParkingSpot> getSpot(Long spotId) {
+        State s = state;
+        Integer slot = s.slots.get(spotId);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        Entry entry = s.segment(slot).entries.get(slot % SEGMENT_SIZE);
+        if (entry == null || !entry.spot().getId().equals(spotId)) {
+            return Optional.empty();
+        }
+        return Optional.of(copyOf(entry.spot(), STATUSES[entry.status()]));
+    }
+
+    /**
+     * 階層別の空きスペット数を取得
+     * @return 階層レベル → 空きスペット数
+     */
+    public Map<Integer, Long> getAvailableCountByFloor() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        state.availableByFloor.forEach((floor, count) -> counts.put(floor, count.get()));
+        return counts;
+    }
+
+    /**
+     * 利用可能なスペットのスナップショットを取得
+     * @return 利用可能なスペットのリスト（ID順）
+     */
+    public List<ParkingSpot> getAvailableSpots() {
+        return collectAvailable(null);
+    }
+
+    /**
+     * 指定タイプの利用可能なスペットのスナップショットを取得
+     * @param spotType スペットタイプ
+     * @return 利用可能なスペットのリスト（ID順）
+     */
+    public List<ParkingSpot> getAvailableSpots(ParkingSpot.SpotType spotType) {
+        return collectAvailable(spotType);
+    }
+
+    private List<ParkingSpot> collectAvailable(ParkingSpot.SpotType spotType) {
+        State s = state;
+        List<ParkingSpot> result = new ArrayList<>();
+        for (Segment segment : s.segments) {
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                Entry entry = segment.entries.get(i);
+                if (entry != null && entry.status() == AVAILABLE
+                        && (spotType == null || entry.spot().getSpotType() == spotType)) {
+                    result.add(copyOf(entry.spot(), ParkingSpot.SpotStatus.AVAILABLE));
+                }
+            }
+        }
+        result.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        return result;
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * スロットをAVAILABLEからOCCUPIEDへ遷移させる
+     * スペットと状態の組をCASで置き換えるため、確保したスペットは並行する削除・再利用の影響を受けない。
+     * 状態のCASに勝ったスレッドのみがビットとカウンタを更新する
+     * @param spotId 確保するスペットID（タイプで選ぶ場合はnull）
+     * @param spotType 確保するスペットタイプ（IDで選ぶ場合はnull）
+     * @return 確保したスペット（確保できなかった場合はnull）
+     */
+    private ParkingSpot claimSlot(State s, int slot, Long spotId, ParkingSpot.SpotType spotType) {
+        Segment segment = s.segment(slot);
+        int i = slot % SEGMENT_SIZE;
+        Entry entry = segment.entries.get(i);
+        if (entry == null || entry.status() != AVAILABLE
+                || (spotId != null && !entry.spot().getId().equals(spotId))
+                || (spotType != null && entry.spot().getSpotType() != spotType)
+                || !segment.entries.compareAndSet(i, entry, new Entry(entry.spot(), OCCUPIED))) {
+            return null;
+        }
+        ParkingSpot spot = entry.spot();
+        clearBit(segment.freeBits[spot.getSpotType().ordinal()], i);
+        s.statusCounts.decrementAndGet(AVAILABLE);
+        s.statusCounts.incrementAndGet(OCCUPIED);
+        s.availableByType.decrementAndGet(spot.getSpotType().ordinal());
+        adjustFloor(s, spot, -1);
+        return spot;
+    }
+
+    /**
+     * スロットをOCCUPIEDからAVAILABLEへ遷移させる（スロットが指定スペットのものである場合のみ）
+     */
+    private void releaseSlot(State s, int slot, Long spotId) {
+        Segment segment = s.segment(slot);
+        int i = slot % SEGMENT_SIZE;
+        Entry entry;
+        do {
+            entry = segment.entries.get(i);
+            if (entry == null || entry.status() != OCCUPIED || !entry.spot().getId().equals(spotId)) {
+                return;
+            }
+        } while (!segment.entries.compareAndSet(i, entry, new Entry(entry.spot(), AVAILABLE)));
+        ParkingSpot spot = entry.spot();
+        s.statusCounts.decrementAndGet(OCCUPIED);
+        s.statusCounts.incrementAndGet(AVAILABLE);
+        s.availableByType.incrementAndGet(spot.getSpotType().ordinal());
+        adjustFloor(s, spot, 1);
+        setBit(segment.freeBits[spot.getSpotType().ordinal()], i);
+    }
+
+    /**
+     * スロットにスペットのスナップショットを登録（スロットは未使用状態であること）
+     */
+    private void attach(State s, int slot, ParkingSpot snapshot) {
+        Segment segment = s.segment(slot);
+        int i = slot % SEGMENT_SIZE;
+        int status = snapshot.getStatus().ordinal();
+        s.statusCounts.incrementAndGet(status);
+        if (status == AVAILABLE) {
+            s.availableByType.incrementAndGet(snapshot.getSpotType().ordinal());
+            adjustFloor(s, snapshot, 1);
+        }
+        segment.entries.set(i, new Entry(snapshot, status));
+        if (status == AVAILABLE) {
+            setBit(segment.freeBits[snapshot.getSpotType().ordinal()], i);
+        }
+    }
+
+    /**
+     * スロットからスペットを外して未使用状態にする
+     * 並行する確保・解放とはスロットのCASで調停する
+     */
+    private void detach(State s, int slot) {
+        Segment segment = s.segment(slot);
+        int i = slot % SEGMENT_SIZE;
+        Entry entry;
+        do {
+            entry = segment.entries.get(i);
+            if (entry == null) {
+                return;
+            }
+        } while (!segment.entries.compareAndSet(i, entry, null));
+        ParkingSpot spot = entry.spot();
+        clearBit(segment.freeBits[spot.getSpotType().ordinal()], i);
+        s.statusCounts.decrementAndGet(entry.status());
+        if (entry.status() == AVAILABLE) {
+            s.availableByType.decrementAndGet(spot.getSpotType().ordinal());
+            adjustFloor(s, spot, -1);
+        }
+    }
+
+    private void adjustFloor(State s, ParkingSpot spot, long delta) {
+        if (spot.getFloorLevel() != null) {
+            s.availableByFloor.computeIfAbsent(spot.getFloorLevel(), floor -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    private static void setBit(AtomicLongArray bits, int i) {
+        bits.getAndAccumulate(i >>> 6, 1L << (i & 63), (word, mask) -> word | mask);
+    }
+
+    private static void clearBit(AtomicLongArray bits, int i) {
+        bits.getAndAccumulate(i >>> 6, ~(1L << (i & 63)), (word, mask) -> word & mask);
+    }
+
+    private void releaseOnRollback(Long spotId) {
+        TransactionCallbacks.afterRollback(() -> {
+            State s = state;
+            Integer slot = s.slots.get(spotId);
+            if (slot != null) {
+                releaseSlot(s, slot, spotId);
+            }
+        });
+    }
+
+    private static ParkingSpot copyOf(ParkingSpot spot, ParkingSpot.SpotStatus status) {
+        return new ParkingSpot(spot.getId(), spot.getSpotNumber(), spot.getSpotType(), status,
+                spot.getFloorLevel(), spot.getHourlyRate(), spot.getCreatedAt(), spot.getUpdatedAt(),
+                spot.getVersion());
+    }
+
+    /**
+     * スロットに登録したスペットと状態（状態の遷移ごとに新しいインスタンスに置き換える）
+     */
+    private record Entry(ParkingSpot spot, int status) {
+    }
+
+    /**
+     * 固定長スロットの集まり（未使用のスロットはnull）
+     * 一度公開したセグメントは移動しないため、拡張中も並行CASが失われない
+     */
+    private static final class Segment {
+        final AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(SEGMENT_SIZE);
+        final AtomicLongArray[] freeBits = new AtomicLongArray[TYPES.length];
+
+        Segment() {
+            for (int t = 0; t < TYPES.length; t++) {
+                freeBits[t] = new AtomicLongArray(SEGMENT_SIZE / 64);
+            }
+        }
+    }
+
+    /**
+     * インデックス全体の状態
+     */
+    private static final class State {
+        final ConcurrentHashMap<Long, Integer> slots = new ConcurrentHashMap<>();
+        final AtomicLongArray statusCounts = new AtomicLongArray(STATUSES.length);
+        final AtomicLongArray availableByType = new AtomicLongArray(TYPES.length);
+        final ConcurrentHashMap<Integer, AtomicLong> availableByFloor = new ConcurrentHashMap<>();
+        volatile Segment[] segments = new Segment[0];
+        /** 削除したスペットのスロット（構造変更のロック下で使用） */
+        final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+        int nextSlot;
+
+        Segment segment(int slot) {
+            return segments[slot / SEGMENT_SIZE];
+        }
+
+        /** 構造変更のロック下で呼び出すこと（空きリストのスロットを優先して再利用する） */
+        int allocateSlot(Long spotId) {
+            Integer free = freeSlots.poll();
+            if (free != null) {
+                slots.put(spotId, free);
+                return free;
+            }
+            int slot = nextSlot++;
+            if (slot / SEGMENT_SIZE >= segments.length) {
+                Segment[] grown = Arrays.copyOf(segments, segments.length + 1);
+                grown[grown.length - 1] = new Segment();
+                segments = grown;
+            }
+            slots.put(spotId, slot);
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.parking.service;
+
+import java.util.List;
+
+/**
+ * JPAを経由せずに（Doma等で）スペットを作成・更新・削除したことを表すイベント
+ * コミット後に、二次キャッシュの破棄（SecondLevelCacheService）と
+ * 占有インデックスへの反映（SpotOccupancyIndex）を行う
+ *
+ * @param spotIds 変更されたスペットIDのリスト
+ */
+public record SpotsChangedExternallyEvent(List<Long> spotIds) {
+
+    public SpotsChangedExternallyEvent {
+        spotIds = List.copyOf(spotIds);
+    }
+}
@@ -0,0 +1,78 @@
+package com.parking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ローカル用のスタブ決済ゲートウェイ
+ * 遅延・拒否率・エラー率を設定でき、外部事業者なしで決済処理のスループットを計測できる
+ *
+ * 通信エラーは課金を処理した後に応答が失われた場合を模擬する（結果は照会で取得できる）。
+ * 課金結果は照会用に直近の一定件数を保持する。
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway.type", havingValue = "stub", matchIfMissing = true)
+@Slf4j
+public class StubPaymentGateway implements PaymentGateway {
+
+    /** 照会用に保持する課金結果の件数 */
+    private static final long RESULT_CACHE_SIZE = 100_000;
+
+    /** 応答までの遅延（ミリ秒） */
+    private final long delayMs;
+
+    /** 遅延のばらつき（ミリ秒、0〜指定値を加算） */
+    private final long jitterMs;
+
+    /** 拒否（カード拒否など）となる割合 */
+    private final double declineRate;
+
+    /** 通信エラーとなる割合 */
+    private final double errorRate;
+
+    /** 照会用の課金結果（キー: 取引ID） */
+    private final Cache<String, Result> results = Caffeine.newBuilder()
+        .maximumSize(RESULT_CACHE_SIZE)
+        .build();
+
+    public StubPaymentGateway(@Value("${payment.gateway.simulated-delay-ms:0}") long delayMs,
+                              @Value("${payment.gateway.stub.jitter-ms:0}") long jitterMs,
+                              @Value("${payment.gateway.stub.decline-rate:0.05}") double declineRate,
+                              @Value("${payment.gateway.stub.error-rate:0}") double errorRate) {
+        this.delayMs = delayMs;
+        this.jitterMs = jitterMs;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+        log.info("スタブ決済ゲートウェイを使用します: delay={}ms, jitter={}ms, declineRate={}, errorRate={}",
+            delayMs, jitterMs, declineRate, errorRate);
+    }
+
+    @Override
+    public Result charge(Charge charge) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = delayMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+        boolean approved = random.nextDouble() >= declineRate;
+        Result result = new Result(approved, approved ? "GW-" + UUID.randomUUID() : null);
+        results.put(charge.transactionId(), result);
+        if (random.nextDouble() < errorRate) {
+            throw new IllegalStateException("Stub gateway error for " + charge.transactionId());
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Result> lookup(String transactionId) {
+        return Optional.ofNullable(results.getIfPresent(transactionId));
+    }
+}
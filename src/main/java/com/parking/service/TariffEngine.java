@@ -0,0 +1,205 @@
+package com.parking.service;
+
+import com.parking.config.TariffProperties;
+import com.parking.entity.ParkingSpot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 料金計算エンジン
+ * 料金ルール（猶予時間・課金単位・24時間上限・時間帯別料率）をスペットタイプごとの
+ * 不変な料率テーブルに事前コンパイルし、セッション料金を整数の最小通貨単位で計算する
+ * 基本料金は1時間あたりの料金で、課金単位の料金は課金単位の長さで按分する（30分単位なら半額）
+ *
+ * 課金単位ごとの料率は開始時刻の時間帯で決まる。同じ開始分の剰余で並ぶ課金単位の料率を
+ * 累積和として持つため、1セッションの計算は駐車時間に関係なく定数時間でオブジェクトを生成しない。
+ */
+@Component
+@Slf4j
+public class TariffEngine {
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    /** 料率の基準値（100% = 10000ベーシスポイント） */
+    private static final int FULL_RATE_BPS = 10_000;
+
+    /** 基本料金の対象時間（分） */
+    private static final int MINUTES_PER_HOUR = 60;
+
+    private static final ParkingSpot.SpotType[] TYPES = ParkingSpot.SpotType.values();
+
+    /** スペットタイプ別のコンパイル済み料率テーブル（ordinal順） */
+    private final CompiledTariff[] tariffs = new CompiledTariff[TYPES.length];
+
+    public TariffEngine(TariffProperties properties) {
+        for (ParkingSpot.SpotType type : TYPES) {
+            TariffProperties.Rule override = properties.getTypes().get(type);
+            tariffs[type.ordinal()] = compile(type, properties.getDefaults(),
+                override != null ? override : new TariffProperties.Rule());
+        }
+    }
+
+    /**
+     * セッション料金を計算
+     * @param spotType スペットタイプ
+     * @param hourlyRate 基本料金（1時間あたり）
+     * @param entryTime 入庫時刻
+     * @param exitTime 出庫時刻
+     * @return 料金
+     */
+    public BigDecimal calculateFee(ParkingSpot.SpotType spotType, Double hourlyRate,
+                                   LocalDateTime entryTime, LocalDateTime exitTime) {
+        long rateMinor = BigDecimal.valueOf(hourlyRate).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        long minutes = Duration.between(entryTime, exitTime).toMinutes();
+        long feeMinor = priceMinor(spotType, rateMinor, entryTime.getHour() * 60 + entryTime.getMinute(), minutes);
+        return BigDecimal.valueOf(feeMinor, 2);
+    }
+
+    /**
+     * セッション料金を最小通貨単位で計算
+     * @param spotType スペットタイプ
+     * @param rateMinor 基本料金（1時間あたり、最小通貨単位）
+     * @param entryMinuteOfDay 入庫時刻（0時からの分）
+     * @param durationMinutes 駐車時間（分）
+     * @return 料金（最小通貨単位）
+     */
+    public long priceMinor(ParkingSpot.SpotType spotType, long rateMinor, int entryMinuteOfDay, long durationMinutes) {
+        return tariffs[spotType.ordinal()].price(rateMinor, entryMinuteOfDay, Math.max(0, durationMinutes));
+    }
+
+    /**
+     * ルール定義を料率テーブルにコンパイル
+     */
+    private static CompiledTariff compile(ParkingSpot.SpotType type, TariffProperties.Rule defaults,
+                                          TariffProperties.Rule override) {
+        int grace = firstNonNull(override.getGraceMinutes(), defaults.getGraceMinutes(), 0);
+        int unit = firstNonNull(override.getUnitMinutes(), defaults.getUnitMinutes(), 60);
+        int capHours = firstNonNull(override.getDailyCapHours(), defaults.getDailyCapHours(), 0);
+        if (grace < 0 || capHours < 0) {
+            throw new IllegalArgumentException("Tariff grace and daily cap must not be negative: " + type);
+        }
+        if (unit <= 0 || MINUTES_PER_DAY % unit != 0) {
+            throw new IllegalArgumentException("Tariff unit minutes must divide 1440: " + type + "=" + unit);
+        }
+
+        // 分単位の料率（後の定義が優先）
+        int[] bpsByMinute = new int[MINUTES_PER_DAY];
+        Arrays.fill(bpsByMinute, FULL_RATE_BPS);
+        List<String> bands = override.getBands().isEmpty() ? defaults.getBands() : override.getBands();
+        for (String band : bands) {
+            applyBand(bpsByMinute, type, band);
+        }
+
+        // 剰余ごとに、課金単位の開始分の料率×課金単位の分数を2周分の累積和で保持する
+        // （1時間分の基本料金に対する割合 = 累積値 / (FULL_RATE_BPS × 60)）
+        int unitsPerDay = MINUTES_PER_DAY / unit;
+        int stride = 2 * unitsPerDay + 1;
+        long[] prefix = new long[unit * stride];
+        for (int residue = 0; residue < unit; residue++) {
+            int base = residue * stride;
+            for (int i = 0; i < 2 * unitsPerDay; i++) {
+                int minute = residue + (i % unitsPerDay) * unit;
+                prefix[base + i + 1] = prefix[base + i] + (long) bpsByMinute[minute] * unit;
+            }
+        }
+
+        long cap = capHours > 0 ? (long) capHours * FULL_RATE_BPS * MINUTES_PER_HOUR : Long.MAX_VALUE;
+        log.info("料金テーブルをコンパイルしました: type={}, grace={}min, unit={}min, dailyCapHours={}, bands={}",
+            type, grace, unit, capHours, bands);
+        return new CompiledTariff(grace, unit, unitsPerDay, stride, cap, prefix);
+    }
+
+    /**
+     * "HH:mm-HH:mm=パーセント" の時間帯料率を適用（終了時刻が開始時刻以前の場合は日をまたぐ）
+     */
+    private static void applyBand(int[] bpsByMinute, ParkingSpot.SpotType type, String band) {
+        try {
+            int eq = band.indexOf('=');
+            int dash = band.indexOf('-');
+            int start = minuteOfDay(band.substring(0, dash));
+            int end = minuteOfDay(band.substring(dash + 1, eq));
+            int bps = new BigDecimal(band.substring(eq + 1).trim()).movePointRight(2).intValueExact();
+            if (bps < 0) {
+                throw new IllegalArgumentException("negative rate");
+            }
+            int length = Math.floorMod(end - start - 1, MINUTES_PER_DAY) + 1;
+            for (int i = 0; i < length; i++) {
+                bpsByMinute[(start + i) % MINUTES_PER_DAY] = bps;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid tariff band for " + type + ": " + band, e);
+        }
+    }
+
+    private static int minuteOfDay(String time) {
+        LocalTime parsed = LocalTime.parse(time.trim());
+        return parsed.getHour() * 60 + parsed.getMinute();
+    }
+
+    private static int firstNonNull(Integer value, Integer fallback, int defaultValue) {
+        return value != null ? value : fallback != null ? fallback : defaultValue;
+    }
+
+    /**
+     * コンパイル済みの料率テーブル（不変）
+     */
+    private static final class CompiledTariff {
+
+        private final int graceMinutes;
+        private final int unitMinutes;
+        private final int unitsPerDay;
+        private final int stride;
+        /** 24時間あたりの上限（料率×分、上限なしは Long.MAX_VALUE） */
+        private final long cap;
+        /** 剰余ごとの料率×分の累積和 */
+        private final long[] prefix;
+
+        CompiledTariff(int graceMinutes, int unitMinutes, int unitsPerDay, int stride, long cap, long[] prefix) {
+            this.graceMinutes = graceMinutes;
+            this.unitMinutes = unitMinutes;
+            this.unitsPerDay = unitsPerDay;
+            this.stride = stride;
+            this.cap = cap;
+            this.prefix = prefix;
+        }
+
+        long price(long rateMinor, int entryMinuteOfDay, long durationMinutes) {
+            // 猶予時間以内（猶予時間なしの場合は1分未満）の駐車は無料
+            if (durationMinutes <= graceMinutes) {
+                return 0;
+            }
+            // 端数は1単位に切り上げ
+            long units = (durationMinutes + unitMinutes - 1) / unitMinutes;
+            long fullDays = units / unitsPerDay;
+            int remainder = (int) (units % unitsPerDay);
+
+            int minute = Math.floorMod(entryMinuteOfDay, MINUTES_PER_DAY);
+            int base = (minute % unitMinutes) * stride;
+            int position = minute / unitMinutes;
+
+            long total = 0;
+            if (fullDays > 0) {
+                long day = Math.min(prefix[base + unitsPerDay] - prefix[base], cap);
+                total = fullDays * toMinor(rateMinor, day);
+            }
+            if (remainder > 0) {
+                long rest = Math.min(prefix[base + position + remainder] - prefix[base + position], cap);
+                total += toMinor(rateMinor, rest);
+            }
+            return total;
+        }
+
+        private static long toMinor(long rateMinor, long bpsMinutes) {
+            long hourBpsMinutes = (long) FULL_RATE_BPS * MINUTES_PER_HOUR;
+            return (rateMinor * bpsMinutes + hourBpsMinutes / 2) / hourBpsMinutes;
+        }
+    }
+}
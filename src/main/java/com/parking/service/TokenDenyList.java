@@ -0,0 +1,114 @@
+package com.parking.service;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JWT失効リスト
+ * ログアウトしたトークン（jti単位）と、パスワード変更等で一括失効したユーザーの発行日時境界をメモリ上に保持する
+ *
+ * 各エントリはトークンの有効期限を過ぎると不要になるため、定期的に削除する。
+ * ユーザー単位の失効はミリ秒精度の発行日時（JwtService.ISSUED_AT_MILLIS_CLAIM）で判定し、
+ * 失効の直後（同じ秒）に発行されたトークンは有効とする。
+ */
+@Component
+@Slf4j
+public class TokenDenyList {
+
+    /** 失効したトークン（jti → 有効期限（エポックミリ秒）） */
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /** ユーザー単位の失効（ユーザーID → この時刻（エポックミリ秒）以前に発行されたトークンを失効） */
+    private final ConcurrentHashMap<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiration:86400000}")
+    private long expiration;
+
+    /**
+     * トークンを失効させる
+     * @param claims 検証済みのクレーム
+     */
+    public void revoke(Claims claims) {
+        if (claims.getId() != null) {
+            Date expiresAt = claims.getExpiration();
+            revokedTokens.put(claims.getId(),
+                expiresAt != null ? expiresAt.getTime() : System.currentTimeMillis() + expiration);
+        } else {
+            Long userId = claims.get("userId", Long.class);
+            if (userId != null) {
+                revokeUser(userId);
+            }
+        }
+    }
+
+    /**
+     * ユーザーの発行済みトークンをすべて失効させる
+     * @param userId ユーザーID
+     */
+    public void revokeUser(Long userId) {
+        long revokedAt = System.currentTimeMillis();
+        revokedUsers.put(userId, revokedAt);
+        // 戻った後に発行されるトークンの発行日時が失効時刻より後になるよう、時刻が進むまで待つ（最大1ミリ秒）
+        while (System.currentTimeMillis() <= revokedAt) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * トークンが失効しているかチェック
+     * @param claims 検証済みのクレーム
+     * @return 失効している場合true
+     */
+    public boolean isRevoked(Claims claims) {
+        if (!revokedTokens.isEmpty() && claims.getId() != null && revokedTokens.containsKey(claims.getId())) {
+            return true;
+        }
+        if (!revokedUsers.isEmpty()) {
+            Long userId = claims.get("userId", Long.class);
+            Long revokedBefore = userId != null ? revokedUsers.get(userId) : null;
+            if (revokedBefore != null) {
+                Long issuedAtMillis = issuedAtMillis(claims);
+                return issuedAtMillis == null || issuedAtMillis <= revokedBefore;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 有効期限を過ぎたエントリを削除
+     */
+    @Scheduled(fixedDelayString = "${jwt.deny-list.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+        long oldestLiveIssue = now - expiration;
+        revokedUsers.values().removeIf(revokedBefore -> revokedBefore < oldestLiveIssue);
+    }
+
+    /**
+     * ミリ秒精度の発行日時を取得
+     * ミリ秒のクレームがないトークンは iat（秒精度）の秒の始まりとし、失効と同じ秒の発行は失効扱いにする
+     */
+    private static Long issuedAtMillis(Claims claims) {
+        Long millis = claims.get(JwtService.ISSUED_AT_MILLIS_CLAIM, Long.class);
+        if (millis != null) {
+            return millis;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null ? issuedAt.getTime() : null;
+    }
+
+    /**
+     * 失効リストの件数を取得
+     * @return トークン単位とユーザー単位の失効件数の合計
+     */
+    public int size() {
+        return revokedTokens.size() + revokedUsers.size();
+    }
+}
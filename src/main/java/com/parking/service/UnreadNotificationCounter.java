@@ -0,0 +1,88 @@
+package com.parking.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.parking.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * ユーザー別の未読通知数カウンター
+ * 初回参照時にDBで件数を数え、以降は通知の作成・既読・削除のコミット後に差分で更新する
+ *
+ * カウンターはDBで数えてから一定時間（notification.unread-counter.ttl-ms）で破棄し、次回参照時に数え直す。
+ * 差分での更新では期限を延長しないため、更新が続くユーザーでも読み込み中のコミットとの競合などで
+ * ずれた件数はこの間隔で補正される。
+ */
+@Component
+public class UnreadNotificationCounter {
+
+    private final NotificationRepository notificationRepository;
+
+    /** ユーザーIDごとの未読数 */
+    private final LoadingCache<Long, Long> counts;
+
+    public UnreadNotificationCounter(NotificationRepository notificationRepository,
+                                     @Value("${notification.unread-counter.max-users:100000}") long maxUsers,
+                                     @Value("${notification.unread-counter.ttl-ms:300000}") long ttlMs) {
+        this.notificationRepository = notificationRepository;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfter(new CountedAt(Duration.ofMillis(ttlMs).toNanos()))
+                .build(this.notificationRepository::countByUserIdAndReadAtIsNull);
+    }
+
+    /**
+     * 未読通知数を取得
+     * @param userId ユーザーID
+     * @return 未読通知数
+     */
+    public long get(Long userId) {
+        return counts.get(userId);
+    }
+
+    /**
+     * 未読通知数を増減（コミット後、カウンター未作成のユーザーは次回参照時に数える）
+     * @param userId ユーザーID
+     * @param delta 増減数
+     */
+    public void adjust(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() ->
+            counts.asMap().computeIfPresent(userId, (id, count) -> count + delta));
+    }
+
+    /**
+     * 未読通知数を0にする（コミット後）
+     * @param userId ユーザーID
+     */
+    public void clear(Long userId) {
+        TransactionCallbacks.afterCommit(() -> counts.put(userId, 0L));
+    }
+
+    /**
+     * カウンターの有効期限（作成時のみ設定し、差分での更新・参照では延長しない）
+     */
+    private record CountedAt(long ttlNanos) implements Expiry<Long, Long> {
+
+        @Override
+        public long expireAfterCreate(Long userId, Long count, long currentTime) {
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Long count, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Long count, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
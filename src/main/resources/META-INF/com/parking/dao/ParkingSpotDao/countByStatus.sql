@@ -0,0 +1,6 @@
+SELECT
+    COUNT(*)
+FROM
+    parking_spots
+WHERE
+    status = /* status */'AVAILABLE' 
\ No newline at end of file
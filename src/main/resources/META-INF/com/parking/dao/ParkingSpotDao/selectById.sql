@@ -6,7 +6,8 @@ SELECT
     floor_level,
     hourly_rate,
     created_at,
-    updated_at
+    updated_at,
+    version
 FROM
     parking_spots
 WHERE
@@ -0,0 +1,16 @@
+SELECT
+    id,
+    spot_number,
+    spot_type,
+    status,
+    floor_level,
+    hourly_rate,
+    created_at,
+    updated_at,
+    version
+FROM
+    parking_spots
+WHERE
+    id IN /* ids */(0)
+ORDER BY
+    id 
\ No newline at end of file
@@ -0,0 +1,17 @@
+SELECT
+    id,
+    spot_number,
+    spot_type,
+    status,
+    floor_level,
+    hourly_rate,
+    created_at,
+    updated_at,
+    version
+FROM
+    parking_spots
+WHERE
+    status = /* status */'AVAILABLE'
+    AND spot_type = /* spotType */'REGULAR'
+ORDER BY
+    id 
\ No newline at end of file
@@ -0,0 +1,2 @@
+-- ユーザーごとの未読通知の件数・一覧・一括既読用（既読の通知は索引に含めない）
+CREATE INDEX idx_notifications_user_unread ON notifications(user_id, created_at) WHERE read_at IS NULL;
@@ -0,0 +1,47 @@
+-- 保存期間を過ぎた駐車セッション・決済のアーカイブ（月単位のレンジパーティション）
+-- 月ごとのパーティションはアーカイバー（ParkingArchiveService）が必要に応じて作成する。
+-- 稼働中のテーブルはパーティション化しない。パーティションキーを含まない一意インデックス
+-- （アクティブなナンバープレート・スペット、完了済み決済、transaction_id）と外部キーを維持するため。
+
+CREATE TABLE parking_sessions_archive (
+    id BIGINT NOT NULL,
+    parking_spot_id BIGINT NOT NULL,
+    license_plate VARCHAR(20) NOT NULL,
+    entry_time TIMESTAMP NOT NULL,
+    exit_time TIMESTAMP,
+    total_amount DECIMAL(10,2),
+    status VARCHAR(20) NOT NULL,
+    payment_status VARCHAR(20),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, entry_time)
+) PARTITION BY RANGE (entry_time);
+
+CREATE INDEX idx_parking_sessions_archive_license_history
+    ON parking_sessions_archive(license_plate, entry_time DESC, id DESC);
+
+CREATE TABLE payments_archive (
+    id BIGINT NOT NULL,
+    parking_session_id BIGINT NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    payment_method VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    transaction_id VARCHAR(50),
+    card_last_four VARCHAR(4),
+    card_brand VARCHAR(20),
+    receipt_url VARCHAR(500),
+    failure_reason TEXT,
+    processed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_payments_archive_parking_session_id ON payments_archive(parking_session_id);
+
+-- アーカイブ対象（完了・キャンセル済み）の古いセッションを入庫日時順に取り出すため
+CREATE INDEX idx_parking_sessions_archivable ON parking_sessions(entry_time, id)
+    WHERE status IN ('COMPLETED', 'CANCELLED');
@@ -0,0 +1,20 @@
+-- 保存済みのナンバープレートを正規化（前後の空白除去・連続空白の1文字化・英字大文字化）
+-- APIの入口で正規化した値と完全一致で照合するため（ParkingSession.normalizeLicensePlate と同じ規則）。
+-- 正規化するとACTIVEなナンバープレートの部分ユニークインデックスに違反する行はそのまま残す。
+
+CREATE FUNCTION pg_temp.normalize_license_plate(plate TEXT) RETURNS TEXT AS $$
+    SELECT upper(regexp_replace(regexp_replace(plate, '^\s+|\s+$', '', 'g'), '\s+', ' ', 'g'))
+$$ LANGUAGE SQL IMMUTABLE;
+
+UPDATE parking_sessions s
+SET license_plate = pg_temp.normalize_license_plate(s.license_plate)
+WHERE s.license_plate <> pg_temp.normalize_license_plate(s.license_plate)
+  AND (s.status <> 'ACTIVE' OR NOT EXISTS (
+      SELECT 1 FROM parking_sessions other
+      WHERE other.status = 'ACTIVE'
+        AND other.id <> s.id
+        AND pg_temp.normalize_license_plate(other.license_plate) = pg_temp.normalize_license_plate(s.license_plate)));
+
+UPDATE parking_sessions_archive
+SET license_plate = pg_temp.normalize_license_plate(license_plate)
+WHERE license_plate <> pg_temp.normalize_license_plate(license_plate);
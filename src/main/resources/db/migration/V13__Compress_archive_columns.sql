@@ -0,0 +1,43 @@
+-- アーカイブテーブルの可変長列を圧縮して格納する（lz4、サーバーが未対応の場合はpglz）
+-- 列の圧縮方式は以降に作成するパーティションに継承される（既存のパーティションには個別に設定する）。
+-- 各パーティションは toast_tuple_target を最小値（128バイト）にして作成し（ParkingArchiveService）、
+-- 短い行でも圧縮を試みるようにする。既存の行は再書き込みしない。
+
+DO $$
+DECLARE
+    method TEXT := 'lz4';
+    target REGCLASS;
+BEGIN
+    BEGIN
+        ALTER TABLE ONLY payments_archive ALTER COLUMN failure_reason SET COMPRESSION lz4;
+    EXCEPTION WHEN feature_not_supported THEN
+        method := 'pglz';
+        RAISE NOTICE 'lz4 is not supported by this server; archive columns use pglz';
+    END;
+
+    FOR target IN
+        SELECT 'payments_archive'::regclass
+        UNION ALL
+        SELECT inhrelid::regclass FROM pg_inherits WHERE inhparent = 'payments_archive'::regclass
+    LOOP
+        EXECUTE format('ALTER TABLE ONLY %2$s '
+            || 'ALTER COLUMN failure_reason SET COMPRESSION %1$s, '
+            || 'ALTER COLUMN receipt_url SET COMPRESSION %1$s, '
+            || 'ALTER COLUMN transaction_id SET COMPRESSION %1$s', method, target);
+    END LOOP;
+
+    FOR target IN
+        SELECT 'parking_sessions_archive'::regclass
+        UNION ALL
+        SELECT inhrelid::regclass FROM pg_inherits WHERE inhparent = 'parking_sessions_archive'::regclass
+    LOOP
+        EXECUTE format('ALTER TABLE ONLY %2$s ALTER COLUMN license_plate SET COMPRESSION %1$s', method, target);
+    END LOOP;
+
+    FOR target IN
+        SELECT inhrelid::regclass FROM pg_inherits
+        WHERE inhparent IN ('payments_archive'::regclass, 'parking_sessions_archive'::regclass)
+    LOOP
+        EXECUTE format('ALTER TABLE %s SET (toast_tuple_target = 128)', target);
+    END LOOP;
+END $$;
@@ -0,0 +1,7 @@
+-- 冪等性キーを呼び出し元ユーザーごとに独立させる（主キーを (caller_id, idempotency_key) に変更）
+-- 既存のキーは呼び出し元が不明なため caller_id = 0 とし、どのユーザーの再送にも一致させない
+-- （保存期間の経過後に定期削除される）
+ALTER TABLE payment_idempotency_keys ADD COLUMN caller_id BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE payment_idempotency_keys ALTER COLUMN caller_id DROP DEFAULT;
+ALTER TABLE payment_idempotency_keys DROP CONSTRAINT payment_idempotency_keys_pkey;
+ALTER TABLE payment_idempotency_keys ADD PRIMARY KEY (caller_id, idempotency_key);
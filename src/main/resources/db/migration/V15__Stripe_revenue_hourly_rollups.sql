@@ -0,0 +1,6 @@
+-- 時間別売上ロールアップを同じ (時間帯, 決済方法) でも複数行（ストライプ）に分けて加算できるようにする
+-- 同時刻の決済が1行の行ロックで直列化されないよう、加算先のストライプを決済ごとに分散させ、読み取り時に合算する
+-- 既存の行と再構築で作成される行はストライプ 0 とする
+ALTER TABLE revenue_hourly_rollups ADD COLUMN stripe SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE revenue_hourly_rollups DROP CONSTRAINT revenue_hourly_rollups_pkey;
+ALTER TABLE revenue_hourly_rollups ADD PRIMARY KEY (bucket_start, payment_method, stripe);
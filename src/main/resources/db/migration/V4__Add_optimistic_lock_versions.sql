@@ -0,0 +1,6 @@
+-- 楽観的ロック用のバージョン列を追加
+ALTER TABLE parking_spots ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE parking_sessions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- 1つのスペットにアクティブなセッションは1件のみ（二重駐車の最終防衛線）
+CREATE UNIQUE INDEX idx_parking_sessions_active_spot_unique ON parking_sessions(parking_spot_id) WHERE status = 'ACTIVE';
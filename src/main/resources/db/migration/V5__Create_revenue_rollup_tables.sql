@@ -0,0 +1,15 @@
+-- 時間別売上ロールアップテーブルの作成
+CREATE TABLE revenue_hourly_rollups (
+    bucket_start TIMESTAMP NOT NULL,
+    payment_method VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_start, payment_method)
+);
+
+-- 既存の完了済み決済からロールアップを作成
+INSERT INTO revenue_hourly_rollups (bucket_start, payment_method, total_amount, transaction_count)
+SELECT date_trunc('hour', created_at), payment_method, SUM(amount), COUNT(*)
+FROM payments
+WHERE status = 'COMPLETED'
+GROUP BY 1, 2;
@@ -0,0 +1,8 @@
+-- 通知の非同期配信（アウトボックス）用の列を追加
+ALTER TABLE notifications ADD COLUMN priority VARCHAR(20) NOT NULL DEFAULT 'NORMAL';
+ALTER TABLE notifications ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE notifications ADD COLUMN next_attempt_at TIMESTAMP;
+ALTER TABLE notifications ADD COLUMN error_message TEXT;
+
+-- 配信待ち通知をチャネル別・試行日時順に取り出すための部分インデックス
+CREATE INDEX idx_notifications_dispatch ON notifications(delivery_method, next_attempt_at, id) WHERE status = 'PENDING';
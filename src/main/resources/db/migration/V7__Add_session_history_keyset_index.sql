@@ -0,0 +1,6 @@
+-- ナンバープレート別セッション履歴のキーセットページング用インデックス
+-- (license_plate, entry_time DESC, id DESC) の順で読み出し、ソートを不要にする
+CREATE INDEX idx_parking_sessions_license_history ON parking_sessions(license_plate, entry_time DESC, id DESC);
+
+-- 複合インデックスが先頭列をカバーするため単独インデックスは不要
+DROP INDEX IF EXISTS idx_parking_sessions_license_plate;
@@ -0,0 +1,2 @@
+-- 同じ車両のアクティブなセッションは1件まで（複数インスタンス間の二重入庫防止）
+CREATE UNIQUE INDEX idx_parking_sessions_active_plate_unique ON parking_sessions(license_plate) WHERE status = 'ACTIVE';
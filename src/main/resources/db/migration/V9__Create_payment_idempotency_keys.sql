@@ -0,0 +1,13 @@
+-- 決済リクエストの冪等性キー（Idempotency-Key ヘッダー）と処理結果の保存テーブル
+CREATE TABLE payment_idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    http_status INTEGER,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP
+);
+
+-- 保存期間を過ぎたキーの削除用
+CREATE INDEX idx_payment_idempotency_keys_created_at ON payment_idempotency_keys(created_at);
@@ -0,0 +1,28 @@
+package com.parking.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 決済APIのスループット計測（スタブ決済ゲートウェイ、遅延のばらつき・通信エラーあり）
+ * DB接続プールより多い同時実行数でゲートウェイを待たせ、接続を保持せずに処理できることを確認する
+ *
+ * 実行方法: ./gradlew benchmark --tests '*PaymentGatewayStub*'
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = {
+                    "spring.threads.virtual.enabled=true",
+                    PaymentLatencyBenchmarkSupport.GATEWAY_DELAY,
+                    "payment.gateway.stub.jitter-ms=50",
+                    "payment.gateway.stub.error-rate=0.01",
+                    "payment.gateway.max-in-flight=128",
+                    "payment.gateway.circuit.failure-threshold=50",
+                    "spring.datasource.hikari.maximum-pool-size=10"
+                })
+class PaymentGatewayStubThroughputBenchmark extends PaymentLatencyBenchmarkSupport {
+
+    @Test
+    void processPaymentsThroughStubGateway() throws Exception {
+        runPaymentLoad("stub gateway");
+    }
+}
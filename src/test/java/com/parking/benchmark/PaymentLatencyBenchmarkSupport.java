@@ -0,0 +1,192 @@
+package com.parking.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.ParkingSpot;
+import com.parking.repository.ParkingSessionRepository;
+import com.parking.repository.ParkingSpotRepository;
+import org.junit.jupiter.api.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 決済APIのレイテンシ計測の共通処理
+ * 疑似的に200msかかる決済ゲートウェイに対して /api/payments/process を同時に送り、
+ * p50/p99レイテンシとスループットを出力する。スレッドモードはサブクラスのプロパティで切り替える
+ */
+@Testcontainers
+@Tag("benchmark")
+abstract class PaymentLatencyBenchmarkSupport {
+
+    /** 決済ゲートウェイの疑似遅延（ミリ秒） */
+    static final String GATEWAY_DELAY = "payment.gateway.simulated-delay-ms=200";
+
+    private static final int WARMUP_REQUESTS = 50;
+    private static final int REQUESTS = 1000;
+    private static final int CLIENT_CONCURRENCY = 200;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.com.parking", () -> "WARN");
+        registry.add("logging.level.org.springframework.web", () -> "INFO");
+    }
+
+    /**
+     * ベンチマーク対象のAPIを認証なしで呼び出せるようにする
+     */
+    @TestConfiguration
+    static class OpenPaymentApiConfig {
+        @Bean
+        @Order(0)
+        SecurityFilterChain benchmarkFilterChain(HttpSecurity http) throws Exception {
+            return http
+                .securityMatcher("/api/payments/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(authz -> authz.anyRequest().permitAll())
+                .build();
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private ParkingSessionRepository parkingSessionRepository;
+
+    /**
+     * 決済リクエストを同時に送り、レイテンシを出力する
+     * @param mode 出力に表示するスレッドモード名
+     */
+    void runPaymentLoad(String mode) throws Exception {
+        List<Long> sessionIds = createCompletedSessions(WARMUP_REQUESTS + REQUESTS);
+        HttpClient client = HttpClient.newHttpClient();
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENT_CONCURRENCY);
+
+        try {
+            send(client, executor, sessionIds.subList(0, WARMUP_REQUESTS), new long[WARMUP_REQUESTS],
+                new AtomicInteger(), new AtomicInteger());
+
+            long[] latencies = new long[REQUESTS];
+            AtomicInteger succeeded = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            long start = System.nanoTime();
+            send(client, executor, sessionIds.subList(WARMUP_REQUESTS, sessionIds.size()), latencies,
+                succeeded, failed);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            Arrays.sort(latencies);
+            System.out.printf("%n=== Payment latency (%s, %d concurrent clients, 200ms gateway) ===%n",
+                mode, CLIENT_CONCURRENCY);
+            System.out.printf("requests:   %d in %.2fs (%.1f req/s)%n", REQUESTS, seconds, REQUESTS / seconds);
+            System.out.printf("succeeded:  %d, failed: %d%n", succeeded.get(), failed.get());
+            System.out.printf("p50:        %.1f ms%n", percentile(latencies, 0.50));
+            System.out.printf("p99:        %.1f ms%n", percentile(latencies, 0.99));
+            System.out.printf("max:        %.1f ms%n", latencies[latencies.length - 1] / 1_000_000.0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void send(HttpClient client, ExecutorService executor, List<Long> sessionIds, long[] latencies,
+                      AtomicInteger succeeded, AtomicInteger failed) throws Exception {
+        CountDownLatch done = new CountDownLatch(sessionIds.size());
+        for (int i = 0; i < sessionIds.size(); i++) {
+            int index = i;
+            HttpRequest request = paymentRequest(sessionIds.get(i));
+            executor.execute(() -> {
+                long begin = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 == 2) {
+                        succeeded.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                } finally {
+                    latencies[index] = System.nanoTime() - begin;
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "load did not finish in time");
+    }
+
+    private HttpRequest paymentRequest(Long sessionId) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+            "sessionId", sessionId,
+            "amount", new BigDecimal("500"),
+            "paymentMethod", "CREDIT_CARD",
+            "cardNumber", "4111111111111111",
+            "cardHolderName", "BENCH USER"));
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/payments/process"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private List<Long> createCompletedSessions(int count) {
+        ParkingSpot spot = parkingSpotRepository.findAll().get(0);
+        List<ParkingSession> sessions = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            ParkingSession session = new ParkingSession();
+            session.setParkingSpot(spot);
+            session.setLicensePlate("PAY-" + i);
+            session.setEntryTime(now.minusHours(2));
+            session.setExitTime(now);
+            session.setStatus(ParkingSession.SessionStatus.COMPLETED);
+            session.setTotalAmount(new BigDecimal("500"));
+            sessions.add(session);
+        }
+        return parkingSessionRepository.saveAll(sessions).stream().map(ParkingSession::getId).toList();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.parking.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 決済APIのレイテンシ計測（プラットフォームスレッド）
+ *
+ * 実行方法: ./gradlew benchmark --tests '*PaymentLatency*'
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = {"spring.threads.virtual.enabled=false", PaymentLatencyBenchmarkSupport.GATEWAY_DELAY})
+class PaymentLatencyPlatformThreadsBenchmark extends PaymentLatencyBenchmarkSupport {
+
+    @Test
+    void processPaymentsOnPlatformThreads() throws Exception {
+        runPaymentLoad("platform threads");
+    }
+}
@@ -0,0 +1,19 @@
+package com.parking.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 決済APIのレイテンシ計測（仮想スレッド）
+ *
+ * 実行方法: ./gradlew benchmark --tests '*PaymentLatency*'
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = {"spring.threads.virtual.enabled=true", PaymentLatencyBenchmarkSupport.GATEWAY_DELAY})
+class PaymentLatencyVirtualThreadsBenchmark extends PaymentLatencyBenchmarkSupport {
+
+    @Test
+    void processPaymentsOnVirtualThreads() throws Exception {
+        runPaymentLoad("virtual threads");
+    }
+}
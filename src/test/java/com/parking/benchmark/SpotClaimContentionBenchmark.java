@@ -0,0 +1,192 @@
+package com.parking.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.ParkingSpot;
+import com.parking.repository.ParkingSessionRepository;
+import com.parking.repository.ParkingSpotRepository;
+import com.parking.service.ParkingService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * スペット確保の競合ベンチマーク
+ * 小さな駐車場に対して数百件の /api/parking/sessions/start を同時に送り、
+ * 確保スループットと競合率（別スペットへの振り替え・満車による拒否）を計測する
+ *
+ * 実行方法: ./gradlew benchmark --tests '*SpotClaimContentionBenchmark'
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@Tag("benchmark")
+class SpotClaimContentionBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int REQUESTS_PER_ROUND = 300;
+    private static final int CLIENT_THREADS = 64;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.com.parking", () -> "INFO");
+        registry.add("logging.level.org.springframework.web", () -> "INFO");
+    }
+
+    /**
+     * ベンチマーク対象のAPIを認証なしで呼び出せるようにする
+     */
+    @TestConfiguration
+    static class OpenParkingApiConfig {
+        @Bean
+        @Order(0)
+        SecurityFilterChain benchmarkFilterChain(HttpSecurity http) throws Exception {
+            return http
+                .securityMatcher("/api/parking/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(authz -> authz.anyRequest().permitAll())
+                .build();
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private ParkingSessionRepository parkingSessionRepository;
+
+    @Test
+    void concurrentSessionStartsOnSmallLot() throws Exception {
+        List<ParkingSpot> spots = parkingSpotRepository.findAll();
+        HttpClient client = HttpClient.newHttpClient();
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENT_THREADS);
+
+        AtomicInteger claimed = new AtomicInteger();
+        AtomicInteger reassigned = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long totalNanos = 0;
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                CountDownLatch done = new CountDownLatch(REQUESTS_PER_ROUND);
+                long start = System.nanoTime();
+                for (int i = 0; i < REQUESTS_PER_ROUND; i++) {
+                    ParkingSpot spot = spots.get(i % spots.size());
+                    String licensePlate = "BENCH-" + round + "-" + i;
+                    executor.execute(() -> {
+                        try {
+                            HttpResponse<String> response = client.send(
+                                startRequest(spot.getId(), licensePlate), HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() == 201) {
+                                claimed.incrementAndGet();
+                                JsonNode body = objectMapper.readTree(response.body());
+                                if (body.path("parkingSpot").path("id").asLong() != spot.getId()) {
+                                    reassigned.incrementAndGet();
+                                }
+                            } else if (response.statusCode() == 400) {
+                                rejected.incrementAndGet();
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                assertTrue(done.await(2, TimeUnit.MINUTES), "round did not finish in time");
+                totalNanos += System.nanoTime() - start;
+
+                assertNoDoubleOccupancy();
+                releaseAllSpots();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = ROUNDS * REQUESTS_PER_ROUND;
+        double seconds = totalNanos / 1_000_000_000.0;
+        System.out.printf("%n=== Spot claim contention benchmark (%d spots, %d client threads) ===%n",
+            spots.size(), CLIENT_THREADS);
+        System.out.printf("requests:          %d in %.2fs (%.1f req/s)%n", total, seconds, total / seconds);
+        System.out.printf("claims:            %d (%.1f claims/s)%n", claimed.get(), claimed.get() / seconds);
+        System.out.printf("reassigned claims: %d (%.2f%% of claims)%n",
+            reassigned.get(), percent(reassigned.get(), claimed.get()));
+        System.out.printf("rejected (full):   %d (%.2f%% of requests)%n", rejected.get(), percent(rejected.get(), total));
+        System.out.printf("errors:            %d%n", errors.get());
+
+        assertTrue(errors.get() == 0, "unexpected non-400 failures: " + errors.get());
+    }
+
+    private HttpRequest startRequest(Long spotId, String licensePlate) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("spotId", spotId, "licensePlate", licensePlate));
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/parking/sessions/start"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private void assertNoDoubleOccupancy() {
+        Map<Long, Long> activeBySpot = parkingSessionRepository.findByStatus(ParkingSession.SessionStatus.ACTIVE)
+            .stream()
+            .collect(Collectors.groupingBy(session -> session.getParkingSpot().getId(), Collectors.counting()));
+        activeBySpot.forEach((spotId, count) ->
+            assertTrue(count == 1, "spot " + spotId + " has " + count + " active sessions"));
+    }
+
+    private void releaseAllSpots() {
+        for (ParkingSession session : parkingSessionRepository.findByStatus(ParkingSession.SessionStatus.ACTIVE)) {
+            parkingService.endParkingSession(session.getId());
+        }
+    }
+
+    private static double percent(int part, int whole) {
+        return whole == 0 ? 0 : part * 100.0 / whole;
+    }
+}
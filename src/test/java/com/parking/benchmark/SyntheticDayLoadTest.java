@@ -0,0 +1,553 @@
+package com.parking.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.entity.ParkingSpot;
+import com.parking.entity.Payment;
+import com.parking.entity.User;
+import com.parking.repository.UserRepository;
+import com.parking.service.EmailService;
+import com.parking.service.ParkingService;
+import com.parking.service.SmsService;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 1日分の合成トラフィックによる負荷試験
+ * 入庫・出庫が時間帯別の到着曲線（朝夕のピーク、深夜は少数）に沿って発生する1日を、
+ * loadtest.day-seconds 秒に圧縮して HTTP で再生する。出庫では料金確定・全決済方法での決済・
+ * 支払い完了通知を行い、昼には全ユーザーへの緊急通知（SMS）の一斉配信を行う。
+ *
+ * 乱数のシードを固定しているため、同じ設定では毎回同じトラフィックになる。
+ * エンドポイントごとのスループット、p50/p99/p999 レイテンシ、SQL文の発行数
+ * （JDBCの prepareStatement・createStatement の呼び出し数）を出力し、
+ * リリース間の比較用に build/reports/loadtest/synthetic-day.json へ書き出す。
+ * 決済の確定など、リクエストのスレッド外で発行されたSQLは (background) に計上する。
+ *
+ * 実行方法: ./gradlew loadTest（規模は -Ploadtest.sessions=4000 -Ploadtest.day-seconds=300 等で変更）
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@Tag("loadtest")
+class SyntheticDayLoadTest {
+
+    private static final long SEED = Long.getLong("loadtest.seed", 20240101L);
+    private static final int SESSIONS = Integer.getInteger("loadtest.sessions", 2000);
+    private static final int DAY_SECONDS = Integer.getInteger("loadtest.day-seconds", 120);
+    private static final int SPOTS = Integer.getInteger("loadtest.spots", 300);
+    private static final int USERS = Integer.getInteger("loadtest.users", 50);
+    private static final int CLIENT_THREADS = Integer.getInteger("loadtest.client-threads", 64);
+    private static final Path REPORT = Path.of(System.getProperty("loadtest.report",
+        "build/reports/loadtest/synthetic-day.json"));
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /** 時間帯別の到着の重み（0時〜23時、朝夕の通勤時間帯がピーク） */
+    private static final double[] HOURLY_ARRIVALS = {
+        0.2, 0.1, 0.1, 0.1, 0.2, 0.5, 1.5, 4.0, 6.0, 4.5, 3.0, 3.0,
+        3.5, 3.0, 2.5, 2.5, 3.0, 4.5, 5.5, 4.0, 2.5, 1.5, 0.8, 0.4
+    };
+
+    /** 決済方法の構成比（重み） */
+    private static final Map<Payment.PaymentMethod, Integer> PAYMENT_MIX = Map.of(
+        Payment.PaymentMethod.CREDIT_CARD, 30,
+        Payment.PaymentMethod.DEBIT_CARD, 10,
+        Payment.PaymentMethod.CASH, 20,
+        Payment.PaymentMethod.ELECTRONIC_WALLET, 15,
+        Payment.PaymentMethod.MOBILE_PAYMENT, 15,
+        Payment.PaymentMethod.QR_CODE, 10);
+
+    private static final String BACKGROUND = "(background)";
+
+    /** リクエストを処理中のエンドポイント（SQL文の計上先） */
+    private static final ThreadLocal<String> CURRENT_ENDPOINT = new ThreadLocal<>();
+
+    /** エンドポイント別のSQL文の発行数 */
+    private static final Map<String, LongAdder> STATEMENTS = new ConcurrentHashMap<>();
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "20");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("payment.gateway.simulated-delay-ms", () -> "50");
+        registry.add("payment.gateway.stub.jitter-ms", () -> "50");
+        registry.add("logging.level.com.parking", () -> "WARN");
+        registry.add("logging.level.org.springframework.web", () -> "INFO");
+    }
+
+    /**
+     * 負荷試験用の設定
+     * 対象のAPIを認証なしで呼び出せるようにし、SQL文をエンドポイント別に数える
+     */
+    @TestConfiguration
+    static class LoadTestConfig {
+
+        @Bean
+        @Order(0)
+        SecurityFilterChain loadTestFilterChain(HttpSecurity http) throws Exception {
+            return http
+                .securityMatcher("/api/parking/**", "/api/payments/**", "/api/notifications/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(authz -> authz.anyRequest().permitAll())
+                .build();
+        }
+
+        @Bean
+        FilterRegistrationBean<Filter> endpointTaggingFilter() {
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+                CURRENT_ENDPOINT.set(endpointOf((HttpServletRequest) request));
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    CURRENT_ENDPOINT.remove();
+                }
+            });
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? countingProxy(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /** 出庫時の支払い完了通知・緊急通知は外部へ送らない */
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private SmsService smsService;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> serverErrors = new ConcurrentHashMap<>();
+    private final Map<String, Long> sessionIdsByPlate = new ConcurrentHashMap<>();
+    private final AtomicInteger rejectedEntries = new AtomicInteger();
+    private final AtomicInteger skippedExits = new AtomicInteger();
+
+    private HttpClient client;
+    private List<Long> spotIds;
+    private List<Long> userIds;
+
+    @Test
+    void replaySyntheticDay() throws Exception {
+        createLotAndUsers();
+        client = HttpClient.newHttpClient();
+        List<ScheduledFlow> flows = planDay(new Random(SEED));
+
+        ScheduledExecutorService clock = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        CountDownLatch done = new CountDownLatch(flows.size());
+        STATEMENTS.clear();
+        long start = System.nanoTime();
+        try {
+            for (ScheduledFlow flow : flows) {
+                long delayMs = (long) flow.minute() * DAY_SECONDS * 1000 / MINUTES_PER_DAY;
+                clock.schedule(() -> clients.execute(() -> {
+                    try {
+                        flow.action().run();
+                    } catch (Exception e) {
+                        serverErrors.computeIfAbsent("(client)", k -> new AtomicInteger()).incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }), delayMs, TimeUnit.MILLISECONDS);
+            }
+            assertTrue(done.await(DAY_SECONDS + 600L, TimeUnit.SECONDS), "synthetic day did not finish in time");
+        } finally {
+            clock.shutdownNow();
+            clients.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Map<String, Object> report = report(seconds);
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), report);
+        System.out.println("report: " + REPORT.toAbsolutePath());
+
+        assertEquals(Map.of(), errorCounts(), "requests failed with 5xx or I/O errors");
+    }
+
+    /**
+     * 1日分のフローを作成（入庫は到着曲線に沿い、出庫は駐車時間の分布に沿う）
+     */
+    private List<ScheduledFlow> planDay(Random random) {
+        double totalWeight = 0;
+        for (double weight : HOURLY_ARRIVALS) {
+            totalWeight += weight;
+        }
+        List<ScheduledFlow> flows = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            int entryMinute = sampleArrivalMinute(random, totalWeight);
+            // 大半は短時間、一部は終日（当日中に出庫しない車両は翌日分として残す）
+            int stayMinutes = random.nextInt(10) < 7 ? 15 + random.nextInt(180) : 180 + random.nextInt(600);
+            String plate = "LOAD-" + i;
+            Long spotId = spotIds.get(random.nextInt(spotIds.size()));
+            Payment.PaymentMethod method = samplePaymentMethod(random);
+            Long userId = userIds.get(random.nextInt(userIds.size()));
+            boolean pollsNotifications = random.nextInt(4) == 0;
+
+            flows.add(new ScheduledFlow(entryMinute, () -> arrive(spotId, plate, pollsNotifications)));
+            if (entryMinute + stayMinutes < MINUTES_PER_DAY) {
+                flows.add(new ScheduledFlow(entryMinute + stayMinutes, () -> depart(plate, method, userId)));
+            }
+        }
+        // 昼の全ユーザーへの緊急通知（ファンアウト）
+        for (Long userId : userIds) {
+            flows.add(new ScheduledFlow(12 * 60, () -> broadcastEmergency(userId)));
+        }
+        return flows;
+    }
+
+    private static int sampleArrivalMinute(Random random, double totalWeight) {
+        double point = random.nextDouble() * totalWeight;
+        for (int hour = 0; hour < HOURLY_ARRIVALS.length; hour++) {
+            point -= HOURLY_ARRIVALS[hour];
+            if (point <= 0) {
+                return hour * 60 + random.nextInt(60);
+            }
+        }
+        return MINUTES_PER_DAY - 1;
+    }
+
+    private static Payment.PaymentMethod samplePaymentMethod(Random random) {
+        int total = PAYMENT_MIX.values().stream().mapToInt(Integer::intValue).sum();
+        int point = random.nextInt(total);
+        for (Payment.PaymentMethod method : Payment.PaymentMethod.values()) {
+            point -= PAYMENT_MIX.getOrDefault(method, 0);
+            if (point < 0) {
+                return method;
+            }
+        }
+        return Payment.PaymentMethod.CASH;
+    }
+
+    // ==================== フロー ====================
+
+    /**
+     * 入庫: ゲートの空き表示を確認してセッションを開始し、一部の利用者は未読通知数を確認する
+     */
+    private void arrive(Long spotId, String plate, boolean pollsNotifications) throws Exception {
+        call("GET /api/parking/stats/available-spots", get("/api/parking/stats/available-spots"));
+        HttpResponse<String> started = call("POST /api/parking/sessions/start",
+            post("/api/parking/sessions/start", Map.of("spotId", spotId, "licensePlate", plate)));
+        if (started.statusCode() == 201) {
+            sessionIdsByPlate.put(plate, objectMapper.readTree(started.body()).path("id").asLong());
+        } else {
+            rejectedEntries.incrementAndGet();
+        }
+        if (pollsNotifications) {
+            Long userId = userIds.get(Math.floorMod(plate.hashCode(), userIds.size()));
+            call("GET /api/notifications/user/{id}/unread/count",
+                get("/api/notifications/user/" + userId + "/unread/count"));
+        }
+    }
+
+    /**
+     * 出庫: セッションを終了して料金を確定し、決済して支払い完了を通知する
+     */
+    private void depart(String plate, Payment.PaymentMethod method, Long userId) throws Exception {
+        Long sessionId = sessionIdsByPlate.remove(plate);
+        if (sessionId == null) {
+            skippedExits.incrementAndGet();
+            return;
+        }
+        HttpResponse<String> ended = call("POST /api/parking/sessions/{id}/end",
+            post("/api/parking/sessions/" + sessionId + "/end", Map.of()));
+        if (ended.statusCode() != 200) {
+            return;
+        }
+        BigDecimal fee = new BigDecimal(objectMapper.readTree(ended.body()).path("totalAmount").asText("0"));
+        BigDecimal amount = fee.signum() > 0 ? fee : BigDecimal.ONE;
+
+        HttpResponse<String> paid = call("POST /api/payments/process",
+            post("/api/payments/process", paymentBody(sessionId, amount, method)));
+        if (paid.statusCode() != 201) {
+            return;
+        }
+        JsonNode payment = objectMapper.readTree(paid.body());
+        call("POST /api/notifications/payment-completion", post("/api/notifications/payment-completion", Map.of(
+            "userId", userId,
+            "paymentId", payment.path("paymentId").asText(),
+            "amount", amount.toPlainString(),
+            "paymentMethod", method.name())));
+    }
+
+    private void broadcastEmergency(Long userId) throws Exception {
+        call("POST /api/notifications/emergency", post("/api/notifications/emergency", Map.of(
+            "userId", userId,
+            "emergencyType", "EVACUATION_DRILL",
+            "details", "負荷試験の一斉通知")));
+    }
+
+    private static Map<String, Object> paymentBody(Long sessionId, BigDecimal amount, Payment.PaymentMethod method) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sessionId", sessionId);
+        body.put("amount", amount);
+        body.put("paymentMethod", method.name());
+        switch (method) {
+            case CREDIT_CARD, DEBIT_CARD -> {
+                body.put("cardNumber", method == Payment.PaymentMethod.CREDIT_CARD ? "4111111111111111" : "5500000000000004");
+                body.put("cardHolderName", "LOAD TEST");
+            }
+            case MOBILE_PAYMENT -> {
+                body.put("phoneNumber", "090-0000-0000");
+                body.put("walletType", "Apple Pay");
+            }
+            case QR_CODE -> body.put("qrCodeData", "LOADTEST-" + sessionId);
+            case ELECTRONIC_WALLET -> {
+                body.put("walletId", "W-" + sessionId);
+                body.put("walletProvider", "PayPay");
+            }
+            default -> {
+            }
+        }
+        return body;
+    }
+
+    // ==================== HTTP ====================
+
+    private HttpResponse<String> call(String endpoint, HttpRequest request) throws Exception {
+        long begin = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 500) {
+                serverErrors.computeIfAbsent(endpoint, k -> new AtomicInteger()).incrementAndGet();
+            }
+            return response;
+        } catch (Exception e) {
+            serverErrors.computeIfAbsent(endpoint, k -> new AtomicInteger()).incrementAndGet();
+            throw e;
+        } finally {
+            latencies.computeIfAbsent(endpoint, k -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - begin);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Map<String, ?> body) throws Exception {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+            .build();
+    }
+
+    // ==================== 準備・集計 ====================
+
+    private void createLotAndUsers() {
+        ParkingSpot.SpotType[] types = ParkingSpot.SpotType.values();
+        spotIds = new ArrayList<>(SPOTS);
+        for (int i = 0; i < SPOTS; i++) {
+            ParkingSpot spot = new ParkingSpot();
+            spot.setSpotNumber(String.format("L-%04d", i));
+            // 大半は普通車、残りを他のタイプに割り当てる
+            spot.setSpotType(i % 10 < 7 ? ParkingSpot.SpotType.REGULAR : types[i % types.length]);
+            spot.setStatus(ParkingSpot.SpotStatus.AVAILABLE);
+            spot.setFloorLevel(i / 100 + 1);
+            spot.setHourlyRate(300.0);
+            spotIds.add(parkingService.createParkingSpot(spot).getId());
+        }
+
+        userIds = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("loadtest-" + i);
+            user.setEmail("loadtest-" + i + "@example.com");
+            user.setPassword("not-used");
+            user.setPhoneNumber("090-0000-" + String.format("%04d", i));
+            userIds.add(userRepository.save(user).getId());
+        }
+    }
+
+    private Map<String, Object> report(double seconds) {
+        Map<String, Object> endpoints = new TreeMap<>();
+        long totalRequests = 0;
+        System.out.printf("%n=== Synthetic day (%d sessions in %ds, %d spots, %d client threads, seed %d) ===%n",
+            SESSIONS, DAY_SECONDS, SPOTS, CLIENT_THREADS, SEED);
+        System.out.printf("%-48s %8s %9s %9s %9s %9s %12s%n",
+            "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "SQL/request");
+        for (Map.Entry<String, ConcurrentLinkedQueue<Long>> entry : new TreeMap<>(latencies).entrySet()) {
+            long[] sorted = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            long statements = statementsFor(entry.getKey());
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", sorted.length);
+            stats.put("throughput", sorted.length / seconds);
+            stats.put("p50Ms", percentile(sorted, 0.50));
+            stats.put("p99Ms", percentile(sorted, 0.99));
+            stats.put("p999Ms", percentile(sorted, 0.999));
+            stats.put("statements", statements);
+            stats.put("statementsPerRequest", (double) statements / sorted.length);
+            stats.put("serverErrors", serverErrors.getOrDefault(entry.getKey(), new AtomicInteger()).get());
+            endpoints.put(entry.getKey(), stats);
+            totalRequests += sorted.length;
+            System.out.printf("%-48s %8d %9.1f %9.1f %9.1f %9.1f %12.2f%n", entry.getKey(), sorted.length,
+                sorted.length / seconds, stats.get("p50Ms"), stats.get("p99Ms"), stats.get("p999Ms"),
+                stats.get("statementsPerRequest"));
+        }
+        long background = STATEMENTS.getOrDefault(BACKGROUND, new LongAdder()).sum();
+        System.out.printf("total: %d requests in %.2fs (%.1f req/s), background SQL statements: %d%n",
+            totalRequests, seconds, totalRequests / seconds, background);
+        System.out.printf("rejected entries (lot full): %d, exits skipped: %d%n",
+            rejectedEntries.get(), skippedExits.get());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("seed", SEED);
+        report.put("sessions", SESSIONS);
+        report.put("daySeconds", DAY_SECONDS);
+        report.put("spots", SPOTS);
+        report.put("users", USERS);
+        report.put("clientThreads", CLIENT_THREADS);
+        report.put("elapsedSeconds", seconds);
+        report.put("totalRequests", totalRequests);
+        report.put("throughput", totalRequests / seconds);
+        report.put("rejectedEntries", rejectedEntries.get());
+        report.put("skippedExits", skippedExits.get());
+        report.put("backgroundStatements", background);
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private Map<String, Integer> errorCounts() {
+        Map<String, Integer> errors = new TreeMap<>();
+        serverErrors.forEach((endpoint, count) -> errors.put(endpoint, count.get()));
+        return errors;
+    }
+
+    /**
+     * クライアント側のエンドポイント名に対応するサーバー側のSQL文の発行数
+     */
+    private static long statementsFor(String endpoint) {
+        LongAdder count = STATEMENTS.get(endpoint);
+        return count != null ? count.sum() : 0;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * リクエストのメソッドとパス（数値のパス要素は {id} に置換し、クライアント側のエンドポイント名と揃える）
+     */
+    private static String endpointOf(HttpServletRequest request) {
+        return request.getMethod() + " " + request.getRequestURI().replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+
+    // ==================== SQL文の計数 ====================
+
+    private static DataSource countingProxy(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(SyntheticDayLoadTest.class.getClassLoader(),
+            new Class<?>[] {DataSource.class}, (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                return result instanceof Connection connection ? countingProxy(connection) : result;
+            });
+    }
+
+    private static Connection countingProxy(Connection target) {
+        return (Connection) Proxy.newProxyInstance(SyntheticDayLoadTest.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement")) {
+                    String endpoint = CURRENT_ENDPOINT.get();
+                    STATEMENTS.computeIfAbsent(endpoint != null ? endpoint : BACKGROUND, k -> new LongAdder())
+                        .increment();
+                }
+                return invoke(target, method, args);
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ScheduledFlow(int minute, Flow action) {
+    }
+
+    @FunctionalInterface
+    private interface Flow {
+        void run() throws Exception;
+    }
+}
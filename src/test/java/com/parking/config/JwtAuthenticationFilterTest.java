@@ -0,0 +1,139 @@
+package com.parking.config;
+
+import com.parking.entity.Role;
+import com.parking.entity.User;
+import com.parking.service.JwtService;
+import com.parking.service.TokenDenyList;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * JWT認証フィルターのテスト
+ * 失効・期限切れのトークンは認証されず、ユーザー単位の失効は失効前に発行されたトークンにだけ適用される。
+ * 失効の直後（同じ秒）に発行されたトークンは有効で、ミリ秒の発行日時がない旧トークンは同じ秒でも失効する
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-authentication-filter-test-must-be-64-bytes!";
+    private static final long EXPIRATION_MS = 3_600_000;
+    private static final long USER_ID = 42L;
+
+    private final JwtService jwtService = new JwtService(SECRET, EXPIRATION_MS, 100);
+    private final TokenDenyList tokenDenyList = new TokenDenyList();
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, tokenDenyList);
+
+    JwtAuthenticationFilterTest() {
+        ReflectionTestUtils.setField(tokenDenyList, "expiration", EXPIRATION_MS);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticatesFromClaims() throws Exception {
+        Authentication authentication = filter(jwtService.generateToken(user()));
+
+        assertNotNull(authentication);
+        JwtPrincipal principal = (JwtPrincipal) authentication.getPrincipal();
+        assertEquals(USER_ID, principal.userId());
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void revokedTokenIsRejected() throws Exception {
+        String token = jwtService.generateToken(user());
+        tokenDenyList.revoke(jwtService.verify(token));
+
+        assertNull(filter(token));
+        // 失効は jti 単位で、同じユーザーの他のトークンは有効
+        assertNotNull(filter(jwtService.generateToken(user())));
+    }
+
+    @Test
+    void expiredTokenIsRejected() throws Exception {
+        JwtService expiringService = new JwtService(SECRET, -1_000, 100);
+        String token = expiringService.generateToken(user());
+
+        assertNull(filter(token));
+    }
+
+    @Test
+    void loginRightAfterPasswordChangeIsAccepted() throws Exception {
+        String before = jwtService.generateToken(user());
+
+        tokenDenyList.revokeUser(USER_ID);
+        String after = jwtService.generateToken(user());
+
+        assertNull(filter(before));
+        assertNotNull(filter(after));
+    }
+
+    @Test
+    void userWatermarkRevokesLegacyTokensIssuedInTheSameSecond() throws Exception {
+        // 失効の境界となる秒を確定させる（呼び出し中に秒が変わった場合はやり直す）
+        long watermark;
+        do {
+            watermark = System.currentTimeMillis() / 1000;
+            tokenDenyList.revokeUser(USER_ID);
+        } while (System.currentTimeMillis() / 1000 != watermark);
+
+        assertNull(filter(token(watermark)));
+        assertNull(filter(token(watermark - 60)));
+        assertNotNull(filter(token(watermark + 1)));
+    }
+
+    /**
+     * 発行日時を秒単位で指定してトークンを生成（ミリ秒の発行日時クレームのない旧形式）
+     */
+    private static String token(long issuedAtSeconds) {
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject("watermark")
+                .claim("userId", USER_ID)
+                .claim("roles", List.of("ROLE_USER"))
+                .setIssuedAt(new Date(issuedAtSeconds * 1000))
+                .setExpiration(new Date(issuedAtSeconds * 1000 + EXPIRATION_MS))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    private Authentication filter(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/parking/spots");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static User user() {
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername("filter-test");
+        user.setEmail("filter-test@example.com");
+        user.setRoles(Set.of(role));
+        return user;
+    }
+}
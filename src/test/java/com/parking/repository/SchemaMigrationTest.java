@@ -0,0 +1,119 @@
+package com.parking.repository;
+
+import com.parking.service.NotificationDispatcher;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * スキーマのマイグレーションテスト
+ * Flywayのマイグレーションがすべて適用され、二重駐車・二重決済を防ぐ部分一意インデックスが存在し有効であることを確認する
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaMigrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void allMigrationsAreApplied() {
+        assertEquals(0, flyway.info().pending().length);
+        assertTrue(flyway.info().applied().length > 0);
+    }
+
+    @Test
+    void partialUniqueIndexesExist() {
+        List<String> indexes = jdbcTemplate.queryForList(
+            "SELECT indexname FROM pg_indexes WHERE indexdef LIKE 'CREATE UNIQUE INDEX%' AND indexdef LIKE '%WHERE%'",
+            String.class);
+
+        assertTrue(indexes.contains("idx_parking_sessions_active_spot_unique"), indexes.toString());
+        assertTrue(indexes.contains("idx_parking_sessions_active_plate_unique"), indexes.toString());
+        assertTrue(indexes.contains("idx_payments_session_unique"), indexes.toString());
+    }
+
+    @Test
+    void secondActiveSessionOnSameSpotIsRejected() {
+        long spotId = insertSpot("SCHEMA-S1");
+        insertSession(spotId, "SCHEMA-1001", "ACTIVE");
+
+        assertThrows(DataIntegrityViolationException.class,
+            () -> insertSession(spotId, "SCHEMA-1002", "ACTIVE"));
+        // 完了済みのセッションは制約の対象外
+        insertSession(spotId, "SCHEMA-1003", "COMPLETED");
+    }
+
+    @Test
+    void secondActiveSessionForSamePlateIsRejected() {
+        long firstSpotId = insertSpot("SCHEMA-P1");
+        long secondSpotId = insertSpot("SCHEMA-P2");
+        insertSession(firstSpotId, "SCHEMA-2001", "ACTIVE");
+
+        assertThrows(DataIntegrityViolationException.class,
+            () -> insertSession(secondSpotId, "SCHEMA-2001", "ACTIVE"));
+        insertSession(secondSpotId, "SCHEMA-2001", "COMPLETED");
+    }
+
+    @Test
+    void secondCompletedPaymentForSameSessionIsRejected() {
+        long spotId = insertSpot("SCHEMA-Y1");
+        long sessionId = insertSession(spotId, "SCHEMA-3001", "COMPLETED");
+        insertPayment(sessionId, "COMPLETED");
+
+        assertThrows(DataIntegrityViolationException.class, () -> insertPayment(sessionId, "COMPLETED"));
+        insertPayment(sessionId, "FAILED");
+    }
+
+    private long insertSpot(String spotNumber) {
+        return jdbcTemplate.queryForObject(
+            "INSERT INTO parking_spots (spot_number, spot_type, status, floor_level, hourly_rate) "
+                + "VALUES (?, 'REGULAR', 'AVAILABLE', 1, 5.00) RETURNING id",
+            Long.class, spotNumber);
+    }
+
+    private long insertSession(long spotId, String licensePlate, String status) {
+        return jdbcTemplate.queryForObject(
+            "INSERT INTO parking_sessions (parking_spot_id, license_plate, entry_time, status) "
+                + "VALUES (?, ?, CURRENT_TIMESTAMP, ?) RETURNING id",
+            Long.class, spotId, licensePlate, status);
+    }
+
+    private void insertPayment(long sessionId, String status) {
+        jdbcTemplate.update(
+            "INSERT INTO payments (parking_session_id, amount, payment_method, status) VALUES (?, 500, 'CASH', ?)",
+            sessionId, status);
+    }
+}
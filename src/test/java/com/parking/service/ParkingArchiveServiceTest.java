@@ -0,0 +1,94 @@
+package com.parking.service;
+
+import com.parking.dto.ParkingSessionHistoryItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * アーカイブのテスト
+ * マイグレーションで作成したアーカイブテーブルへ、保存期間を過ぎたセッションと決済が移動し、
+ * 月ごとのパーティションが圧縮の設定付きで作成されることを確認する
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class ParkingArchiveServiceTest {
+
+    private static final String PLATE = "ARCHIVE-1";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("parking.archive.retention-months", () -> "24");
+    }
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private ParkingArchiveService parkingArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void expiredSessionsAndPaymentsMoveToCompressedPartitions() {
+        LocalDateTime entryTime = LocalDateTime.now().minusYears(3).withNano(0);
+        long spotId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM parking_spots", Long.class);
+        long sessionId = jdbcTemplate.queryForObject(
+            "INSERT INTO parking_sessions (parking_spot_id, license_plate, entry_time, exit_time, total_amount, "
+                + "status, payment_status) VALUES (?, ?, ?, ?, 500, 'COMPLETED', 'PAID') RETURNING id",
+            Long.class, spotId, PLATE, Timestamp.valueOf(entryTime), Timestamp.valueOf(entryTime.plusHours(2)));
+        jdbcTemplate.update(
+            "INSERT INTO payments (parking_session_id, amount, payment_method, status, transaction_id, created_at) "
+                + "VALUES (?, 500, 'CASH', 'COMPLETED', 'TXN-ARCHIVE-1', ?)",
+            sessionId, Timestamp.valueOf(entryTime.plusHours(2)));
+
+        assertEquals(1, parkingArchiveService.archive());
+
+        assertEquals(0, count("SELECT COUNT(*) FROM parking_sessions WHERE id = ?", sessionId));
+        assertEquals(0, count("SELECT COUNT(*) FROM payments WHERE parking_session_id = ?", sessionId));
+        assertEquals(1, count("SELECT COUNT(*) FROM payments_archive WHERE parking_session_id = ?", sessionId));
+
+        List<ParkingSessionHistoryItem> history = parkingArchiveService.findArchivedHistory(
+            PLATE, entryTime.minusDays(1), entryTime.plusDays(1));
+        assertEquals(1, history.size());
+        assertEquals(Long.valueOf(sessionId), history.get(0).getSessionId());
+
+        // パーティションは短い行でも圧縮を試み、可変長列は圧縮方式を親テーブルから継承する
+        List<String> options = jdbcTemplate.queryForList(
+            "SELECT array_to_string(c.reloptions, ',') FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent IN ('parking_sessions_archive'::regclass, 'payments_archive'::regclass)",
+            String.class);
+        assertTrue(!options.isEmpty() && options.stream().allMatch(o -> o.contains("toast_tuple_target=128")),
+            options.toString());
+        assertEquals(0, count(
+            "SELECT COUNT(*) FROM pg_inherits i JOIN pg_attribute a ON a.attrelid = i.inhrelid "
+                + "WHERE i.inhparent = 'payments_archive'::regclass AND a.attname = ? AND a.attcompression = ''",
+            "failure_reason"));
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
@@ -0,0 +1,243 @@
+package com.parking.service;
+
+import com.parking.dto.PaymentRequest;
+import com.parking.dto.PaymentResponse;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.Payment;
+import com.parking.repository.ParkingSessionRepository;
+import com.parking.repository.ParkingSpotRepository;
+import com.parking.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 冪等性キー付き決済の同時再送テスト
+ * 同じキーのリクエストが同時に届いても決済処理は1回だけ実行され、すべてのリクエストが同じ結果を受け取る。
+ * キーは呼び出し元ごとに独立し、ゲートウェイを呼び出していない場合のみ解放される。
+ * 受付のみ（202）の結果は、そのキーで作成した決済の確定後に確定した結果で再送される
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class PaymentIdempotencyRaceTest {
+
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    private static final Long CALLER_ID = 1L;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private PaymentIdempotencyService paymentIdempotencyService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ParkingSessionRepository parkingSessionRepository;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Test
+    void concurrentRetriesProcessPaymentOnce() throws Exception {
+        PaymentRequest request = new PaymentRequest();
+        request.setSessionId(1L);
+        request.setAmount(new BigDecimal("500"));
+        request.setPaymentMethod(Payment.PaymentMethod.CASH);
+
+        AtomicInteger processed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        try {
+            List<Future<ResponseEntity<PaymentResponse>>> results = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return paymentIdempotencyService.execute(CALLER_ID, "race-key", request, () -> {
+                        processed.incrementAndGet();
+                        sleep(200);
+                        PaymentResponse response = new PaymentResponse();
+                        response.setPaymentId(42L);
+                        response.setTransactionId("TXN-RACE");
+                        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+                    });
+                }));
+            }
+            start.countDown();
+
+            for (Future<ResponseEntity<PaymentResponse>> result : results) {
+                ResponseEntity<PaymentResponse> response = result.get();
+                assertEquals(HttpStatus.CREATED.value(), response.getStatusCode().value());
+                assertEquals("TXN-RACE", response.getBody().getTransactionId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, processed.get());
+
+        // 完了後の再送もキャッシュから同じ結果を返す
+        ResponseEntity<PaymentResponse> replay = paymentIdempotencyService.execute(CALLER_ID, "race-key", request,
+            () -> {
+                processed.incrementAndGet();
+                return ResponseEntity.internalServerError().build();
+            });
+        assertEquals("true", replay.getHeaders().getFirst(PaymentIdempotencyService.REPLAYED_HEADER));
+        assertEquals(1, processed.get());
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        PaymentRequest first = new PaymentRequest();
+        first.setSessionId(1L);
+        first.setAmount(new BigDecimal("500"));
+        first.setPaymentMethod(Payment.PaymentMethod.CASH);
+        paymentIdempotencyService.execute(CALLER_ID, "mismatch-key", first,
+            () -> ResponseEntity.status(HttpStatus.CREATED).body(new PaymentResponse()));
+
+        PaymentRequest second = new PaymentRequest();
+        second.setSessionId(1L);
+        second.setAmount(new BigDecimal("900"));
+        second.setPaymentMethod(Payment.PaymentMethod.CASH);
+        ResponseEntity<PaymentResponse> response = paymentIdempotencyService.execute(CALLER_ID, "mismatch-key",
+            second, () -> ResponseEntity.status(HttpStatus.CREATED).body(new PaymentResponse()));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), response.getStatusCode().value());
+    }
+
+    @Test
+    void sameKeyFromDifferentCallersIsProcessedSeparately() {
+        PaymentRequest request = cashPayment();
+        AtomicInteger processed = new AtomicInteger();
+
+        paymentIdempotencyService.execute(CALLER_ID, "shared-key", request, () -> created(processed));
+        ResponseEntity<PaymentResponse> other = paymentIdempotencyService.execute(2L, "shared-key", request,
+            () -> created(processed));
+
+        assertEquals(2, processed.get());
+        assertNull(other.getHeaders().getFirst(PaymentIdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void keyIsReleasedOnlyWhenGatewayWasNotCalled() {
+        PaymentRequest request = cashPayment();
+        AtomicInteger processed = new AtomicInteger();
+
+        // 503（サーキットオープン等でゲートウェイを呼び出していない）の後は同じキーで再試行できる
+        paymentIdempotencyService.execute(CALLER_ID, "unavailable-key", request, () -> {
+            processed.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        });
+        paymentIdempotencyService.execute(CALLER_ID, "unavailable-key", request, () -> created(processed));
+        assertEquals(2, processed.get());
+
+        // 500（ゲートウェイを呼び出したか分からない）の結果は保存され、再送しても再処理しない
+        paymentIdempotencyService.execute(CALLER_ID, "error-key", request, () -> {
+            processed.incrementAndGet();
+            return ResponseEntity.internalServerError().build();
+        });
+        ResponseEntity<PaymentResponse> replay = paymentIdempotencyService.execute(CALLER_ID, "error-key", request,
+            () -> created(processed));
+        assertEquals(3, processed.get());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), replay.getStatusCode().value());
+        assertEquals("true", replay.getHeaders().getFirst(PaymentIdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void acceptedReplayIsRefreshedFromThePaymentCreatedByTheKey() {
+        ParkingSession session = createCompletedSession("IDEM-ACCEPTED");
+        Payment accepted = savePayment(session, Payment.PaymentStatus.PROCESSING, "TXN-IDEM-1");
+        PaymentRequest request = cashPayment();
+        request.setSessionId(session.getId());
+
+        paymentIdempotencyService.execute(CALLER_ID, "accepted-key", request,
+            () -> ResponseEntity.status(HttpStatus.ACCEPTED).body(PaymentService.convertToPaymentResponse(accepted)));
+        // 同じセッションの後の試行（セッション単位で照会すると、こちらが返る）
+        savePayment(session, Payment.PaymentStatus.FAILED, "TXN-IDEM-2");
+        accepted.setStatus(Payment.PaymentStatus.COMPLETED);
+        paymentRepository.save(accepted);
+
+        ResponseEntity<PaymentResponse> replay = paymentIdempotencyService.execute(CALLER_ID, "accepted-key", request,
+            () -> ResponseEntity.internalServerError().build());
+
+        assertEquals(HttpStatus.CREATED.value(), replay.getStatusCode().value());
+        assertEquals(accepted.getId(), replay.getBody().getPaymentId());
+        assertEquals(Payment.PaymentStatus.COMPLETED, replay.getBody().getStatus());
+    }
+
+    private Payment savePayment(ParkingSession session, Payment.PaymentStatus status, String transactionId) {
+        Payment payment = new Payment();
+        payment.setParkingSession(session);
+        payment.setAmount(new BigDecimal("500"));
+        payment.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD);
+        payment.setStatus(status);
+        payment.setTransactionId(transactionId);
+        return paymentRepository.save(payment);
+    }
+
+    private ParkingSession createCompletedSession(String licensePlate) {
+        LocalDateTime now = LocalDateTime.now();
+        ParkingSession session = new ParkingSession();
+        session.setParkingSpot(parkingSpotRepository.findAll().get(0));
+        session.setLicensePlate(licensePlate);
+        session.setEntryTime(now.minusHours(2));
+        session.setExitTime(now);
+        session.setStatus(ParkingSession.SessionStatus.COMPLETED);
+        session.setTotalAmount(new BigDecimal("500"));
+        return parkingSessionRepository.save(session);
+    }
+
+    private static PaymentRequest cashPayment() {
+        PaymentRequest request = new PaymentRequest();
+        request.setSessionId(1L);
+        request.setAmount(new BigDecimal("500"));
+        request.setPaymentMethod(Payment.PaymentMethod.CASH);
+        return request;
+    }
+
+    private static ResponseEntity<PaymentResponse> created(AtomicInteger processed) {
+        processed.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED).body(new PaymentResponse());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
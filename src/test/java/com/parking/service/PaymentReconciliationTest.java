@@ -0,0 +1,184 @@
+package com.parking.service;
+
+import com.parking.dto.PaymentRequest;
+import com.parking.dto.PaymentResponse;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.Payment;
+import com.parking.repository.ParkingSessionRepository;
+import com.parking.repository.ParkingSpotRepository;
+import com.parking.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 結果が不明な決済の確定テスト
+ * タイムアウト・通信エラーの決済は失敗にせず処理中のまま残り、取引IDの照会で確定する。
+ * ゲートウェイを呼び出さなかった場合のみ即座に失敗となり、決済は登録されない。
+ * 拒否・呼び出し不可の後は同じセッションで再決済できる
+ */
+@SpringBootTest(properties = {
+    "payment.reconcile.min-age-ms=0",
+    "payment.reconcile.interval-ms=3600000",
+    "payment.gateway.circuit.failure-threshold=100",
+    "payment.gateway.max-in-flight.ELECTRONIC_WALLET=0"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class PaymentReconciliationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @MockBean
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ParkingSessionRepository parkingSessionRepository;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Test
+    void unknownOutcomeStaysProcessingUntilReconciled() throws Exception {
+        ParkingSession session = createCompletedSession("RECON-1");
+        when(paymentGateway.charge(any())).thenThrow(new IllegalStateException("Connection reset"));
+
+        PaymentResponse response = paymentService.processPayment(cardPayment(session.getId()));
+
+        assertEquals(Payment.PaymentStatus.PROCESSING, response.getStatus());
+        assertEquals(Payment.PaymentStatus.PROCESSING, statusOf(response.getPaymentId()));
+
+        when(paymentGateway.lookup(response.getTransactionId()))
+            .thenReturn(Optional.of(new PaymentGateway.Result(true, "GW-RECON-1")));
+        paymentService.reconcileProcessingPayments();
+
+        assertEquals(Payment.PaymentStatus.COMPLETED, statusOf(response.getPaymentId()));
+        assertEquals(ParkingSession.PaymentStatus.PAID,
+            parkingSessionRepository.findById(session.getId()).orElseThrow().getPaymentStatus());
+    }
+
+    @Test
+    void rejectedCallFailsWithoutCallingGateway() throws Exception {
+        ParkingSession session = createCompletedSession("RECON-2");
+        PaymentGatewayUnavailableException error = assertThrows(PaymentGatewayUnavailableException.class,
+            () -> paymentService.processPayment(walletPayment(session.getId())));
+
+        assertFalse(error instanceof PaymentOutcomeUnknownException);
+        assertTrue(paymentRepository.findAll().stream()
+            .noneMatch(payment -> payment.getParkingSession().getId().equals(session.getId())));
+        verify(paymentGateway, never())
+            .charge(argThat(charge -> charge.paymentMethod() == Payment.PaymentMethod.ELECTRONIC_WALLET));
+    }
+
+    @Test
+    void sessionCanBePaidAfterDeclineAndUnavailableGateway() throws Exception {
+        ParkingSession session = createCompletedSession("RECON-4");
+        when(paymentGateway.charge(any()))
+            .thenReturn(new PaymentGateway.Result(false, null))
+            .thenReturn(new PaymentGateway.Result(false, null))
+            .thenReturn(new PaymentGateway.Result(true, "GW-RECON-4"));
+
+        assertEquals(Payment.PaymentStatus.FAILED, paymentService.processPayment(cardPayment(session.getId())).getStatus());
+        assertEquals(Payment.PaymentStatus.FAILED, paymentService.processPayment(cardPayment(session.getId())).getStatus());
+        assertThrows(PaymentGatewayUnavailableException.class,
+            () -> paymentService.processPayment(walletPayment(session.getId())));
+        PaymentResponse paid = paymentService.processPayment(cardPayment(session.getId()));
+
+        assertEquals(Payment.PaymentStatus.COMPLETED, paid.getStatus());
+        assertEquals(paid.getPaymentId(), paymentService.getPaymentBySessionId(session.getId()).getPaymentId());
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+            () -> paymentService.processPayment(cardPayment(session.getId())));
+        assertTrue(error.getMessage().startsWith("Payment already completed"), error.getMessage());
+    }
+
+    @Test
+    void paymentLeftProcessingWithoutGatewayRecordFails() throws Exception {
+        ParkingSession session = createCompletedSession("RECON-3");
+        Payment payment = new Payment();
+        payment.setParkingSession(session);
+        payment.setAmount(new BigDecimal("500"));
+        payment.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD);
+        payment.setStatus(Payment.PaymentStatus.PROCESSING);
+        payment.setTransactionId("TXN-CRASHED");
+        Long paymentId = paymentRepository.save(payment).getId();
+
+        when(paymentGateway.lookup("TXN-CRASHED")).thenReturn(Optional.empty());
+        paymentService.reconcileProcessingPayments();
+
+        Payment reconciled = paymentRepository.findById(paymentId).orElseThrow();
+        assertEquals(Payment.PaymentStatus.FAILED, reconciled.getStatus());
+        assertEquals("Payment was not received by the gateway", reconciled.getFailureReason());
+    }
+
+    private Payment.PaymentStatus statusOf(Long paymentId) {
+        return paymentRepository.findById(paymentId).orElseThrow().getStatus();
+    }
+
+    private static PaymentRequest cardPayment(Long sessionId) {
+        PaymentRequest request = new PaymentRequest();
+        request.setSessionId(sessionId);
+        request.setAmount(new BigDecimal("500"));
+        request.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD);
+        request.setCardNumber("4111111111111111");
+        return request;
+    }
+
+    private static PaymentRequest walletPayment(Long sessionId) {
+        PaymentRequest request = new PaymentRequest();
+        request.setSessionId(sessionId);
+        request.setAmount(new BigDecimal("500"));
+        request.setPaymentMethod(Payment.PaymentMethod.ELECTRONIC_WALLET);
+        request.setWalletId("wallet-1");
+        request.setWalletProvider("PayPay");
+        return request;
+    }
+
+    private ParkingSession createCompletedSession(String licensePlate) {
+        LocalDateTime now = LocalDateTime.now();
+        ParkingSession session = new ParkingSession();
+        session.setParkingSpot(parkingSpotRepository.findAll().get(0));
+        session.setLicensePlate(licensePlate);
+        session.setEntryTime(now.minusHours(2));
+        session.setExitTime(now);
+        session.setStatus(ParkingSession.SessionStatus.COMPLETED);
+        session.setTotalAmount(new BigDecimal("500"));
+        return parkingSessionRepository.save(session);
+    }
+}
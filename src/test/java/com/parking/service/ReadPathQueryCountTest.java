@@ -0,0 +1,233 @@
+package com.parking.service;
+
+import com.parking.dto.FeeQuote;
+import com.parking.dto.ParkingSessionHistoryItem;
+import com.parking.dto.PaymentResponse;
+import com.parking.entity.ParkingSession;
+import com.parking.entity.ParkingSpot;
+import com.parking.entity.Payment;
+import com.parking.repository.ParkingSessionRepository;
+import com.parking.repository.ParkingSpotRepository;
+import com.parking.repository.PaymentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 決済・セッションの読み取り経路のSQL発行数テスト
+ * 件数に比例してSQLが増える（N+1）実装に戻った場合に失敗する
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class ReadPathQueryCountTest {
+
+    private static final String PLATE = "N1-TEST";
+    private static final int SESSIONS = 25;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        registry.add("payment.statistics.cache-ttl-ms", () -> "60000");
+    }
+
+    /** バックグラウンドの配信ポーリングがSQL発行数に混ざらないようにする */
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private ParkingSessionRepository parkingSessionRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+
+    @Autowired
+    private PaymentStatisticsService paymentStatisticsService;
+
+    private StatementCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new StatementCounter(entityManagerFactory);
+        if (!parkingSessionRepository.findByLicensePlate(PLATE).isEmpty()) {
+            return;
+        }
+
+        List<ParkingSpot> spots = parkingSpotRepository.findAll();
+        LocalDateTime start = LocalDateTime.now().minusDays(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            ParkingSession session = new ParkingSession();
+            // スペットを分散させ、遅延ロードがあれば行ごとにSQLが発生するようにする
+            session.setParkingSpot(spots.get(i % spots.size()));
+            session.setLicensePlate(PLATE);
+            session.setEntryTime(start.plusDays(i));
+            boolean active = i == SESSIONS - 1;
+            session.setExitTime(active ? null : start.plusDays(i).plusHours(2));
+            session.setStatus(active ? ParkingSession.SessionStatus.ACTIVE : ParkingSession.SessionStatus.COMPLETED);
+            session.setTotalAmount(new BigDecimal("500"));
+            session = parkingSessionRepository.save(session);
+
+            Payment payment = new Payment();
+            payment.setParkingSession(session);
+            payment.setAmount(new BigDecimal("500"));
+            payment.setPaymentMethod(i % 2 == 0 ? Payment.PaymentMethod.CREDIT_CARD : Payment.PaymentMethod.QR_CODE);
+            payment.setStatus(Payment.PaymentStatus.COMPLETED);
+            payment.setTransactionId("TXN-N1-" + i);
+            paymentRepository.save(payment);
+        }
+        // リポジトリに直接保存したアクティブセッションをレジストリに反映する
+        activeSessionRegistry.reload();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void paymentsByLicensePlateUseSingleQueryPerPage() {
+        List<PaymentResponse> payments = new ArrayList<>();
+        String cursor = null;
+        do {
+            String current = cursor;
+            Map<String, Object> page = counter.assertStatements(1, "getPaymentsPageByLicensePlate",
+                () -> paymentService.getPaymentsPageByLicensePlate(PLATE, current, 10));
+            payments.addAll((List<PaymentResponse>) page.get("content"));
+            cursor = (String) page.get("nextCursor");
+        } while (cursor != null);
+
+        assertEquals(SESSIONS, payments.size());
+        assertEquals(SESSIONS, payments.stream().map(PaymentResponse::getPaymentId).distinct().count());
+        payments.forEach(payment -> {
+            assertEquals(PLATE, payment.getLicensePlate());
+            assertNotNull(payment.getSessionId());
+        });
+        assertNotNull(payments.stream()
+            .filter(payment -> payment.getPaymentMethod() == Payment.PaymentMethod.QR_CODE)
+            .findFirst().orElseThrow().getQrCodeUrl());
+    }
+
+    @Test
+    void paymentBySessionIdUsesSingleQuery() {
+        Long sessionId = parkingSessionRepository.findByLicensePlate(PLATE).get(0).getId();
+
+        PaymentResponse payment = counter.assertStatements(1, "getPaymentBySessionId",
+            () -> paymentService.getPaymentBySessionId(sessionId));
+
+        assertEquals(sessionId, payment.getSessionId());
+        assertEquals(PLATE, payment.getLicensePlate());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sessionHistoryPagesUseSingleQueryEach() {
+        List<ParkingSessionHistoryItem> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            String current = cursor;
+            Map<String, Object> page = counter.assertStatements(1, "getSessionHistoryPage",
+                () -> parkingService.getSessionHistoryPage(PLATE, current, 10));
+            List<ParkingSessionHistoryItem> content = (List<ParkingSessionHistoryItem>) page.get("content");
+            content.forEach(item -> assertNotNull(item.getSpotNumber()));
+            seen.addAll(content);
+            cursor = (String) page.get("nextCursor");
+        } while (cursor != null);
+
+        assertEquals(SESSIONS, seen.size());
+        assertEquals(SESSIONS, seen.stream().map(ParkingSessionHistoryItem::getSessionId).distinct().count());
+    }
+
+    @Test
+    void sessionHistoryExportUsesSingleQuery() {
+        List<ParkingSessionHistoryItem> rows = new ArrayList<>();
+
+        long count = counter.assertStatements(1, "exportSessionHistory",
+            () -> parkingService.exportSessionHistory(PLATE, rows::add));
+
+        assertEquals(SESSIONS, count);
+        // 新しい順（アクティブなセッションが先頭）
+        assertNull(rows.get(0).getExitTime());
+        assertTrue(rows.get(0).getEntryTime().isAfter(rows.get(SESSIONS - 1).getEntryTime()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void feeQuotesUseSingleQuery() {
+        List<Long> sessionIds = parkingSessionRepository.findByLicensePlate(PLATE).stream()
+            .map(ParkingSession::getId)
+            .toList();
+
+        Map<String, Object> result = counter.assertStatements(1, "quoteParkingFees",
+            () -> parkingService.quoteParkingFees(sessionIds,
+                List.of(ParkingSession.normalizeLicensePlate(" " + PLATE.toLowerCase()))));
+
+        // アクティブなセッションのみ見積もられる（ナンバープレートはAPIの入口と同じく正規化して照合）
+        List<FeeQuote> quotes = (List<FeeQuote>) result.get("quotes");
+        assertEquals(1, quotes.size());
+        assertNotNull(quotes.get(0).getAmount());
+        assertEquals(SESSIONS - 1, ((List<Long>) result.get("missingSessionIds")).size());
+        assertTrue(((List<String>) result.get("missingLicensePlates")).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void paymentStatisticsUseSingleGroupedQueryThenCache() {
+        paymentStatisticsService.invalidate();
+        counter.assertStatements(1, "getPaymentStatistics", () -> paymentService.getPaymentStatistics());
+        long hits = (Long) paymentStatisticsService.getCacheStatistics().get("hitCount");
+
+        // 有効期限内の2回目以降はキャッシュから返る
+        Map<String, Object> stats = counter.assertStatements(0, "getPaymentStatistics (cached)",
+            () -> paymentService.getPaymentStatistics());
+
+        assertTrue((Long) stats.get("completedPayments") >= SESSIONS);
+        assertTrue((Long) stats.get("totalPayments") >= (Long) stats.get("completedPayments"));
+        assertTrue(((Map<String, Long>) stats.get("paymentMethodStats")).get("QR_CODE") >= SESSIONS / 2);
+        assertEquals(hits + 1, paymentStatisticsService.getCacheStatistics().get("hitCount"));
+    }
+
+    @Test
+    void activeSessionsFetchSpotsInSameQuery() {
+        counter.assertStatements(1, "getActiveParkingSessions", () -> {
+            List<ParkingSession> sessions = parkingService.getActiveParkingSessions();
+            sessions.forEach(session -> assertNotNull(session.getParkingSpot().getSpotNumber()));
+            return sessions;
+        });
+    }
+}
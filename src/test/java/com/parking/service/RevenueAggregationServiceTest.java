@@ -0,0 +1,124 @@
+package com.parking.service;
+
+import com.parking.entity.Payment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 売上集計サービスのテスト
+ * 同じ時間帯・決済方法の決済は複数のストライプ行に分かれて加算され、レポートでは合算される
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class RevenueAggregationServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int PAYMENTS_PER_THREAD = 25;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private RevenueAggregationService revenueAggregationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearRollups() {
+        jdbcTemplate.update("DELETE FROM revenue_hourly_rollups");
+    }
+
+    @Test
+    void concurrentPaymentsInSameHourAreSpreadAcrossStripesAndSummedInReport() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long firstId = (long) t * PAYMENTS_PER_THREAD + 1;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (long id = firstId; id < firstId + PAYMENTS_PER_THREAD; id++) {
+                        revenueAggregationService.recordCompleted(payment(id, createdAt, "100.00"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int stripes = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM revenue_hourly_rollups WHERE bucket_start = ? AND payment_method = 'CASH'",
+            Integer.class, createdAt);
+        assertTrue(stripes > 1, "stripes=" + stripes);
+
+        Map<String, Object> report = revenueAggregationService.getDailyReport();
+        assertEquals(THREADS * PAYMENTS_PER_THREAD * 100.0, report.get("totalRevenue"));
+        assertEquals((long) THREADS * PAYMENTS_PER_THREAD, report.get("transactionCount"));
+    }
+
+    @Test
+    void reversalIsSubtractedFromReport() {
+        LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        Payment first = payment(1L, createdAt, "300.00");
+        Payment second = payment(2L, createdAt, "500.00");
+        revenueAggregationService.recordCompleted(first);
+        revenueAggregationService.recordCompleted(second);
+
+        revenueAggregationService.recordReversal(first);
+
+        Map<String, Object> report = revenueAggregationService.getDailyReport();
+        assertEquals(500.0, report.get("totalRevenue"));
+        assertEquals(1L, report.get("transactionCount"));
+    }
+
+    private static Payment payment(Long id, LocalDateTime createdAt, String amount) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setCreatedAt(createdAt);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setPaymentMethod(Payment.PaymentMethod.CASH);
+        return payment;
+    }
+}
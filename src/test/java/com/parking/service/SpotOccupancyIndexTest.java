@@ -0,0 +1,130 @@
+package com.parking.service;
+
+import com.parking.entity.ParkingSpot;
+import com.parking.repository.ParkingSpotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * スペット占有インデックスの並行確保・解放のテスト
+ * 同じスペットが同時に2回確保されず、確保・解放・削除が並行してもカウンタが一覧と一致する
+ */
+class SpotOccupancyIndexTest {
+
+    private static final int SPOTS = 200;
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 5_000;
+
+    private final List<ParkingSpot> spots = new ArrayList<>();
+    private SpotOccupancyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= SPOTS; id++) {
+            spots.add(spot(id, id % 4 == 0 ? ParkingSpot.SpotType.MOTORCYCLE : ParkingSpot.SpotType.REGULAR));
+        }
+        ParkingSpotRepository repository = mock(ParkingSpotRepository.class);
+        when(repository.findAll()).thenReturn(spots);
+        index = new SpotOccupancyIndex(repository);
+        index.reload();
+    }
+
+    @Test
+    void concurrentClaimsNeverHandOutTheSameSpotTwice() throws Exception {
+        Set<Long> held = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        runConcurrently(() -> {
+            Optional<Long> claimed = index.claimAny(ParkingSpot.SpotType.REGULAR);
+            if (claimed.isPresent()) {
+                if (!held.add(claimed.get())) {
+                    duplicates.incrementAndGet();
+                }
+                held.remove(claimed.get());
+                index.release(claimed.get());
+            }
+        });
+
+        assertEquals(0, duplicates.get());
+        assertEquals(SPOTS, index.countByStatus(ParkingSpot.SpotStatus.AVAILABLE));
+        assertEquals(0, index.countByStatus(ParkingSpot.SpotStatus.OCCUPIED));
+        assertEquals(SPOTS, index.getAvailableSpots().size());
+    }
+
+    @Test
+    void claimsRacingRemovalsKeepCountsConsistent() throws Exception {
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextInt(10) == 0) {
+                // 削除と再登録（スロットは空きリストから再利用される）
+                ParkingSpot spot = spots.get(random.nextInt(SPOTS));
+                index.evict(spot.getId());
+                index.refresh(spot);
+                return;
+            }
+            ParkingSpot.SpotType type = random.nextBoolean()
+                ? ParkingSpot.SpotType.REGULAR
+                : ParkingSpot.SpotType.MOTORCYCLE;
+            index.claimAny(type).ifPresent(spotId -> {
+                ParkingSpot claimed = index.getSpot(spotId).orElse(null);
+                assertTrue(claimed == null || claimed.getSpotType() == type);
+                index.release(spotId);
+            });
+        });
+
+        long available = index.countByStatus(ParkingSpot.SpotStatus.AVAILABLE);
+        long occupied = index.countByStatus(ParkingSpot.SpotStatus.OCCUPIED);
+        assertEquals(SPOTS, available + occupied);
+        assertEquals(available, index.getAvailableSpots().size());
+        assertEquals(index.getAvailableSpots(ParkingSpot.SpotType.MOTORCYCLE).size()
+            + index.getAvailableSpots(ParkingSpot.SpotType.REGULAR).size(), available);
+        for (ParkingSpot spot : spots) {
+            assertTrue(index.getSpot(spot.getId()).isPresent(), "spot " + spot.getId());
+        }
+    }
+
+    private void runConcurrently(Runnable action) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        action.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ParkingSpot spot(long id, ParkingSpot.SpotType type) {
+        return new ParkingSpot(id, "S-" + id, type, ParkingSpot.SpotStatus.AVAILABLE, (int) (id % 3) + 1,
+            300.0, null, null, 0L);
+    }
+}
@@ -0,0 +1,75 @@
+package com.parking.service;
+
+import com.parking.entity.ParkingSpot;
+import com.parking.entity.ParkingSpotDoma;
+import com.parking.repository.ParkingSpotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JPAを経由しないスペット更新の反映テスト
+ * Domaでの更新のコミット後に二次キャッシュが破棄され、占有インデックスがDBの内容で更新される
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class SpotsChangedExternallyTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private ParkingSpotDomaService parkingSpotDomaService;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private SpotOccupancyIndex spotOccupancyIndex;
+
+    @Test
+    void domaStatusUpdateEvictsCacheAndRefreshesIndex() {
+        Long spotId = parkingSpotRepository.findByStatus(ParkingSpot.SpotStatus.AVAILABLE).get(0).getId();
+        // 二次キャッシュに読み込んでおく
+        parkingSpotRepository.findById(spotId);
+
+        parkingSpotDomaService.updateParkingSpotStatus(spotId, ParkingSpotDoma.SpotStatus.MAINTENANCE);
+
+        assertEquals(ParkingSpot.SpotStatus.MAINTENANCE,
+            parkingSpotRepository.findById(spotId).orElseThrow().getStatus());
+        assertEquals(ParkingSpot.SpotStatus.MAINTENANCE,
+            spotOccupancyIndex.getSpot(spotId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void domaDeleteRemovesSpotFromIndex() {
+        ParkingSpotDoma spot = parkingSpotDomaService.createParkingSpot(
+            "EXT-1", ParkingSpotDoma.SpotType.REGULAR, 1, 300.0);
+        assertEquals(ParkingSpot.SpotStatus.AVAILABLE,
+            spotOccupancyIndex.getSpot(spot.getId()).orElseThrow().getStatus());
+
+        parkingSpotDomaService.deleteParkingSpot(spot.getId());
+
+        assertTrue(spotOccupancyIndex.getSpot(spot.getId()).isEmpty());
+    }
+}
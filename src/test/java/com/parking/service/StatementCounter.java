@@ -0,0 +1,37 @@
+package com.parking.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 発行されたSQL文の数を数えるテスト用ヘルパー
+ * Hibernateの統計（hibernate.generate_statistics=true）を使用する
+ */
+final class StatementCounter {
+
+    private final Statistics statistics;
+
+    StatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * 処理を実行し、発行されたSQL文の数が期待値と一致することを確認する
+     * @param expected 期待するSQL文の数
+     * @param description 失敗時に表示する読み取り経路の名前
+     * @param action 実行する処理
+     * @return 処理の結果
+     */
+    <T> T assertStatements(long expected, String description, Supplier<T> action) {
+        statistics.clear();
+        T result = action.get();
+        assertEquals(expected, statistics.getPrepareStatementCount(),
+            description + " issued an unexpected number of SQL statements (N+1?)");
+        return result;
+    }
+}
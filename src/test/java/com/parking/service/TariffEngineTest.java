@@ -0,0 +1,114 @@
+package com.parking.service;
+
+import com.parking.config.TariffProperties;
+import com.parking.entity.ParkingSpot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 料金計算エンジンのテスト
+ * 既定のルール（猶予なし・60分単位・上限なし）では、従来の計算式（時間の切り上げ × 時間料金）と
+ * 同じ料金表になることを確認する。0分の駐車のみ従来の最低1時間ではなく無料とする
+ */
+class TariffEngineTest {
+
+    private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    @Test
+    void defaultRulesMatchLegacyHourlyFormula() {
+        TariffEngine engine = new TariffEngine(properties(0, 60, 0));
+
+        for (double rate : new double[] {300.0, 123.45, 0.5}) {
+            for (int entryMinute : new int[] {0, 7, 59, 725, 1439}) {
+                LocalDateTime entry = MIDNIGHT.plusMinutes(entryMinute);
+                for (int minutes = 1; minutes <= 3 * 1440; minutes++) {
+                    assertEquals(legacyFee(rate, minutes),
+                        engine.calculateFee(ParkingSpot.SpotType.REGULAR, rate, entry, entry.plusMinutes(minutes)),
+                        "rate=" + rate + ", entry=" + entryMinute + ", minutes=" + minutes);
+                }
+            }
+        }
+    }
+
+    @Test
+    void zeroMinuteSessionIsFreeWithoutGrace() {
+        TariffEngine engine = new TariffEngine(properties(0, 60, 0));
+
+        assertEquals(new BigDecimal("0.00"), fee(engine, 0));
+        assertEquals(new BigDecimal("0.00"),
+            engine.calculateFee(ParkingSpot.SpotType.REGULAR, 300.0, MIDNIGHT, MIDNIGHT.plusSeconds(59)));
+        assertEquals(new BigDecimal("300.00"), fee(engine, 1));
+    }
+
+    @Test
+    void graceMinutesAreFreeAndThenChargeFromFirstUnit() {
+        TariffEngine engine = new TariffEngine(properties(10, 60, 0));
+
+        assertEquals(new BigDecimal("0.00"), fee(engine, 10));
+        assertEquals(new BigDecimal("300.00"), fee(engine, 11));
+        assertEquals(new BigDecimal("600.00"), fee(engine, 61));
+    }
+
+    @Test
+    void dailyCapAndNightBandApply() {
+        TariffProperties properties = properties(0, 60, 12);
+        properties.getDefaults().setBands(List.of("22:00-06:00=50"));
+        TariffEngine engine = new TariffEngine(properties);
+
+        // 22:00から2時間は夜間料率（50%）
+        LocalDateTime night = MIDNIGHT.withHour(22);
+        assertEquals(new BigDecimal("300.00"),
+            engine.calculateFee(ParkingSpot.SpotType.REGULAR, 300.0, night, night.plusHours(2)));
+        // 24時間は上限（時間料金の12時間分）まで
+        assertEquals(new BigDecimal("3600.00"), fee(engine, 1440));
+        assertEquals(new BigDecimal("7200.00"), fee(engine, 2 * 1440));
+    }
+
+    @Test
+    void hourlyRateIsProratedByUnitMinutes() {
+        TariffProperties properties = properties(0, 60, 12);
+        TariffProperties.Rule truck = new TariffProperties.Rule();
+        truck.setUnitMinutes(30);
+        properties.getTypes().put(ParkingSpot.SpotType.TRUCK, truck);
+        TariffEngine engine = new TariffEngine(properties);
+
+        LocalDateTime entry = MIDNIGHT.withHour(9);
+        // 30分単位では1単位が時間料金の半額で、1時間の料金は60分単位と同じ
+        assertEquals(new BigDecimal("150.00"),
+            engine.calculateFee(ParkingSpot.SpotType.TRUCK, 300.0, entry, entry.plusMinutes(30)));
+        assertEquals(new BigDecimal("300.00"),
+            engine.calculateFee(ParkingSpot.SpotType.TRUCK, 300.0, entry, entry.plusMinutes(60)));
+        assertEquals(new BigDecimal("450.00"),
+            engine.calculateFee(ParkingSpot.SpotType.TRUCK, 300.0, entry, entry.plusMinutes(61)));
+        // 上限は課金単位によらず時間料金の12時間分
+        assertEquals(new BigDecimal("3600.00"),
+            engine.calculateFee(ParkingSpot.SpotType.TRUCK, 300.0, entry, entry.plusHours(24)));
+    }
+
+    private static BigDecimal fee(TariffEngine engine, long minutes) {
+        return engine.calculateFee(ParkingSpot.SpotType.REGULAR, 300.0, MIDNIGHT.withHour(9),
+            MIDNIGHT.withHour(9).plusMinutes(minutes));
+    }
+
+    /**
+     * 従来の計算式（1分以上の駐車は時間を切り上げ、時間料金を掛ける）
+     */
+    private static BigDecimal legacyFee(double rate, long minutes) {
+        long hours = (minutes + 59) / 60;
+        return BigDecimal.valueOf(rate).multiply(BigDecimal.valueOf(hours)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static TariffProperties properties(int graceMinutes, int unitMinutes, int dailyCapHours) {
+        TariffProperties properties = new TariffProperties();
+        properties.getDefaults().setGraceMinutes(graceMinutes);
+        properties.getDefaults().setUnitMinutes(unitMinutes);
+        properties.getDefaults().setDailyCapHours(dailyCapHours);
+        return properties;
+    }
+}
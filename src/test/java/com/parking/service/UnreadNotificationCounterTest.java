@@ -0,0 +1,73 @@
+package com.parking.service;
+
+import com.parking.entity.Notification;
+import com.parking.entity.User;
+import com.parking.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 未読通知数カウンターのテスト
+ * 既読にした通知を再度既読にしても未読数は二重に減らず、DBの未読件数と一致する
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class UnreadNotificationCounterTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void markingReadTwiceDecrementsOnce() {
+        Long userId = createUser("unread-counter").getId();
+        Notification first = notify(userId);
+        assertEquals(1, notificationService.getUnreadCount(userId));
+
+        notificationService.markAsRead(first.getId());
+        notificationService.markAsRead(first.getId());
+        assertEquals(0, notificationService.getUnreadCount(userId));
+
+        // 二重に減っていれば、次の通知で0のままになる
+        notify(userId);
+        assertEquals(1, notificationService.getUnreadCount(userId));
+    }
+
+    private Notification notify(Long userId) {
+        return notificationService.createAndSendNotification(userId, Notification.NotificationType.PARKING_START,
+            Notification.DeliveryMethod.IN_APP, "入庫", "入庫しました", Notification.Priority.LOW);
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}